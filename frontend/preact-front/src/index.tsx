@@ -131,6 +131,8 @@ type SearchResultsPageResponse = {
 	size: number;
 	totalElements: number;
 	totalPages: number;
+	hasNext: boolean;
+	totalExact: boolean;
 };
 
 type UserPublicProfileResponse = {
@@ -156,6 +158,13 @@ type AnalyticsWord = {
 	count: number;
 };
 
+type AnalyticsTrendingWindow = {
+	window: string;
+	totalWords: number;
+	errorBound: number;
+	words: AnalyticsWord[];
+};
+
 type AnalyticsTopPost = {
 	postId: string;
 	authorDisplayName: string;
@@ -186,6 +195,9 @@ type AnalyticsSummaryResponse = {
 	topPosts: AnalyticsTopPost[];
 	hourlyHeatmap: AnalyticsHourly[];
 	postsEvolution: AnalyticsDaily[];
+	trendingWords?: AnalyticsTrendingWindow[];
+	partial: boolean;
+	freshSections: Record<string, boolean>;
 };
 
 type Session = AuthResponse;
@@ -295,6 +307,7 @@ type Messages = {
 	summaryAvgUserEmailLength: string;
 	summaryTopWords: string;
 	summaryTopPosts: string;
+	summaryTrendingWords: string;
 	summaryHourlyHeatmap: string;
 	summaryPostsEvolution: string;
 	summaryNoData: string;
@@ -420,6 +433,7 @@ const I18N: Record<Language, Messages> = {
 		summaryAvgUserEmailLength: 'Media longitud usuario',
 		summaryTopWords: 'Top palabras',
 		summaryTopPosts: 'Top posts',
+		summaryTrendingWords: 'Palabras en tendencia',
 		summaryHourlyHeatmap: 'Heatmap por hora',
 		summaryPostsEvolution: 'Evolucion diaria (30 dias)',
 		summaryNoData: 'Sin datos suficientes para mostrar.',
@@ -543,6 +557,7 @@ const I18N: Record<Language, Messages> = {
 		summaryAvgUserEmailLength: 'Avg user length',
 		summaryTopWords: 'Top words',
 		summaryTopPosts: 'Top posts',
+		summaryTrendingWords: 'Trending words',
 		summaryHourlyHeatmap: 'Hourly heatmap',
 		summaryPostsEvolution: 'Daily evolution (30 days)',
 		summaryNoData: 'Not enough data to display.',
@@ -798,10 +813,18 @@ function App() {
 	const [searchOpen, setSearchOpen] = useState(false);
 	const [searchLoading, setSearchLoading] = useState(false);
 	const [searchResults, setSearchResults] = useState<SearchResultItem[]>([]);
-	const [searchResultsMeta, setSearchResultsMeta] = useState<{ page: number; totalPages: number; totalElements: number }>({
+	const [searchResultsMeta, setSearchResultsMeta] = useState<{
+		page: number;
+		totalPages: number;
+		totalElements: number;
+		hasNext: boolean;
+		totalExact: boolean;
+	}>({
 		page: 0,
 		totalPages: 0,
 		totalElements: 0,
+		hasNext: false,
+		totalExact: true,
 	});
 	const [activeSearch, setActiveSearch] = useState<{ query: string; type: SearchType }>({ query: '', type: 'posts' });
 	const [searchResultsLoading, setSearchResultsLoading] = useState(false);
@@ -1003,11 +1026,14 @@ function App() {
 		}
 		const payload = (await response.json()) as SearchResultsPageResponse;
 		setSearchResults((prev) => (append ? [...prev, ...payload.items] : payload.items));
-		setSearchResultsMeta({
+		// Las paginas siguientes no cuentan (total=false por defecto): se conserva el total de la primera.
+		setSearchResultsMeta((prev) => ({
 			page: payload.page,
-			totalPages: payload.totalPages,
-			totalElements: payload.totalElements,
-		});
+			totalPages: append ? Math.max(prev.totalPages, payload.totalPages) : payload.totalPages,
+			totalElements: append ? Math.max(prev.totalElements, payload.totalElements) : payload.totalElements,
+			hasNext: payload.hasNext,
+			totalExact: append && prev.totalElements >= payload.totalElements ? prev.totalExact : payload.totalExact,
+		}));
 	};
 
 	const loadPostDetail = async (postId: string) => {
@@ -1082,7 +1108,7 @@ function App() {
 		if (!session || searchResultsLoadingMore) {
 			return;
 		}
-		if (searchResultsMeta.totalPages === 0 || searchResultsMeta.page + 1 >= searchResultsMeta.totalPages) {
+		if (!searchResultsMeta.hasNext) {
 			return;
 		}
 		setSearchResultsLoadingMore(true);
@@ -2000,6 +2026,25 @@ state.apply(requestedLanguage);`,
 										)}
 									</section>
 
+									<section class="summary-box">
+										<h3>{t.summaryTrendingWords}</h3>
+										{(summaryResponse.trendingWords ?? []).every((window) => window.words.length === 0) ? (
+											<p class="muted">{t.summaryNoData}</p>
+										) : (
+											<ul class="summary-list">
+												{(summaryResponse.trendingWords ?? []).map((window) => (
+													<li key={window.window}>
+														<strong>{window.window}</strong>
+														<span>
+															{window.words.slice(0, 5).map((item) => `${item.word} (${item.count})`).join(' · ') || '-'}
+														</span>
+														<small>± {window.errorBound}</small>
+													</li>
+												))}
+											</ul>
+										)}
+									</section>
+
 									<section class="summary-box">
 										<h3>{t.summaryTopPosts}</h3>
 										{summaryResponse.topPosts.length === 0 ? (
@@ -2342,6 +2387,7 @@ state.apply(requestedLanguage);`,
 							<h2>{t.searchResultsTitle}</h2>
 							<p class="muted">
 								{activeSearch.type === 'posts' ? t.searchPosts : t.searchUsers} {t.searchResultsFor} "<strong>{activeSearch.query}</strong>" · {searchResultsMeta.totalElements}
+								{searchResultsMeta.totalExact ? '' : '+'}
 							</p>
 							<button class="ghost" onClick={() => navigate('/app')}>{t.backToFeed}</button>
 						</div>
@@ -2425,7 +2471,7 @@ state.apply(requestedLanguage);`,
 							))}
 						</div>
 
-						{searchResultsMeta.page + 1 < searchResultsMeta.totalPages ? (
+						{searchResultsMeta.hasNext ? (
 							<div class="load-more-wrap">
 								<button class="ghost with-loader" onClick={() => void loadMoreSearchResults()} disabled={searchResultsLoadingMore}>
 									{searchResultsLoadingMore ? (
@@ -0,0 +1,149 @@
+package com.stelut.demostracion.analytics;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import com.stelut.demostracion.analytics.dto.AdhocGroupResponse;
+import com.stelut.demostracion.analytics.dto.AdhocQueryResponse;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+// Agregaciones ad-hoc sobre el snapshot columnar de este nodo: no tocan la BBDD.
+// Los datos van hasta un columnar-refresh-interval por detras (snapshotAt en la respuesta).
+@Service
+public class AdhocAnalyticsService {
+
+	static final int MAX_TIME_GROUPS = 2000;
+	private static final Duration DEFAULT_HOURLY_RANGE = Duration.ofHours(24);
+	private static final Duration DEFAULT_DAILY_RANGE = Duration.ofDays(30);
+
+	private final PostColumnSnapshot snapshot;
+	private final AnalyticsMetrics metrics;
+
+	public AdhocAnalyticsService(PostColumnSnapshot snapshot, AnalyticsMetrics metrics) {
+		this.snapshot = snapshot;
+		this.metrics = metrics;
+	}
+
+	// Sin to: hasta ahora. Sin from: 24h con hour, 30 dias con day y todo el snapshot con el resto.
+	// author y word filtran; con author/word como grupo se devuelven los limit mayores.
+	public AdhocQueryResponse query(
+			String groupByValue,
+			String metricValue,
+			Instant from,
+			Instant to,
+			UUID authorId,
+			String word,
+			int limit
+	) {
+		AdhocQuery.GroupBy groupBy = AdhocQuery.GroupBy.fromValue(groupByValue)
+				.orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "unknown groupBy"));
+		AdhocQuery.Metric metric = AdhocQuery.Metric.fromValue(metricValue)
+				.orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "unknown metric"));
+		PostColumns columns = snapshot.current()
+				.orElseThrow(() -> new ResponseStatusException(SERVICE_UNAVAILABLE, "analytics snapshot not ready"));
+
+		Instant end = to == null ? Instant.now() : to;
+		Instant start = from != null ? from : switch (groupBy) {
+			case HOUR -> end.minus(DEFAULT_HOURLY_RANGE);
+			case DAY -> end.minus(DEFAULT_DAILY_RANGE);
+			default -> Instant.EPOCH;
+		};
+		if (!start.isBefore(end)) {
+			throw new ResponseStatusException(BAD_REQUEST, "from must be before to");
+		}
+		ChronoUnit unit = groupBy == AdhocQuery.GroupBy.DAY ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+		if (groupBy.timeBuckets()) {
+			start = start.truncatedTo(unit);
+			Instant truncatedEnd = end.truncatedTo(unit);
+			end = truncatedEnd.isBefore(end) ? truncatedEnd.plus(1, unit) : truncatedEnd;
+			if (unit.between(start, end) > MAX_TIME_GROUPS) {
+				throw new ResponseStatusException(BAD_REQUEST, "range too large");
+			}
+		}
+		int groups = switch (groupBy) {
+			case HOUR, DAY -> (int) unit.between(start, end);
+			case HOUR_OF_DAY -> 24;
+			case WEEKDAY -> 7;
+			case AUTHOR -> columns.authorCount();
+			case WORD -> columns.wordCount();
+		};
+		int author = authorId == null ? -1 : columns.authorIndexOf(authorId);
+		int wordIndex = word == null || word.isBlank() ? -1 : columns.wordIndexOf(word.trim().toLowerCase(Locale.ROOT));
+		AdhocQuery query = new AdhocQuery(groupBy, metric, start.getEpochSecond(), end.getEpochSecond(), author, wordIndex, groups);
+
+		long started = System.nanoTime();
+		// Un filtro que no aparece en el snapshot no deja pasar ninguna fila.
+		boolean noMatch = (authorId != null && author < 0) || (word != null && !word.isBlank() && wordIndex < 0);
+		long[] sums = noMatch ? new long[groups + 1] : columns.aggregate(query);
+		long nanos = System.nanoTime() - started;
+		metrics.columnarScan(groupBy.value(), nanos);
+
+		int scanned = columns.firstRowAtOrAfter(query.to()) - columns.firstRowAtOrAfter(query.from());
+		return new AdhocQueryResponse(
+				groupBy.value(),
+				metric.value(),
+				start,
+				end,
+				columns.builtAt(),
+				scanned,
+				sums[groups],
+				nanos / 1_000,
+				toGroups(columns, groupBy, start, unit, sums, groups, limit)
+		);
+	}
+
+	private static List<AdhocGroupResponse> toGroups(
+			PostColumns columns,
+			AdhocQuery.GroupBy groupBy,
+			Instant start,
+			ChronoUnit unit,
+			long[] sums,
+			int groups,
+			int limit
+	) {
+		return switch (groupBy) {
+			case HOUR, DAY -> IntStream.range(0, groups)
+					.mapToObj(group -> new AdhocGroupResponse(start.plus(group, unit).toString(), null, sums[group]))
+					.toList();
+			case HOUR_OF_DAY -> IntStream.range(0, groups)
+					.mapToObj(group -> new AdhocGroupResponse(Integer.toString(group), null, sums[group]))
+					.toList();
+			case WEEKDAY -> IntStream.range(0, groups)
+					.mapToObj(group -> new AdhocGroupResponse(
+							DayOfWeek.of(group + 1).name().toLowerCase(Locale.ROOT), null, sums[group]))
+					.toList();
+			case AUTHOR -> top(sums, groups, limit).stream()
+					.map(group -> new AdhocGroupResponse(
+							columns.authorId(group).toString(), columns.authorName(group), sums[group]))
+					.toList();
+			case WORD -> top(sums, groups, limit).stream()
+					.map(group -> new AdhocGroupResponse(columns.word(group), null, sums[group]))
+					.toList();
+		};
+	}
+
+	// Grupos con valor > 0, de mayor a menor (empate: indice menor primero).
+	private static List<Integer> top(long[] sums, int groups, int limit) {
+		List<Integer> ranked = new ArrayList<>();
+		for (int group = 0; group < groups; group++) {
+			if (sums[group] > 0) {
+				ranked.add(group);
+			}
+		}
+		ranked.sort(Comparator.<Integer>comparingLong(group -> sums[group]).reversed().thenComparingInt(group -> group));
+		return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+	}
+}
@@ -0,0 +1,46 @@
+package com.stelut.demostracion.analytics;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+// Consulta ya resuelta contra un PostColumns: [from, to) en segundos epoch, author y word como indices del
+// diccionario (-1 = sin filtro) y groups el tamano del array de acumulacion.
+record AdhocQuery(GroupBy groupBy, Metric metric, long from, long to, int author, int word, int groups) {
+
+	enum GroupBy {
+		HOUR,
+		DAY,
+		HOUR_OF_DAY,
+		WEEKDAY,
+		AUTHOR,
+		WORD;
+
+		String value() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+
+		boolean timeBuckets() {
+			return this == HOUR || this == DAY;
+		}
+
+		static Optional<GroupBy> fromValue(String value) {
+			return Arrays.stream(values()).filter(groupBy -> groupBy.value().equalsIgnoreCase(value)).findFirst();
+		}
+	}
+
+	enum Metric {
+		POSTS,
+		LIKES,
+		VIEWS,
+		COMMENTS;
+
+		String value() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+
+		static Optional<Metric> fromValue(String value) {
+			return Arrays.stream(values()).filter(metric -> metric.value().equalsIgnoreCase(value)).findFirst();
+		}
+	}
+}
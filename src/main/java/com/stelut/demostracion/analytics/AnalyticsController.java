@@ -1,23 +1,75 @@
 package com.stelut.demostracion.analytics;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.stelut.demostracion.analytics.dto.AdhocQueryResponse;
 import com.stelut.demostracion.analytics.dto.AnalyticsSummaryResponse;
+import com.stelut.demostracion.analytics.dto.AnalyticsTimeseriesResponse;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+@Validated
 @RestController
 @RequestMapping("/api/v1/analytics")
 public class AnalyticsController {
 
 	private final AnalyticsService analyticsService;
+	private final EngagementTimeseriesService timeseriesService;
+	private final AdhocAnalyticsService adhocAnalyticsService;
 
-	public AnalyticsController(AnalyticsService analyticsService) {
+	public AnalyticsController(
+			AnalyticsService analyticsService,
+			EngagementTimeseriesService timeseriesService,
+			AdhocAnalyticsService adhocAnalyticsService
+	) {
 		this.analyticsService = analyticsService;
+		this.timeseriesService = timeseriesService;
+		this.adhocAnalyticsService = adhocAnalyticsService;
 	}
 
+	// Age: segundos desde que se calculo el resumen servido (puede ser el anterior mientras se refresca).
 	@GetMapping("/summary")
-	public AnalyticsSummaryResponse summary() {
-		return analyticsService.summary();
+	public ResponseEntity<AnalyticsSummaryResponse> summary() {
+		AnalyticsSummaryResponse summary = analyticsService.summary();
+		long age = Math.max(0, Duration.between(summary.generatedAt(), Instant.now()).toSeconds());
+		return ResponseEntity.ok()
+				.header(HttpHeaders.AGE, Long.toString(age))
+				.body(summary);
+	}
+
+	// metric: posts|likes|views|comments|active_users; from/to en ISO-8601; granularity: hour|day.
+	@GetMapping("/timeseries")
+	public AnalyticsTimeseriesResponse timeseries(
+			@RequestParam(name = "metric") String metric,
+			@RequestParam(name = "from", required = false) Instant from,
+			@RequestParam(name = "to", required = false) Instant to,
+			@RequestParam(name = "granularity", defaultValue = "hour") String granularity
+	) {
+		return timeseriesService.timeseries(metric, from, to, granularity);
+	}
+
+	// groupBy: hour|day|hour_of_day|weekday|author|word; metric: posts|likes|views|comments.
+	@GetMapping("/adhoc")
+	public AdhocQueryResponse adhoc(
+			@RequestParam(name = "groupBy") String groupBy,
+			@RequestParam(name = "metric", defaultValue = "posts") String metric,
+			@RequestParam(name = "from", required = false) Instant from,
+			@RequestParam(name = "to", required = false) Instant to,
+			@RequestParam(name = "authorId", required = false) UUID authorId,
+			@RequestParam(name = "word", required = false) String word,
+			@RequestParam(name = "limit", defaultValue = "20") @Min(1) @Max(100) int limit
+	) {
+		return adhocAnalyticsService.query(groupBy, metric, from, to, authorId, word, limit);
 	}
 }
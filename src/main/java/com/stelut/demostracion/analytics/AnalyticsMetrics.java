@@ -0,0 +1,55 @@
+package com.stelut.demostracion.analytics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class AnalyticsMetrics {
+
+	private final MeterRegistry registry;
+
+	public AnalyticsMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	public void summarySection(String section, String outcome, long nanos) {
+		Timer.builder("analytics.summary.section")
+				.tag("section", section)
+				.tag("outcome", outcome)
+				.register(registry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void summarySectionTimeout(String section) {
+		registry.counter("analytics.summary.section.timeout", "section", section).increment();
+	}
+
+	public void summaryRefresh(String outcome, long nanos) {
+		Timer.builder("analytics.summary.refresh")
+				.tag("outcome", outcome)
+				.register(registry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void summaryCacheAge(Supplier<Number> ageSeconds) {
+		Gauge.builder("analytics.summary.cache.age", ageSeconds).baseUnit("seconds").register(registry);
+	}
+
+	public void columnarSnapshot(Supplier<Number> posts, Supplier<Number> ageSeconds) {
+		Gauge.builder("analytics.columnar.posts", posts).register(registry);
+		Gauge.builder("analytics.columnar.age", ageSeconds).baseUnit("seconds").register(registry);
+	}
+
+	public void columnarScan(String groupBy, long nanos) {
+		Timer.builder("analytics.columnar.scan")
+				.tag("groupBy", groupBy)
+				.register(registry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+}
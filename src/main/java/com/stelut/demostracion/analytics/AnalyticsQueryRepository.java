@@ -35,6 +35,36 @@ public interface AnalyticsQueryRepository extends JpaRepository<Post, UUID> {
 		Number getComments();
 	}
 
+	interface ColumnarRowProjection {
+		UUID getPostId();
+
+		UUID getAuthorId();
+
+		String getAuthorDisplayName();
+
+		String getContent();
+
+		Instant getCreatedAt();
+
+		Number getLikes();
+
+		Number getViews();
+
+		Number getComments();
+	}
+
+	interface ColumnarCountersProjection {
+		UUID getPostId();
+
+		Instant getCreatedAt();
+
+		Number getLikes();
+
+		Number getViews();
+
+		Number getComments();
+	}
+
 	interface HourlyProjection {
 		Integer getHour();
 
@@ -51,23 +81,12 @@ public interface AnalyticsQueryRepository extends JpaRepository<Post, UUID> {
 		Number getValue();
 	}
 
+	// word_counts se mantiene al publicar (WordCountAccumulator); el top-k sale de idx_word_counts_total_word.
 	@Query(
 			value = """
-					select lower(w.word) as word, count(*) as total
-					from posts p
-					cross join lateral regexp_split_to_table(
-					    regexp_replace(coalesce(p.content, ''), '[^A-Za-z0-9]+', ' ', 'g'),
-					    '\\s+'
-					) as w(word)
-					where w.word <> ''
-					  and char_length(w.word) >= 3
-					  and lower(w.word) not in (
-					    'the','and','for','that','with','this','from','have','your','you','are','was','but',
-					    'una','unas','unos','que','con','para','por','del','las','los','sus','como','pero','sin',
-					    'esto','esta','este','muy','mas','una','uno','todo','toda'
-					  )
-					group by lower(w.word)
-					order by total desc, word asc
+					select w.word as word, w.total as total
+					from word_counts w
+					order by w.total desc, w.word asc
 					limit :limit
 					""",
 			nativeQuery = true
@@ -107,25 +126,92 @@ public interface AnalyticsQueryRepository extends JpaRepository<Post, UUID> {
 	)
 	List<TopPostProjection> findTopPosts(@Param("limit") int limit);
 
+	// Carga del snapshot columnar (PostColumnSnapshot): paginas por idx_posts_created_at_id, mas nuevos primero,
+	// con los contadores de cada post de la pagina.
 	@Query(
 			value = """
-					select cast(extract(hour from p.created_at) as integer) as hour, count(*) as total
+					select p.id as postId, p.author_id as authorId, p.author_display_name as authorDisplayName,
+					       p.content as content, p.created_at as createdAt,
+					       (select count(*) from post_likes l where l.post_id = p.id) as likes,
+					       (select coalesce(sum(v.view_count), 0) from post_views v where v.post_id = p.id) as views,
+					       (select count(*) from post_comments c where c.post_id = p.id) as comments
 					from posts p
-					group by cast(extract(hour from p.created_at) as integer)
+					where (p.created_at, p.id) < (:createdAt, :id)
+					order by p.created_at desc, p.id desc
+					limit :limit
+					""",
+			nativeQuery = true
+	)
+	List<ColumnarRowProjection> findColumnarRowsBefore(
+			@Param("createdAt") Instant createdAt,
+			@Param("id") UUID id,
+			@Param("limit") int limit
+	);
+
+	// Refresco incremental del snapshot columnar: posts posteriores al cursor, mas antiguos primero.
+	@Query(
+			value = """
+					select p.id as postId, p.author_id as authorId, p.author_display_name as authorDisplayName,
+					       p.content as content, p.created_at as createdAt,
+					       (select count(*) from post_likes l where l.post_id = p.id) as likes,
+					       (select coalesce(sum(v.view_count), 0) from post_views v where v.post_id = p.id) as views,
+					       (select count(*) from post_comments c where c.post_id = p.id) as comments
+					from posts p
+					where (p.created_at, p.id) > (:createdAt, :id)
+					order by p.created_at asc, p.id asc
+					limit :limit
+					""",
+			nativeQuery = true
+	)
+	List<ColumnarRowProjection> findColumnarRowsAfter(
+			@Param("createdAt") Instant createdAt,
+			@Param("id") UUID id,
+			@Param("limit") int limit
+	);
+
+	// Contadores actuales de los posts con likes, views o comments desde since (indices de V12).
+	// Un unlike borra la fila y no deja rastro: lo corrige la siguiente carga completa.
+	@Query(
+			value = """
+					select p.id as postId, p.created_at as createdAt,
+					       (select count(*) from post_likes l where l.post_id = p.id) as likes,
+					       (select coalesce(sum(v.view_count), 0) from post_views v where v.post_id = p.id) as views,
+					       (select count(*) from post_comments c where c.post_id = p.id) as comments
+					from posts p
+					where p.id in (
+					  select post_id from post_likes where created_at >= :since
+					  union
+					  select post_id from post_views where last_viewed_at >= :since
+					  union
+					  select post_id from post_comments where created_at >= :since
+					)
+					""",
+			nativeQuery = true
+	)
+	List<ColumnarCountersProjection> findColumnarCountersChangedSince(@Param("since") Instant since);
+
+	// Desde engagement_rollups (V11): una fila por hora con actividad en vez de un recorrido de posts.
+	@Query(
+			value = """
+					select cast(extract(hour from r.bucket_start) as integer) as hour, sum(r.posts) as total
+					from engagement_rollups r
+					where r.granularity = 'hour' and r.posts > 0
+					group by cast(extract(hour from r.bucket_start) as integer)
 					order by hour
 					""",
 			nativeQuery = true
 	)
 	List<HourlyProjection> findPostsPerHour();
 
+	// Dias en UTC, los de los buckets diarios.
 	@Query(
 			value = """
 					select q.day as day, q.total as total
 					from (
-					  select cast(date_trunc('day', p.created_at) as date) as day, count(*) as total
-					  from posts p
-					  group by cast(date_trunc('day', p.created_at) as date)
-					  order by day desc
+					  select cast(r.bucket_start at time zone 'UTC' as date) as day, r.posts as total
+					  from engagement_rollups r
+					  where r.granularity = 'day' and r.posts > 0
+					  order by r.bucket_start desc
 					  limit :days
 					) q
 					order by q.day asc
@@ -134,15 +220,12 @@ public interface AnalyticsQueryRepository extends JpaRepository<Post, UUID> {
 	)
 	List<DailyProjection> findPostsPerDay(@Param("days") int days);
 
+	// Sumas acumuladas de word_length_stats: una fila, no depende del volumen de texto.
 	@Query(
 			value = """
-					select coalesce(avg(char_length(w.word)::numeric), 0) as value
-					from posts p
-					cross join lateral regexp_split_to_table(
-					    regexp_replace(coalesce(p.content, ''), '[^A-Za-z0-9]+', ' ', 'g'),
-					    '\\s+'
-					) as w(word)
-					where w.word <> ''
+					select coalesce(s.characters::numeric / nullif(s.words, 0), 0) as value
+					from word_length_stats s
+					where s.id = 1
 					""",
 			nativeQuery = true
 	)
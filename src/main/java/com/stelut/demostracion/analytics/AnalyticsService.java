@@ -1,37 +1,173 @@
 package com.stelut.demostracion.analytics;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.stelut.demostracion.analytics.dto.AnalyticsSummaryResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import jakarta.annotation.PostConstruct;
+
+// Stale-while-revalidate: siempre se sirve el ultimo resumen al momento y, si ha caducado, se recalcula en segundo
+// plano. Un unico refresco en vuelo por nodo: las peticiones que llegan mientras tanto no lanzan otro (el endpoint es
+// publico). Solo la primera peticion, sin resumen previo, espera al calculo (compartido con las que lleguen a la vez).
+// Ademas se refresca cada summary-refresh-interval mientras haya peticiones recientes.
+// Con Redis el calculo es uno por cluster: el refresco solo calcula si consigue el lease (AnalyticsSnapshotStore)
+// y publica el resultado; los demas nodos lo traen al cambiar la version.
 @Service
 public class AnalyticsService {
 
+	private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+	// Sin peticiones en IDLE_AFTER_INTERVALS intervalos se deja de refrescar hasta la siguiente.
+	private static final int IDLE_AFTER_INTERVALS = 10;
+
 	private final HeavyAnalyticsEngine heavyAnalyticsEngine;
 	private final AnalyticsSummaryCache analyticsSummaryCache;
+	private final AnalyticsSnapshotStore snapshotStore;
+	private final AnalyticsMetrics metrics;
 	private final Duration summaryCacheTtl;
+	private final Duration refreshInterval;
+	private final AtomicReference<CompletableFuture<AnalyticsSummaryResponse>> inFlight = new AtomicReference<>();
+	private volatile Instant lastRequestedAt = Instant.EPOCH;
 
 	public AnalyticsService(
 			HeavyAnalyticsEngine heavyAnalyticsEngine,
 			AnalyticsSummaryCache analyticsSummaryCache,
-			@Value("${app.analytics.summary-cache-ttl:PT60S}") Duration summaryCacheTtl
+			AnalyticsSnapshotStore snapshotStore,
+			AnalyticsMetrics metrics,
+			@Value("${app.analytics.summary-cache-ttl:PT60S}") Duration summaryCacheTtl,
+			@Value("${app.analytics.summary-refresh-interval:PT60S}") Duration refreshInterval
 	) {
 		this.heavyAnalyticsEngine = heavyAnalyticsEngine;
 		this.analyticsSummaryCache = analyticsSummaryCache;
+		this.snapshotStore = snapshotStore;
+		this.metrics = metrics;
 		this.summaryCacheTtl = summaryCacheTtl;
+		this.refreshInterval = refreshInterval;
+	}
+
+	@PostConstruct
+	void init() {
+		metrics.summaryCacheAge(analyticsSummaryCache::ageSeconds);
 	}
 
-	@Transactional(readOnly = true)
+	// Sin transaccion aqui: cada seccion del motor abre la suya en su propio hilo.
 	public AnalyticsSummaryResponse summary() {
-		return analyticsSummaryCache.getIfFresh(summaryCacheTtl)
-				.orElseGet(() -> {
-					AnalyticsSummaryResponse fresh = heavyAnalyticsEngine.computeSummary();
-					analyticsSummaryCache.put(fresh);
-					return fresh;
-				});
+		lastRequestedAt = Instant.now();
+		Optional<AnalyticsSummaryResponse> fresh = analyticsSummaryCache.getIfFresh(summaryCacheTtl);
+		if (fresh.isPresent()) {
+			return fresh.get();
+		}
+		Optional<AnalyticsSummaryResponse> stale = analyticsSummaryCache.latest();
+		CompletableFuture<AnalyticsSummaryResponse> refresh = refresh();
+		if (stale.isPresent()) {
+			return stale.get();
+		}
+		try {
+			return refresh.join();
+		} catch (CompletionException ex) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "analytics summary unavailable");
+		}
+	}
+
+	@Scheduled(
+			initialDelayString = "${app.analytics.summary-refresh-interval:PT60S}",
+			fixedDelayString = "${app.analytics.summary-refresh-interval:PT60S}"
+	)
+	public void scheduledRefresh() {
+		// Sin resumen todavia no se toca el motor (es @Lazy); tampoco si nadie lo pide desde hace rato.
+		boolean idle = lastRequestedAt.isBefore(Instant.now().minus(refreshInterval.multipliedBy(IDLE_AFTER_INTERVALS)));
+		if (analyticsSummaryCache.latest().isPresent() && !idle) {
+			refresh();
+		}
+	}
+
+	@Scheduled(
+			initialDelayString = "${app.analytics.summary-sync-interval:PT5S}",
+			fixedDelayString = "${app.analytics.summary-sync-interval:PT5S}"
+	)
+	public void syncFromCluster() {
+		if (snapshotStore.isEnabled()) {
+			pullIfNewer();
+		}
+	}
+
+	private CompletableFuture<AnalyticsSummaryResponse> refresh() {
+		CompletableFuture<AnalyticsSummaryResponse> created = new CompletableFuture<>();
+		CompletableFuture<AnalyticsSummaryResponse> running = inFlight.compareAndExchange(null, created);
+		if (running != null) {
+			return running;
+		}
+		Thread.ofVirtual().name("analytics-summary-refresh").start(() -> {
+			long started = System.nanoTime();
+			try {
+				created.complete(refreshNow(started));
+			} catch (RuntimeException ex) {
+				metrics.summaryRefresh("error", System.nanoTime() - started);
+				log.warn("analytics summary refresh failed reason={}", ex.getMessage());
+				created.completeExceptionally(ex);
+			} finally {
+				inFlight.set(null);
+			}
+		});
+		return created;
+	}
+
+	private AnalyticsSummaryResponse refreshNow(long started) {
+		if (!snapshotStore.isEnabled()) {
+			return compute(started, -1);
+		}
+		// Puede que otro nodo acabe de publicar uno vigente.
+		pullIfNewer();
+		Optional<AnalyticsSummaryResponse> fresh = analyticsSummaryCache.getIfFresh(summaryCacheTtl);
+		if (fresh.isPresent()) {
+			return fresh.get();
+		}
+		Optional<String> lease = snapshotStore.tryAcquireLease();
+		if (lease.isEmpty()) {
+			// Lo esta calculando otro nodo y llegara con la sincronizacion; sin nada local (arranque) se calcula aqui.
+			Optional<AnalyticsSummaryResponse> latest = analyticsSummaryCache.latest();
+			return latest.isPresent() ? latest.get() : compute(started, -1);
+		}
+		try {
+			AnalyticsSummaryResponse summary = heavyAnalyticsEngine.computeSummary(analyticsSummaryCache.latest().orElse(null));
+			long version = snapshotStore.publish(lease.get(), summary).orElse(-1L);
+			analyticsSummaryCache.put(summary, version);
+			metrics.summaryRefresh(summary.partial() ? "partial" : "ok", System.nanoTime() - started);
+			return summary;
+		} finally {
+			snapshotStore.releaseLease(lease.get());
+		}
+	}
+
+	private AnalyticsSummaryResponse compute(long started, long version) {
+		AnalyticsSummaryResponse summary = heavyAnalyticsEngine.computeSummary(analyticsSummaryCache.latest().orElse(null));
+		analyticsSummaryCache.put(summary, version);
+		metrics.summaryRefresh(summary.partial() ? "partial" : "ok", System.nanoTime() - started);
+		return summary;
+	}
+
+	private void pullIfNewer() {
+		long remote = snapshotStore.remoteVersion();
+		if (remote > analyticsSummaryCache.version()) {
+			snapshotStore.fetch()
+					.filter(snapshot -> snapshot.version() > analyticsSummaryCache.version())
+					// Uno calculado aqui sin lease (arranque) puede ser mas nuevo que el publicado.
+					.filter(snapshot -> analyticsSummaryCache.latest()
+							.map(local -> !snapshot.summary().generatedAt().isBefore(local.generatedAt()))
+							.orElse(true))
+					.ifPresent(snapshot -> analyticsSummaryCache.put(snapshot.summary(), snapshot.version()));
+		}
 	}
 }
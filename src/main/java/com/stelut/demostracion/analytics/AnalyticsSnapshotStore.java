@@ -0,0 +1,152 @@
+package com.stelut.demostracion.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.stelut.demostracion.analytics.dto.AnalyticsSummaryResponse;
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Resumen de analytics compartido entre nodos: un lease en Redis elige quien lo calcula y el resultado se guarda como
+// JSON comprimido (gzip + base64) en el hash analytics:summary junto a una version creciente.
+// El resto de nodos comparan la version y solo descargan el blob cuando cambia.
+@Component
+public class AnalyticsSnapshotStore {
+
+	private static final Logger log = LoggerFactory.getLogger(AnalyticsSnapshotStore.class);
+	private static final String LEASE_KEY = "analytics:summary:lease";
+	private static final String SNAPSHOT_KEY = "analytics:summary";
+	private static final String FIELD_VERSION = "version";
+	private static final String FIELD_BLOB = "blob";
+
+	// Solo publica quien sigue teniendo el lease: un nodo lento cuyo lease caduco no pisa un resumen mas nuevo.
+	private static final RedisScript<Long> PUBLISH_SCRIPT = RedisScript.of("""
+			if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+			  return 0
+			end
+			local version = redis.call('HINCRBY', KEYS[2], 'version', 1)
+			redis.call('HSET', KEYS[2], 'blob', ARGV[2])
+			return version
+			""", Long.class);
+
+	private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+			if redis.call('GET', KEYS[1]) == ARGV[1] then
+			  return redis.call('DEL', KEYS[1])
+			end
+			return 0
+			""", Long.class);
+
+	public record Snapshot(long version, AnalyticsSummaryResponse summary) {
+	}
+
+	private final StringRedisTemplate redis;
+	private final JsonMapper jsonMapper;
+	private final SocialAsyncProperties properties;
+	private final Duration leaseTtl;
+
+	public AnalyticsSnapshotStore(
+			StringRedisTemplate redis,
+			JsonMapper jsonMapper,
+			SocialAsyncProperties properties,
+			@Value("${app.analytics.summary-lease-ttl:PT30S}") Duration leaseTtl
+	) {
+		this.redis = redis;
+		this.jsonMapper = jsonMapper;
+		this.properties = properties;
+		this.leaseTtl = leaseTtl;
+	}
+
+	public boolean isEnabled() {
+		return properties.redisEnabled();
+	}
+
+	// Token del lease si este nodo debe calcular. Con Redis caido tambien: cada nodo vuelve a calcular el suyo.
+	public Optional<String> tryAcquireLease() {
+		String token = UUID.randomUUID().toString();
+		try {
+			Boolean acquired = redis.opsForValue().setIfAbsent(LEASE_KEY, token, leaseTtl);
+			return Boolean.TRUE.equals(acquired) ? Optional.of(token) : Optional.empty();
+		} catch (RuntimeException ex) {
+			log.warn("redis analytics lease failed, computing locally reason={}", ex.getMessage());
+			return Optional.of(token);
+		}
+	}
+
+	public void releaseLease(String token) {
+		try {
+			redis.execute(RELEASE_SCRIPT, List.of(LEASE_KEY), token);
+		} catch (RuntimeException ex) {
+			log.warn("redis analytics lease release failed reason={}", ex.getMessage());
+		}
+	}
+
+	// Version publicada, o vacio si se perdio el lease o Redis fallo.
+	public Optional<Long> publish(String token, AnalyticsSummaryResponse summary) {
+		try {
+			Long version = redis.execute(PUBLISH_SCRIPT, List.of(LEASE_KEY, SNAPSHOT_KEY), token, encode(summary));
+			return version == null || version == 0 ? Optional.empty() : Optional.of(version);
+		} catch (RuntimeException ex) {
+			log.warn("redis analytics snapshot publish failed reason={}", ex.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	// Una lectura de un campo: es lo que hace cada nodo en cada sincronizacion.
+	public long remoteVersion() {
+		try {
+			Object version = redis.opsForHash().get(SNAPSHOT_KEY, FIELD_VERSION);
+			return version == null ? -1 : Long.parseLong(version.toString());
+		} catch (RuntimeException ex) {
+			log.warn("redis analytics snapshot version read failed reason={}", ex.getMessage());
+			return -1;
+		}
+	}
+
+	public Optional<Snapshot> fetch() {
+		try {
+			List<Object> fields = redis.opsForHash().multiGet(SNAPSHOT_KEY, List.of(FIELD_VERSION, FIELD_BLOB));
+			if (fields.get(0) == null || fields.get(1) == null) {
+				return Optional.empty();
+			}
+			return Optional.of(new Snapshot(Long.parseLong(fields.get(0).toString()), decode(fields.get(1).toString())));
+		} catch (RuntimeException ex) {
+			log.warn("redis analytics snapshot read failed reason={}", ex.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	private String encode(AnalyticsSummaryResponse summary) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(jsonMapper.writeValueAsBytes(summary));
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	private AnalyticsSummaryResponse decode(String blob) {
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(blob)))) {
+			return jsonMapper.readValue(gzip.readAllBytes(), AnalyticsSummaryResponse.class);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
@@ -20,7 +20,8 @@ public class AnalyticsSummaryCache {
 
 	private static final Logger log = LoggerFactory.getLogger(AnalyticsSummaryCache.class);
 
-	private record CacheEntry(AnalyticsSummaryResponse summary, Instant cachedAt) {
+	// cachedAt es el generatedAt del resumen: uno traido de Redis ya llega con la edad que tiene.
+	private record CacheEntry(AnalyticsSummaryResponse summary, Instant cachedAt, long version) {
 	}
 
 	private final ConcurrentHashMap<String, Object> lifecycleState = new ConcurrentHashMap<>();
@@ -59,7 +60,24 @@ public class AnalyticsSummaryCache {
 		return Optional.of(entry.summary());
 	}
 
-	void put(AnalyticsSummaryResponse summary) {
-		summaryRef.set(new CacheEntry(summary, Instant.now()));
+	// Sin mirar el TTL: el motor rellena con esto las secciones que no llegan a tiempo.
+	Optional<AnalyticsSummaryResponse> latest() {
+		return Optional.ofNullable(summaryRef.get()).map(CacheEntry::summary);
+	}
+
+	// Segundos desde el ultimo put; -1 si aun no hay resumen.
+	double ageSeconds() {
+		CacheEntry entry = summaryRef.get();
+		return entry == null ? -1 : Duration.between(entry.cachedAt(), Instant.now()).toMillis() / 1000.0;
+	}
+
+	// Version del snapshot compartido en Redis; -1 si el resumen se calculo solo para este nodo.
+	long version() {
+		CacheEntry entry = summaryRef.get();
+		return entry == null ? -1 : entry.version();
+	}
+
+	void put(AnalyticsSummaryResponse summary, long version) {
+		summaryRef.set(new CacheEntry(summary, summary.generatedAt(), version));
 	}
 }
@@ -0,0 +1,36 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Optional;
+
+// Buckets de engagement_rollups, siempre en UTC; value es la columna granularity.
+public enum EngagementGranularity {
+	HOUR("hour", ChronoUnit.HOURS),
+	DAY("day", ChronoUnit.DAYS);
+
+	private final String value;
+	private final ChronoUnit unit;
+
+	EngagementGranularity(String value, ChronoUnit unit) {
+		this.value = value;
+		this.unit = unit;
+	}
+
+	public String value() {
+		return value;
+	}
+
+	public ChronoUnit unit() {
+		return unit;
+	}
+
+	public Instant truncate(Instant instant) {
+		return instant.truncatedTo(unit);
+	}
+
+	public static Optional<EngagementGranularity> fromValue(String value) {
+		return Arrays.stream(values()).filter(granularity -> granularity.value.equalsIgnoreCase(value)).findFirst();
+	}
+}
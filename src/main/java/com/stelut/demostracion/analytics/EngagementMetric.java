@@ -0,0 +1,37 @@
+package com.stelut.demostracion.analytics;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.stelut.demostracion.analytics.EngagementRollupRepository.RollupProjection;
+
+// Series de /api/v1/analytics/timeseries; value es el parametro metric.
+public enum EngagementMetric {
+	POSTS("posts", RollupProjection::getPosts),
+	LIKES("likes", RollupProjection::getLikes),
+	VIEWS("views", RollupProjection::getViews),
+	COMMENTS("comments", RollupProjection::getComments),
+	ACTIVE_USERS("active_users", RollupProjection::getActiveUsers);
+
+	private final String value;
+	private final Function<RollupProjection, Number> column;
+
+	EngagementMetric(String value, Function<RollupProjection, Number> column) {
+		this.value = value;
+		this.column = column;
+	}
+
+	public String value() {
+		return value;
+	}
+
+	long read(RollupProjection row) {
+		Number number = column.apply(row);
+		return number == null ? 0 : number.longValue();
+	}
+
+	public static Optional<EngagementMetric> fromValue(String value) {
+		return Arrays.stream(values()).filter(metric -> metric.value.equalsIgnoreCase(value)).findFirst();
+	}
+}
@@ -0,0 +1,195 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.event.InteractionPersistedEvent;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Mantiene engagement_rollups: cada post o interaccion persistida (en la ruta sincrona o en el consumer de Kafka)
+// se apunta en engagement_rollup_events dentro de su misma transaccion, y cada rollups-flush-interval se reclaman
+// los pendientes, se agrupan por bucket horario y diario y se suman en la transaccion que los borra.
+// Hasta que EngagementRollupBackfill termina solo se reclaman los posteriores a cutover_at; despues, tambien los
+// anteriores que confirmaron tras su foto. Un unlike cuenta como actividad pero no resta likes: la serie es de
+// likes dados.
+@Component
+public class EngagementRollupAccumulator {
+
+	private static final Logger log = LoggerFactory.getLogger(EngagementRollupAccumulator.class);
+	// Margen para eventos tardios (lag de Kafka): hasta entonces se recuerdan los usuarios activos de cada bucket.
+	static final Duration REMEMBER_USERS_FOR = Duration.ofDays(2);
+	private static final int BATCH_SIZE = 500;
+	private static final int EVENTS_PER_TRANSACTION = 5000;
+	private static final int POSTS = 0;
+	private static final int LIKES = 1;
+	private static final int VIEWS = 2;
+	private static final int COMMENTS = 3;
+	private static final int NO_COUNT = -1;
+
+	private record Bucket(EngagementGranularity granularity, long epochSecond) {
+	}
+
+	private record ActiveUser(Bucket bucket, UUID userId) {
+	}
+
+	// Orden fijo: dos nodos que vuelcan a la vez bloquean las filas en el mismo orden.
+	private static final Comparator<Bucket> BUCKET_ORDER = Comparator
+			.comparing(Bucket::granularity)
+			.thenComparingLong(Bucket::epochSecond);
+	private static final Comparator<ActiveUser> ACTIVE_USER_ORDER = Comparator
+			.comparing(ActiveUser::bucket, BUCKET_ORDER)
+			.thenComparing(ActiveUser::userId);
+
+	private final EngagementRollupRepository repository;
+	private final TransactionTemplate transactionTemplate;
+	// Desde donde se reclaman eventos: cutover_at mientras falte la siembra, EPOCH cuando ya esta.
+	private volatile Instant claimFrom;
+
+	public EngagementRollupAccumulator(EngagementRollupRepository repository, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	// Solo posts locales: los que llegan por relay ya los cuenta el nodo que los creo.
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		if (!event.remote()) {
+			append(event.post().authorId(), event.post().createdAt(), POSTS);
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onInteractionPersisted(InteractionPersistedEvent event) {
+		int column = switch (event.type()) {
+			case LIKE -> LIKES;
+			case VIEW -> VIEWS;
+			case COMMENT -> COMMENTS;
+			case UNLIKE -> NO_COUNT;
+		};
+		append(event.userId(), event.occurredAt(), column);
+	}
+
+	// Se une a la transaccion del evento; sin transaccion (fallback) abre una propia.
+	void append(UUID userId, Instant at, int column) {
+		Instant occurredAt = at == null ? Instant.now() : at;
+		transactionTemplate.executeWithoutResult(status -> repository.appendEvent(userId, occurredAt, column));
+	}
+
+	@Scheduled(
+			initialDelayString = "${app.analytics.rollups-flush-interval:PT5S}",
+			fixedDelayString = "${app.analytics.rollups-flush-interval:PT5S}"
+	)
+	public void flush() {
+		try {
+			Integer claimed;
+			do {
+				claimed = transactionTemplate.execute(status -> sumNextEvents());
+			} while (claimed != null && claimed == EVENTS_PER_TRANSACTION);
+		} catch (RuntimeException ex) {
+			// La transaccion se deshace entera: los eventos siguen en la tabla y se reintentan en el siguiente volcado.
+			log.warn("engagement rollups flush failed reason={}", ex.getMessage());
+		}
+	}
+
+	private int sumNextEvents() {
+		List<EngagementRollupRepository.EventProjection> events = repository.claimEvents(claimFrom(), EVENTS_PER_TRANSACTION);
+		if (events.isEmpty()) {
+			return 0;
+		}
+		Map<Bucket, long[]> counts = new HashMap<>();
+		Set<ActiveUser> users = new HashSet<>();
+		for (EngagementRollupRepository.EventProjection event : events) {
+			int column = event.getKind().intValue();
+			for (EngagementGranularity granularity : EngagementGranularity.values()) {
+				Bucket bucket = new Bucket(granularity, granularity.truncate(event.getOccurredAt()).getEpochSecond());
+				if (column != NO_COUNT) {
+					counts.computeIfAbsent(bucket, ignored -> new long[4])[column]++;
+				}
+				if (event.getUserId() != null) {
+					users.add(new ActiveUser(bucket, event.getUserId()));
+				}
+			}
+		}
+		List<Bucket> buckets = counts.keySet().stream().sorted(BUCKET_ORDER).toList();
+		List<ActiveUser> activeUsers = users.stream().sorted(ACTIVE_USER_ORDER).toList();
+		for (int from = 0; from < buckets.size(); from += BATCH_SIZE) {
+			writeCounts(buckets.subList(from, Math.min(from + BATCH_SIZE, buckets.size())), counts);
+		}
+		for (int from = 0; from < activeUsers.size(); from += BATCH_SIZE) {
+			writeActiveUsers(activeUsers.subList(from, Math.min(from + BATCH_SIZE, activeUsers.size())));
+		}
+		return events.size();
+	}
+
+	@Scheduled(initialDelayString = "PT1M", fixedDelayString = "PT1H")
+	public void forgetOldActiveUsers() {
+		try {
+			Instant before = EngagementGranularity.DAY.truncate(Instant.now().minus(REMEMBER_USERS_FOR));
+			transactionTemplate.executeWithoutResult(status -> repository.deleteRememberedUsersBefore(before));
+		} catch (RuntimeException ex) {
+			log.warn("engagement rollup users cleanup failed reason={}", ex.getMessage());
+		}
+	}
+
+	private void writeCounts(List<Bucket> batch, Map<Bucket, long[]> counts) {
+		int size = batch.size();
+		String[] granularities = new String[size];
+		long[] epochSeconds = new long[size];
+		long[][] columns = new long[4][size];
+		for (int i = 0; i < size; i++) {
+			Bucket bucket = batch.get(i);
+			granularities[i] = bucket.granularity().value();
+			epochSeconds[i] = bucket.epochSecond();
+			long[] values = counts.get(bucket);
+			for (int column = 0; column < columns.length; column++) {
+				columns[column][i] = values[column];
+			}
+		}
+		repository.addCounts(granularities, epochSeconds, columns[POSTS], columns[LIKES], columns[VIEWS], columns[COMMENTS]);
+	}
+
+	private void writeActiveUsers(List<ActiveUser> batch) {
+		int size = batch.size();
+		String[] granularities = new String[size];
+		long[] epochSeconds = new long[size];
+		String[] userIds = new String[size];
+		for (int i = 0; i < size; i++) {
+			ActiveUser user = batch.get(i);
+			granularities[i] = user.bucket().granularity().value();
+			epochSeconds[i] = user.bucket().epochSecond();
+			userIds[i] = user.userId().toString();
+		}
+		repository.addActiveUsers(granularities, epochSeconds, userIds);
+	}
+
+	// Mientras la siembra no termina, los eventos anteriores al corte pueden estar tambien en su foto: se dejan.
+	// Se relee en cada volcado hasta que backfilled_at deja de ser null.
+	private Instant claimFrom() {
+		Instant loaded = claimFrom;
+		if (loaded != null) {
+			return loaded;
+		}
+		EngagementRollupState state = repository.findById(EngagementRollupState.ID).orElse(null);
+		if (state == null || state.getBackfilledAt() == null) {
+			return state == null ? Instant.EPOCH : state.getCutoverAt();
+		}
+		claimFrom = Instant.EPOCH;
+		return Instant.EPOCH;
+	}
+}
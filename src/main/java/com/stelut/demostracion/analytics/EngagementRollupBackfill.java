@@ -0,0 +1,64 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Siembra engagement_rollups con todo lo anterior a cutover_at (lo posterior lo suma EngagementRollupAccumulator).
+// Corre una sola vez en todo el cluster: el nodo que bloquea la fila de engagement_rollup_state lo hace en una
+// transaccion y la marca; si falla se deshace entero y se reintenta en el siguiente arranque.
+// La transaccion es REPEATABLE READ: las tablas de origen y engagement_rollup_events se leen en la misma foto,
+// asi que un evento anterior al corte que confirme despues de ella (Kafka con retraso) lo suma el acumulador.
+@Component
+public class EngagementRollupBackfill {
+
+	private static final Logger log = LoggerFactory.getLogger(EngagementRollupBackfill.class);
+
+	private final EngagementRollupRepository repository;
+	private final TransactionTemplate transactionTemplate;
+
+	public EngagementRollupBackfill(EngagementRollupRepository repository, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillOnStartup() {
+		Thread.ofVirtual().name("engagement-rollup-backfill").start(this::backfill);
+	}
+
+	private void backfill() {
+		long started = System.nanoTime();
+		try {
+			Optional<Instant> cutover = transactionTemplate.execute(status -> {
+				Optional<EngagementRollupState> pending = repository.lockPendingBackfill();
+				if (pending.isEmpty()) {
+					return Optional.<Instant>empty();
+				}
+				EngagementRollupState state = pending.get();
+				for (EngagementGranularity granularity : EngagementGranularity.values()) {
+					Instant rememberFrom = granularity.truncate(state.getCutoverAt()
+							.minus(EngagementRollupAccumulator.REMEMBER_USERS_FOR));
+					repository.backfillCounts(granularity.value(), state.getCutoverAt());
+					repository.backfillActiveUsers(granularity.value(), state.getCutoverAt(), rememberFrom);
+				}
+				repository.deleteEventsBefore(state.getCutoverAt());
+				state.markBackfilled(Instant.now());
+				return Optional.of(state.getCutoverAt());
+			});
+			cutover.ifPresent(at -> log.info("engagement rollups backfilled until={} tookMs={}",
+					at, (System.nanoTime() - started) / 1_000_000));
+		} catch (RuntimeException ex) {
+			log.warn("engagement rollups backfill failed reason={}", ex.getMessage());
+		}
+	}
+}
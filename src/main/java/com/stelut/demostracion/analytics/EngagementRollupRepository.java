@@ -0,0 +1,243 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface EngagementRollupRepository extends JpaRepository<EngagementRollupState, Short> {
+
+	interface RollupProjection {
+		Instant getBucketStart();
+
+		Number getPosts();
+
+		Number getLikes();
+
+		Number getViews();
+
+		Number getComments();
+
+		Number getActiveUsers();
+	}
+
+	interface EventProjection {
+		UUID getUserId();
+
+		Instant getOccurredAt();
+
+		Number getKind();
+	}
+
+	// Rango por la clave primaria (granularity, bucket_start): solo los buckets pedidos.
+	@Query(
+			value = """
+					select r.bucket_start as bucketStart, r.posts as posts, r.likes as likes, r.views as views,
+					       r.comments as comments, r.active_users as activeUsers
+					from engagement_rollups r
+					where r.granularity = :granularity
+					  and r.bucket_start >= :from
+					  and r.bucket_start < :to
+					order by r.bucket_start
+					""",
+			nativeQuery = true
+	)
+	List<RollupProjection> findSeries(
+			@Param("granularity") String granularity,
+			@Param("from") Instant from,
+			@Param("to") Instant to
+	);
+
+	// Vacio si ya esta sembrado o si otro nodo lo esta sembrando ahora (fila bloqueada).
+	@Query(
+			value = """
+					select * from engagement_rollup_state
+					where id = 1 and backfilled_at is null
+					for update skip locked
+					""",
+			nativeQuery = true
+	)
+	Optional<EngagementRollupState> lockPendingBackfill();
+
+	@Modifying
+	@Query(
+			value = """
+					INSERT INTO engagement_rollup_events (user_id, occurred_at, kind)
+					VALUES (:userId, :occurredAt, :kind)
+					""",
+			nativeQuery = true
+	)
+	int appendEvent(@Param("userId") UUID userId, @Param("occurredAt") Instant occurredAt, @Param("kind") int kind);
+
+	// Borra y devuelve hasta :limit eventos desde :from; SKIP LOCKED reparte los pendientes entre los nodos.
+	@Query(
+			value = """
+					DELETE FROM engagement_rollup_events e
+					WHERE e.id IN (
+					    SELECT q.id FROM engagement_rollup_events q
+					    WHERE q.occurred_at >= :from
+					    ORDER BY q.id
+					    LIMIT :limit
+					    FOR UPDATE SKIP LOCKED
+					)
+					RETURNING e.user_id AS userId, e.occurred_at AS occurredAt, e.kind AS kind
+					""",
+			nativeQuery = true
+	)
+	List<EventProjection> claimEvents(@Param("from") Instant from, @Param("limit") int limit);
+
+	// Los eventos anteriores al corte que ve la siembra ya los cuenta ella; los que confirmen despues se quedan.
+	@Modifying
+	@Query(
+			value = """
+					DELETE FROM engagement_rollup_events
+					WHERE occurred_at < :cutover
+					""",
+			nativeQuery = true
+	)
+	int deleteEventsBefore(@Param("cutover") Instant cutover);
+
+	// Un lote de buckets en una sola sentencia; los arrays van en paralelo y buckets son segundos epoch.
+	@Modifying
+	@Query(
+			value = """
+					INSERT INTO engagement_rollups (granularity, bucket_start, posts, likes, views, comments)
+					SELECT r.granularity, to_timestamp(r.bucket), r.posts, r.likes, r.views, r.comments
+					FROM unnest(
+					    cast(:granularities AS text[]), cast(:buckets AS bigint[]), cast(:posts AS bigint[]),
+					    cast(:likes AS bigint[]), cast(:views AS bigint[]), cast(:comments AS bigint[])
+					) AS r(granularity, bucket, posts, likes, views, comments)
+					ON CONFLICT (granularity, bucket_start)
+					DO UPDATE SET posts = engagement_rollups.posts + EXCLUDED.posts,
+					              likes = engagement_rollups.likes + EXCLUDED.likes,
+					              views = engagement_rollups.views + EXCLUDED.views,
+					              comments = engagement_rollups.comments + EXCLUDED.comments
+					""",
+			nativeQuery = true
+	)
+	int addCounts(
+			@Param("granularities") String[] granularities,
+			@Param("buckets") long[] buckets,
+			@Param("posts") long[] posts,
+			@Param("likes") long[] likes,
+			@Param("views") long[] views,
+			@Param("comments") long[] comments
+	);
+
+	// Solo suma a active_users los usuarios que no estaban ya apuntados en su bucket.
+	@Modifying
+	@Query(
+			value = """
+					WITH remembered AS (
+					    INSERT INTO engagement_rollup_users (granularity, bucket_start, user_id)
+					    SELECT u.granularity, to_timestamp(u.bucket), u.user_id
+					    FROM unnest(cast(:granularities AS text[]), cast(:buckets AS bigint[]), cast(:users AS uuid[]))
+					        AS u(granularity, bucket, user_id)
+					    ON CONFLICT DO NOTHING
+					    RETURNING granularity, bucket_start
+					)
+					INSERT INTO engagement_rollups (granularity, bucket_start, active_users)
+					SELECT r.granularity, r.bucket_start, count(*)
+					FROM remembered r
+					GROUP BY r.granularity, r.bucket_start
+					ON CONFLICT (granularity, bucket_start)
+					DO UPDATE SET active_users = engagement_rollups.active_users + EXCLUDED.active_users
+					""",
+			nativeQuery = true
+	)
+	int addActiveUsers(
+			@Param("granularities") String[] granularities,
+			@Param("buckets") long[] buckets,
+			@Param("users") String[] users
+	);
+
+	// Siembra: todo lo anterior a :cutover, leido de las tablas de origen en un solo recorrido por tabla.
+	// Las vistas se atribuyen a last_viewed_at (post_views no guarda cada impresion).
+	@Modifying
+	@Query(
+			value = """
+					INSERT INTO engagement_rollups (granularity, bucket_start, posts, likes, views, comments)
+					SELECT :granularity, e.bucket_start, sum(e.posts), sum(e.likes), sum(e.views), sum(e.comments)
+					FROM (
+					    SELECT date_trunc(cast(:granularity AS text), s.at, 'UTC') AS bucket_start,
+					           s.posts, s.likes, s.views, s.comments
+					    FROM (
+					        SELECT p.created_at AS at, 1 AS posts, 0 AS likes, 0 AS views, 0 AS comments
+					        FROM posts p WHERE p.created_at < :cutover
+					        UNION ALL
+					        SELECT l.created_at, 0, 1, 0, 0 FROM post_likes l WHERE l.created_at < :cutover
+					        UNION ALL
+					        SELECT v.last_viewed_at, 0, 0, v.view_count, 0 FROM post_views v WHERE v.last_viewed_at < :cutover
+					        UNION ALL
+					        SELECT c.created_at, 0, 0, 0, 1 FROM post_comments c WHERE c.created_at < :cutover
+					    ) s
+					) e
+					GROUP BY e.bucket_start
+					ON CONFLICT (granularity, bucket_start)
+					DO UPDATE SET posts = engagement_rollups.posts + EXCLUDED.posts,
+					              likes = engagement_rollups.likes + EXCLUDED.likes,
+					              views = engagement_rollups.views + EXCLUDED.views,
+					              comments = engagement_rollups.comments + EXCLUDED.comments
+					""",
+			nativeQuery = true
+	)
+	int backfillCounts(@Param("granularity") String granularity, @Param("cutover") Instant cutover);
+
+	// Los buckets desde :rememberFrom pueden recibir aun eventos del acumulador: sus usuarios se apuntan
+	// en engagement_rollup_users para no contarlos dos veces. Los anteriores se cuentan directamente.
+	@Modifying
+	@Query(
+			value = """
+					WITH activity AS (
+					    SELECT DISTINCT date_trunc(cast(:granularity AS text), s.at, 'UTC') AS bucket_start, s.user_id
+					    FROM (
+					        SELECT p.created_at AS at, p.author_id AS user_id FROM posts p WHERE p.created_at < :cutover
+					        UNION ALL
+					        SELECT l.created_at, l.user_id FROM post_likes l WHERE l.created_at < :cutover
+					        UNION ALL
+					        SELECT v.last_viewed_at, v.user_id FROM post_views v WHERE v.last_viewed_at < :cutover
+					        UNION ALL
+					        SELECT c.created_at, c.user_id FROM post_comments c WHERE c.created_at < :cutover
+					    ) s
+					),
+					remembered AS (
+					    INSERT INTO engagement_rollup_users (granularity, bucket_start, user_id)
+					    SELECT :granularity, a.bucket_start, a.user_id FROM activity a WHERE a.bucket_start >= :rememberFrom
+					    ON CONFLICT DO NOTHING
+					    RETURNING bucket_start
+					),
+					totals AS (
+					    SELECT a.bucket_start, count(*) AS total FROM activity a
+					    WHERE a.bucket_start < :rememberFrom GROUP BY a.bucket_start
+					    UNION ALL
+					    SELECT r.bucket_start, count(*) FROM remembered r GROUP BY r.bucket_start
+					)
+					INSERT INTO engagement_rollups (granularity, bucket_start, active_users)
+					SELECT :granularity, t.bucket_start, sum(t.total) FROM totals t GROUP BY t.bucket_start
+					ON CONFLICT (granularity, bucket_start)
+					DO UPDATE SET active_users = engagement_rollups.active_users + EXCLUDED.active_users
+					""",
+			nativeQuery = true
+	)
+	int backfillActiveUsers(
+			@Param("granularity") String granularity,
+			@Param("cutover") Instant cutover,
+			@Param("rememberFrom") Instant rememberFrom
+	);
+
+	// Con las dos granularidades explicitas el borrado usa la clave primaria.
+	@Modifying
+	@Query(
+			value = """
+					DELETE FROM engagement_rollup_users
+					WHERE granularity IN ('hour', 'day') AND bucket_start < :before
+					""",
+			nativeQuery = true
+	)
+	int deleteRememberedUsersBefore(@Param("before") Instant before);
+}
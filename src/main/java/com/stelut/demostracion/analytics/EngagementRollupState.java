@@ -0,0 +1,39 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "engagement_rollup_state")
+public class EngagementRollupState {
+
+	public static final short ID = 1;
+
+	@Id
+	private short id;
+
+	@Column(name = "cutover_at", nullable = false)
+	private Instant cutoverAt;
+
+	@Column(name = "backfilled_at")
+	private Instant backfilledAt;
+
+	protected EngagementRollupState() {
+	}
+
+	public Instant getCutoverAt() {
+		return cutoverAt;
+	}
+
+	public Instant getBackfilledAt() {
+		return backfilledAt;
+	}
+
+	public void markBackfilled(Instant at) {
+		this.backfilledAt = at;
+	}
+}
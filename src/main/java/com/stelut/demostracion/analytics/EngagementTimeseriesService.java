@@ -0,0 +1,69 @@
+package com.stelut.demostracion.analytics;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.stelut.demostracion.analytics.dto.AnalyticsTimeseriesResponse;
+import com.stelut.demostracion.analytics.dto.TimeseriesPointResponse;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+// Series de engagement_rollups: un rango por clave primaria, sin tocar posts ni interacciones.
+// El bucket en curso puede ir hasta un rollups-flush-interval por detras.
+@Service
+public class EngagementTimeseriesService {
+
+	static final int MAX_POINTS = 2000;
+	private static final Duration DEFAULT_HOURLY_RANGE = Duration.ofHours(24);
+	private static final Duration DEFAULT_DAILY_RANGE = Duration.ofDays(30);
+
+	private final EngagementRollupRepository repository;
+
+	public EngagementTimeseriesService(EngagementRollupRepository repository) {
+		this.repository = repository;
+	}
+
+	// Sin to: hasta ahora. Sin from: las ultimas 24h por hora o 30 dias por dia.
+	@Transactional(readOnly = true)
+	public AnalyticsTimeseriesResponse timeseries(String metricValue, Instant from, Instant to, String granularityValue) {
+		EngagementMetric metric = EngagementMetric.fromValue(metricValue)
+				.orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "unknown metric"));
+		EngagementGranularity granularity = EngagementGranularity.fromValue(granularityValue)
+				.orElseThrow(() -> new ResponseStatusException(BAD_REQUEST, "unknown granularity"));
+
+		Instant requestedTo = to == null ? Instant.now() : to;
+		Instant requestedFrom = from != null
+				? from
+				: requestedTo.minus(granularity == EngagementGranularity.HOUR ? DEFAULT_HOURLY_RANGE : DEFAULT_DAILY_RANGE);
+		if (!requestedFrom.isBefore(requestedTo)) {
+			throw new ResponseStatusException(BAD_REQUEST, "from must be before to");
+		}
+		Instant start = granularity.truncate(requestedFrom);
+		Instant end = granularity.truncate(requestedTo);
+		if (end.isBefore(requestedTo)) {
+			end = end.plus(1, granularity.unit());
+		}
+		long buckets = granularity.unit().between(start, end);
+		if (buckets > MAX_POINTS) {
+			throw new ResponseStatusException(BAD_REQUEST, "range too large");
+		}
+
+		Map<Instant, Long> values = new HashMap<>();
+		for (EngagementRollupRepository.RollupProjection row : repository.findSeries(granularity.value(), start, end)) {
+			values.put(row.getBucketStart(), metric.read(row));
+		}
+		List<TimeseriesPointResponse> points = new ArrayList<>((int) buckets);
+		for (Instant bucket = start; bucket.isBefore(end); bucket = bucket.plus(1, granularity.unit())) {
+			points.add(new TimeseriesPointResponse(bucket, values.getOrDefault(bucket, 0L)));
+		}
+		return new AnalyticsTimeseriesResponse(metric.value(), granularity.value(), start, end, points);
+	}
+}
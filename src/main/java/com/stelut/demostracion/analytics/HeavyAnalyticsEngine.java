@@ -1,11 +1,25 @@
 package com.stelut.demostracion.analytics;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -13,16 +27,29 @@ import com.stelut.demostracion.analytics.dto.AnalyticsSummaryResponse;
 import com.stelut.demostracion.analytics.dto.DailyPostBucketResponse;
 import com.stelut.demostracion.analytics.dto.HourlyPostBucketResponse;
 import com.stelut.demostracion.analytics.dto.TopPostSummaryResponse;
+import com.stelut.demostracion.analytics.dto.TrendingWindowResponse;
 import com.stelut.demostracion.analytics.dto.WordCountResponse;
+import com.stelut.demostracion.social.EngagementLeaderboard;
 import com.stelut.demostracion.social.PostRepository;
+import com.stelut.demostracion.social.PostSummary;
 import com.stelut.demostracion.user.UserRepository;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.annotation.PreDestroy;
+
+// Las secciones del resumen son consultas independientes: se lanzan a la vez en hilos virtuales, cada una en su
+// propia transaccion de solo lectura con timeout, y se esperan con un plazo comun de section-timeout.
+// Una seccion que no llega a tiempo (o falla) se rellena con el valor del resumen anterior y se marca como no fresca.
+// StructuredTaskScope sigue en preview en Java 21, asi que se usa un executor de hilos virtuales y cancelacion
+// explicita; el timeout de la transaccion corta la consulta en Postgres aunque el hilo siga bloqueado en JDBC.
 @Component
 @Lazy
 public class HeavyAnalyticsEngine {
@@ -31,40 +58,193 @@ public class HeavyAnalyticsEngine {
 	private static final int TOP_WORDS_LIMIT = 15;
 	private static final int TOP_POSTS_LIMIT = 10;
 	private static final int EVOLUTION_DAYS = 30;
+	// Mismo orden que findTopPosts; reordena tambien los empates que el score del leaderboard no distingue.
+	private static final Comparator<TopPostSummaryResponse> TOP_POST_ORDER = Comparator
+			.comparingLong(TopPostSummaryResponse::likes)
+			.thenComparingLong(TopPostSummaryResponse::views)
+			.thenComparingLong(TopPostSummaryResponse::comments)
+			.thenComparing(TopPostSummaryResponse::createdAt)
+			.reversed();
 
 	private final AnalyticsQueryRepository analyticsQueryRepository;
 	private final PostRepository postRepository;
 	private final UserRepository userRepository;
+	private final TrendingWordsTracker trendingWordsTracker;
+	private final EngagementLeaderboard engagementLeaderboard;
+	private final AnalyticsMetrics metrics;
+	private final TransactionTemplate readOnlyTx;
+	private final Duration sectionTimeout;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
 	public HeavyAnalyticsEngine(
 			AnalyticsQueryRepository analyticsQueryRepository,
 			PostRepository postRepository,
-			UserRepository userRepository
+			UserRepository userRepository,
+			TrendingWordsTracker trendingWordsTracker,
+			EngagementLeaderboard engagementLeaderboard,
+			AnalyticsMetrics metrics,
+			PlatformTransactionManager transactionManager,
+			@Value("${app.analytics.section-timeout:PT2S}") Duration sectionTimeout
 	) {
 		this.analyticsQueryRepository = analyticsQueryRepository;
 		this.postRepository = postRepository;
 		this.userRepository = userRepository;
+		this.trendingWordsTracker = trendingWordsTracker;
+		this.engagementLeaderboard = engagementLeaderboard;
+		this.metrics = metrics;
+		this.sectionTimeout = sectionTimeout;
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+		this.readOnlyTx.setTimeout((int) Math.max(1, (sectionTimeout.toMillis() + 999) / 1000));
 		log.info("HeavyAnalyticsEngine initialized lazily");
 	}
 
-	@Transactional(readOnly = true)
-	public AnalyticsSummaryResponse computeSummary() {
-		long totalPosts = postRepository.count();
-		long totalUsers = userRepository.count();
-		double averageWordLength = Optional.ofNullable(analyticsQueryRepository.findAverageWordLength())
-				.map(AnalyticsQueryRepository.AverageProjection::getValue)
-				.map(HeavyAnalyticsEngine::safeDouble)
-				.orElse(0D);
-		double averageUserEmailLength = Optional.ofNullable(analyticsQueryRepository.findAverageUserEmailLength())
-				.map(AnalyticsQueryRepository.AverageProjection::getValue)
-				.map(HeavyAnalyticsEngine::safeDouble)
-				.orElse(0D);
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	// previous: ultimo resumen calculado (o null), de donde salen las secciones que no llegan a tiempo.
+	public AnalyticsSummaryResponse computeSummary(AnalyticsSummaryResponse previous) {
+		long deadline = System.nanoTime() + sectionTimeout.toNanos();
+
+		Future<Long> totalPosts = submit("totalPosts", postRepository::count);
+		Future<Long> totalUsers = submit("totalUsers", userRepository::count);
+		Future<Double> averageWordLength = submit("averageWordLength", () -> average(analyticsQueryRepository.findAverageWordLength()));
+		Future<Double> averageUserEmailLength = submit(
+				"averageUserEmailLength",
+				() -> average(analyticsQueryRepository.findAverageUserEmailLength())
+		);
+		Future<List<WordCountResponse>> topWords = submit("topWords", this::loadTopWords);
+		Future<List<TopPostSummaryResponse>> topPosts = submit("topPosts", this::loadTopPosts);
+		Future<List<HourlyPostBucketResponse>> hourlyHeatmap = submit("hourlyHeatmap", this::loadHourlyHeatmap);
+		Future<List<DailyPostBucketResponse>> postsEvolution = submit("postsEvolution", this::loadPostsEvolution);
+		Future<List<TrendingWindowResponse>> trendingWords = submitWithoutTransaction(
+				"trendingWords",
+				() -> trendingWordsTracker.trending(TOP_WORDS_LIMIT)
+		);
+
+		Map<String, Boolean> fresh = new LinkedHashMap<>();
+		boolean hasPrevious = previous != null;
+		AnalyticsSummaryResponse response = new AnalyticsSummaryResponse(
+				Instant.now(),
+				await("totalPosts", totalPosts, deadline, fresh, hasPrevious ? previous.totalPosts() : 0L),
+				await("totalUsers", totalUsers, deadline, fresh, hasPrevious ? previous.totalUsers() : 0L),
+				await("averageWordLength", averageWordLength, deadline, fresh, hasPrevious ? previous.averageWordLength() : 0D),
+				await(
+						"averageUserEmailLength",
+						averageUserEmailLength,
+						deadline,
+						fresh,
+						hasPrevious ? previous.averageUserEmailLength() : 0D
+				),
+				await("topWords", topWords, deadline, fresh, hasPrevious ? previous.topWords() : List.of()),
+				await("topPosts", topPosts, deadline, fresh, hasPrevious ? previous.topPosts() : List.of()),
+				await("hourlyHeatmap", hourlyHeatmap, deadline, fresh, hasPrevious ? previous.hourlyHeatmap() : List.of()),
+				await("postsEvolution", postsEvolution, deadline, fresh, hasPrevious ? previous.postsEvolution() : List.of()),
+				await(
+						"trendingWords",
+						trendingWords,
+						deadline,
+						fresh,
+						hasPrevious && previous.trendingWords() != null ? previous.trendingWords() : List.of()
+				),
+				fresh.containsValue(false),
+				fresh
+		);
+		if (response.partial()) {
+			log.warn("analytics summary partial staleSections={}", fresh.entrySet().stream()
+					.filter(entry -> !entry.getValue())
+					.map(Map.Entry::getKey)
+					.toList());
+		}
+		return response;
+	}
+
+	private <T> Future<T> submit(String section, Supplier<T> query) {
+		return submitWithoutTransaction(section, () -> readOnlyTx.execute(status -> query.get()));
+	}
+
+	// Secciones que no tocan la BBDD (sketches en memoria y Redis): sin transaccion ni conexion.
+	private <T> Future<T> submitWithoutTransaction(String section, Supplier<T> query) {
+		return executor.submit(() -> {
+			long started = System.nanoTime();
+			try {
+				T value = query.get();
+				metrics.summarySection(section, "ok", System.nanoTime() - started);
+				return value;
+			} catch (RuntimeException ex) {
+				metrics.summarySection(section, "error", System.nanoTime() - started);
+				throw ex;
+			}
+		});
+	}
 
-		List<WordCountResponse> topWords = analyticsQueryRepository.findTopWords(TOP_WORDS_LIMIT).stream()
+	private <T> T await(String section, Future<T> future, long deadline, Map<String, Boolean> fresh, T fallback) {
+		try {
+			T value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			fresh.put(section, true);
+			return value;
+		} catch (TimeoutException ex) {
+			future.cancel(true);
+			metrics.summarySectionTimeout(section);
+		} catch (ExecutionException ex) {
+			log.warn("analytics summary section failed section={} reason={}", section, ex.getCause().getMessage());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+		}
+		fresh.put(section, false);
+		return fallback;
+	}
+
+	private List<WordCountResponse> loadTopWords() {
+		return analyticsQueryRepository.findTopWords(TOP_WORDS_LIMIT).stream()
 				.map(row -> new WordCountResponse(row.getWord(), safeLong(row.getTotal())))
 				.toList();
+	}
+
+	// Con el leaderboard de Redis solo se leen los 10 posts del top: sus columnas y sus contadores por id.
+	// Si tiene menos de 10 (posts sin ninguna interaccion) se completa con los mas recientes, como en SQL.
+	private List<TopPostSummaryResponse> loadTopPosts() {
+		Optional<List<UUID>> ranked = engagementLeaderboard.topPostIds(TOP_POSTS_LIMIT);
+		if (ranked.isEmpty()) {
+			return loadTopPostsFromTables();
+		}
+		Set<UUID> ids = new LinkedHashSet<>(ranked.get());
+		if (ids.size() < TOP_POSTS_LIMIT) {
+			for (PostSummary recent : postRepository.findFeedHead(PageRequest.of(0, TOP_POSTS_LIMIT))) {
+				if (ids.size() == TOP_POSTS_LIMIT) {
+					break;
+				}
+				ids.add(recent.id());
+			}
+		}
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		Map<UUID, PostRepository.PostCountersProjection> counters = postRepository.findCountersByIdIn(ids).stream()
+				.collect(Collectors.toMap(PostRepository.PostCountersProjection::getPostId, Function.identity()));
+		return postRepository.findSummariesByIdIn(ids).stream()
+				.filter(post -> counters.containsKey(post.id()))
+				.map(post -> {
+					PostRepository.PostCountersProjection row = counters.get(post.id());
+					return new TopPostSummaryResponse(
+							post.id(),
+							post.authorDisplayName(),
+							toPreview(post.content()),
+							post.createdAt(),
+							safeLong(row.getLikes()),
+							safeLong(row.getViews()),
+							safeLong(row.getComments())
+					);
+				})
+				.sorted(TOP_POST_ORDER)
+				.toList();
+	}
 
-		List<TopPostSummaryResponse> topPosts = analyticsQueryRepository.findTopPosts(TOP_POSTS_LIMIT).stream()
+	private List<TopPostSummaryResponse> loadTopPostsFromTables() {
+		return analyticsQueryRepository.findTopPosts(TOP_POSTS_LIMIT).stream()
 				.map(row -> new TopPostSummaryResponse(
 						row.getPostId(),
 						row.getAuthorDisplayName(),
@@ -75,17 +255,21 @@ public class HeavyAnalyticsEngine {
 						safeLong(row.getComments())
 				))
 				.toList();
+	}
 
+	private List<HourlyPostBucketResponse> loadHourlyHeatmap() {
 		Map<Integer, Long> hourlyMap = analyticsQueryRepository.findPostsPerHour().stream()
 				.collect(Collectors.toMap(
 						AnalyticsQueryRepository.HourlyProjection::getHour,
 						row -> safeLong(row.getTotal())
 				));
 
-		List<HourlyPostBucketResponse> hourlyHeatmap = IntStream.range(0, 24)
+		return IntStream.range(0, 24)
 				.mapToObj(hour -> new HourlyPostBucketResponse(hour, hourlyMap.getOrDefault(hour, 0L)))
 				.toList();
+	}
 
+	private List<DailyPostBucketResponse> loadPostsEvolution() {
 		Map<LocalDate, Long> dailyMap = analyticsQueryRepository.findPostsPerDay(EVOLUTION_DAYS).stream()
 				.collect(Collectors.toMap(
 						AnalyticsQueryRepository.DailyProjection::getDay,
@@ -94,24 +278,19 @@ public class HeavyAnalyticsEngine {
 				));
 
 		LocalDate start = LocalDate.now(ZoneOffset.UTC).minusDays(EVOLUTION_DAYS - 1L);
-		List<DailyPostBucketResponse> postsEvolution = IntStream.range(0, EVOLUTION_DAYS)
+		return IntStream.range(0, EVOLUTION_DAYS)
 				.mapToObj(offset -> {
 					LocalDate day = start.plusDays(offset);
 					return new DailyPostBucketResponse(day, dailyMap.getOrDefault(day, 0L));
 				})
 				.toList();
+	}
 
-		return new AnalyticsSummaryResponse(
-				Instant.now(),
-				totalPosts,
-				totalUsers,
-				averageWordLength,
-				averageUserEmailLength,
-				topWords,
-				topPosts,
-				hourlyHeatmap,
-				postsEvolution
-		);
+	private static double average(AnalyticsQueryRepository.AverageProjection projection) {
+		return Optional.ofNullable(projection)
+				.map(AnalyticsQueryRepository.AverageProjection::getValue)
+				.map(HeavyAnalyticsEngine::safeDouble)
+				.orElse(0D);
 	}
 
 	private static long safeLong(Number value) {
@@ -0,0 +1,191 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Snapshot columnar de los columnar-max-posts posts mas recientes, por nodo, para consultas ad-hoc sin BBDD.
+// Se carga entero en segundo plano al arrancar (recorrido por keyset en paginas de PAGE_SIZE) y cada
+// columnar-refresh-interval se actualiza: solo se leen los posts nuevos y los contadores de los posts con
+// interacciones desde la carga anterior. Cada columnar-full-refresh-interval se vuelve a cargar entero (recoge los
+// unlikes y compacta los diccionarios). Mientras tanto se sirve el anterior; hasta la primera carga no hay snapshot.
+@Component
+public class PostColumnSnapshot {
+
+	private static final Logger log = LoggerFactory.getLogger(PostColumnSnapshot.class);
+	private static final int PAGE_SIZE = 1000;
+	// Cursor inicial: por encima de cualquier (created_at, id) real.
+	private static final UUID MAX_ID = new UUID(-1L, -1L);
+	private static final UUID MIN_ID = new UUID(0L, 0L);
+	// Un post o una interaccion confirmados tarde pueden traer un created_at algo anterior al ultimo visto.
+	private static final Duration SAFETY_WINDOW = Duration.ofMinutes(5);
+
+	private final AnalyticsQueryRepository analyticsQueryRepository;
+	private final AnalyticsMetrics metrics;
+	private final boolean enabled;
+	private final int maxPosts;
+	private final Duration fullRefreshInterval;
+	private final AtomicBoolean loading = new AtomicBoolean();
+	private volatile PostColumns current;
+	private Instant lastFullLoad = Instant.EPOCH;
+
+	public PostColumnSnapshot(
+			AnalyticsQueryRepository analyticsQueryRepository,
+			AnalyticsMetrics metrics,
+			@Value("${app.analytics.columnar-enabled:true}") boolean enabled,
+			@Value("${app.analytics.columnar-max-posts:1000000}") int maxPosts,
+			@Value("${app.analytics.columnar-full-refresh-interval:PT6H}") Duration fullRefreshInterval
+	) {
+		this.analyticsQueryRepository = analyticsQueryRepository;
+		this.metrics = metrics;
+		this.enabled = enabled;
+		this.maxPosts = maxPosts;
+		this.fullRefreshInterval = fullRefreshInterval;
+	}
+
+	@PostConstruct
+	void init() {
+		metrics.columnarSnapshot(
+				() -> current == null ? 0 : current.size(),
+				() -> current == null ? 0 : Duration.between(current.builtAt(), Instant.now()).toSeconds()
+		);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (enabled) {
+			Thread.ofVirtual().name("columnar-snapshot-load").start(this::refresh);
+		}
+	}
+
+	Optional<PostColumns> current() {
+		return Optional.ofNullable(current);
+	}
+
+	@Scheduled(
+			initialDelayString = "${app.analytics.columnar-refresh-interval:PT10M}",
+			fixedDelayString = "${app.analytics.columnar-refresh-interval:PT10M}"
+	)
+	public void refresh() {
+		if (!enabled || !loading.compareAndSet(false, true)) {
+			return;
+		}
+		long started = System.nanoTime();
+		try {
+			Instant builtAt = Instant.now();
+			PostColumns previous = current;
+			boolean full = previous == null || !builtAt.isBefore(lastFullLoad.plus(fullRefreshInterval));
+			PostColumns columns = full ? loadAll(builtAt) : loadChanges(previous, builtAt);
+			current = columns;
+			if (full) {
+				lastFullLoad = builtAt;
+			}
+			log.info(
+					"columnar snapshot ready mode={} posts={} authors={} words={} estimatedBytes={} tookMs={}",
+					full ? "full" : "incremental",
+					columns.size(),
+					columns.authorCount(),
+					columns.wordCount(),
+					columns.estimatedBytes(),
+					(System.nanoTime() - started) / 1_000_000
+			);
+		} catch (RuntimeException ex) {
+			log.warn("columnar snapshot load failed, keeping the previous one reason={}", ex.getMessage());
+		} finally {
+			loading.set(false);
+		}
+	}
+
+	private PostColumns loadAll(Instant builtAt) {
+		PostColumns.Builder builder = new PostColumns.Builder();
+		Instant cursorCreatedAt = builtAt.plus(Duration.ofDays(1));
+		UUID cursorId = MAX_ID;
+		while (builder.size() < maxPosts) {
+			int limit = Math.min(PAGE_SIZE, maxPosts - builder.size());
+			List<AnalyticsQueryRepository.ColumnarRowProjection> rows =
+					analyticsQueryRepository.findColumnarRowsBefore(cursorCreatedAt, cursorId, limit);
+			rows.forEach(row -> add(builder, row));
+			if (rows.size() < limit) {
+				break;
+			}
+			AnalyticsQueryRepository.ColumnarRowProjection last = rows.get(rows.size() - 1);
+			cursorCreatedAt = last.getCreatedAt();
+			cursorId = last.getPostId();
+		}
+		return builder.build(builtAt);
+	}
+
+	// Posts desde SAFETY_WINDOW antes del mas reciente del snapshot (saltando los que ya estan) y contadores
+	// rehechos de los posts con likes, views o comments desde SAFETY_WINDOW antes de la carga anterior.
+	// Si llegan mas posts nuevos que columnar-max-posts se carga todo de nuevo.
+	private PostColumns loadChanges(PostColumns previous, Instant builtAt) {
+		List<AnalyticsQueryRepository.ColumnarRowProjection> added = new ArrayList<>();
+		Instant cursorCreatedAt = previous.newestCreatedAt().minus(SAFETY_WINDOW);
+		UUID cursorId = MIN_ID;
+		while (true) {
+			List<AnalyticsQueryRepository.ColumnarRowProjection> rows =
+					analyticsQueryRepository.findColumnarRowsAfter(cursorCreatedAt, cursorId, PAGE_SIZE);
+			for (AnalyticsQueryRepository.ColumnarRowProjection row : rows) {
+				if (!previous.contains(row.getCreatedAt(), row.getPostId())) {
+					added.add(row);
+				}
+			}
+			if (added.size() >= maxPosts) {
+				return loadAll(builtAt);
+			}
+			if (rows.size() < PAGE_SIZE) {
+				break;
+			}
+			AnalyticsQueryRepository.ColumnarRowProjection last = rows.get(rows.size() - 1);
+			cursorCreatedAt = last.getCreatedAt();
+			cursorId = last.getPostId();
+		}
+
+		PostColumns.Builder builder = new PostColumns.Builder(previous, maxPosts);
+		for (int i = added.size() - 1; i >= 0; i--) {
+			add(builder, added.get(i));
+		}
+		for (AnalyticsQueryRepository.ColumnarCountersProjection counters
+				: analyticsQueryRepository.findColumnarCountersChangedSince(previous.builtAt().minus(SAFETY_WINDOW))) {
+			builder.updateCounters(
+					counters.getCreatedAt(),
+					counters.getPostId(),
+					count(counters.getLikes()),
+					count(counters.getViews()),
+					count(counters.getComments())
+			);
+		}
+		return builder.build(builtAt);
+	}
+
+	private static void add(PostColumns.Builder builder, AnalyticsQueryRepository.ColumnarRowProjection row) {
+		builder.add(
+				row.getPostId(),
+				row.getCreatedAt(),
+				row.getAuthorId(),
+				row.getAuthorDisplayName(),
+				WordCountAccumulator.countableWords(row.getContent()),
+				count(row.getLikes()),
+				count(row.getViews()),
+				count(row.getComments())
+		);
+	}
+
+	private static long count(Number value) {
+		return value == null ? 0L : value.longValue();
+	}
+}
@@ -0,0 +1,486 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Snapshot columnar de posts en arrays primitivos, una fila por post ordenada por created_at ascendente.
+// Autores y palabras van codificados con diccionario (indices en authorIds y words); las palabras distintas de
+// cada post, ordenadas, estan en tokens[tokenStart[row]..tokenStart[row + 1]). Inmutable una vez construido.
+// Un recorrido se parte en trozos de SPLIT_ROWS filas en el ForkJoinPool comun: cada trozo acumula en su propio
+// GroupSums, sin objetos por fila ni sincronizacion, y al final se suman. Por autor o palabra los grupos son todo
+// el diccionario y un trozo toca pocos: ahi el trozo acumula en una tabla abierta en vez de un long[groups].
+// Un Builder con base parte de un snapshot anterior: mezcla sus filas con las nuevas por created_at, descarta las
+// mas antiguas por encima de maxRows y rehace los contadores indicados, sin volver a leer lo que no cambia.
+final class PostColumns {
+
+	static final int SPLIT_ROWS = 1 << 15;
+	private static final long HOUR_SECONDS = 3_600;
+	private static final long DAY_SECONDS = 86_400;
+
+	private final Instant builtAt;
+	private final long[] createdAt;
+	private final long[] idHigh;
+	private final long[] idLow;
+	private final int[] authors;
+	private final int[] likes;
+	private final int[] views;
+	private final int[] comments;
+	private final int[] tokenStart;
+	private final int[] tokens;
+	private final UUID[] authorIds;
+	private final String[] authorNames;
+	private final String[] words;
+	private final Map<UUID, Integer> authorIndex;
+	private final Map<String, Integer> wordIndex;
+
+	private PostColumns(Builder builder, Instant builtAt) {
+		PostColumns base = builder.base;
+		int baseRows = base == null ? 0 : base.size();
+		int dropped = Math.max(0, Math.min(baseRows, baseRows + builder.size - builder.maxRows));
+		int size = baseRows - dropped + builder.size;
+		int baseTokens = base == null ? 0 : base.tokenStart[baseRows] - base.tokenStart[dropped];
+		this.builtAt = builtAt;
+		this.createdAt = new long[size];
+		this.idHigh = new long[size];
+		this.idLow = new long[size];
+		this.authors = new int[size];
+		this.likes = new int[size];
+		this.views = new int[size];
+		this.comments = new int[size];
+		this.tokenStart = new int[size + 1];
+		this.tokens = new int[baseTokens + builder.tokenCount];
+		// Mezcla por created_at: base ya va ascendente y el builder recibe los posts mas nuevos primero.
+		int fromBase = dropped;
+		int fromBuilder = builder.size - 1;
+		int written = 0;
+		for (int row = 0; row < size; row++) {
+			tokenStart[row] = written;
+			if (fromBuilder < 0 || (fromBase < baseRows && base.createdAt[fromBase] <= builder.createdAt[fromBuilder])) {
+				createdAt[row] = base.createdAt[fromBase];
+				idHigh[row] = base.idHigh[fromBase];
+				idLow[row] = base.idLow[fromBase];
+				authors[row] = base.authors[fromBase];
+				likes[row] = base.likes[fromBase];
+				views[row] = base.views[fromBase];
+				comments[row] = base.comments[fromBase];
+				int length = base.tokenStart[fromBase + 1] - base.tokenStart[fromBase];
+				System.arraycopy(base.tokens, base.tokenStart[fromBase], tokens, written, length);
+				written += length;
+				fromBase++;
+			} else {
+				int source = fromBuilder--;
+				createdAt[row] = builder.createdAt[source];
+				idHigh[row] = builder.idHigh[source];
+				idLow[row] = builder.idLow[source];
+				authors[row] = builder.authors[source];
+				likes[row] = builder.likes[source];
+				views[row] = builder.views[source];
+				comments[row] = builder.comments[source];
+				int length = builder.tokenLength(source);
+				System.arraycopy(builder.tokens, builder.tokenEnd[source] - length, tokens, written, length);
+				written += length;
+			}
+		}
+		tokenStart[size] = written;
+		this.authorIds = builder.authorIds.toArray(UUID[]::new);
+		this.authorNames = builder.authorNames.toArray(String[]::new);
+		this.words = builder.words.toArray(String[]::new);
+		this.authorIndex = builder.authorIndex;
+		this.wordIndex = builder.wordIndex;
+		for (Builder.Counters counters : builder.counters) {
+			int row = rowOf(counters.createdAt(), counters.postId());
+			if (row >= 0) {
+				likes[row] = counters.likes();
+				views[row] = counters.views();
+				comments[row] = counters.comments();
+			}
+		}
+	}
+
+	Instant builtAt() {
+		return builtAt;
+	}
+
+	int size() {
+		return createdAt.length;
+	}
+
+	int authorCount() {
+		return authorIds.length;
+	}
+
+	int wordCount() {
+		return words.length;
+	}
+
+	UUID authorId(int author) {
+		return authorIds[author];
+	}
+
+	String authorName(int author) {
+		return authorNames[author];
+	}
+
+	String word(int word) {
+		return words[word];
+	}
+
+	// Segundo del post mas reciente; EPOCH sin filas.
+	Instant newestCreatedAt() {
+		return createdAt.length == 0 ? Instant.EPOCH : Instant.ofEpochSecond(createdAt[createdAt.length - 1]);
+	}
+
+	boolean contains(Instant created, UUID postId) {
+		return rowOf(created.getEpochSecond(), postId) >= 0;
+	}
+
+	// -1 si no aparece en el snapshot.
+	int authorIndexOf(UUID authorId) {
+		return authorIndex.getOrDefault(authorId, -1);
+	}
+
+	int wordIndexOf(String word) {
+		return wordIndex.getOrDefault(word, -1);
+	}
+
+	// Primera fila con created_at >= second (busqueda binaria: el filtro por fecha no recorre filas).
+	int firstRowAtOrAfter(long second) {
+		int low = 0;
+		int high = createdAt.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (createdAt[mid] < second) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	long estimatedBytes() {
+		return (long) createdAt.length * (3L * Long.BYTES + 5L * Integer.BYTES) + (long) tokens.length * Integer.BYTES;
+	}
+
+	// Fila del post, buscando solo entre las de su mismo segundo; -1 si no esta.
+	private int rowOf(long second, UUID postId) {
+		for (int row = firstRowAtOrAfter(second); row < createdAt.length && createdAt[row] == second; row++) {
+			if (idHigh[row] == postId.getMostSignificantBits() && idLow[row] == postId.getLeastSignificantBits()) {
+				return row;
+			}
+		}
+		return -1;
+	}
+
+	// Suma de query.metric por grupo; la posicion query.groups es el total de filas que pasan los filtros
+	// (con WORD un post suma en cada una de sus palabras, pero una sola vez en el total).
+	long[] aggregate(AdhocQuery query) {
+		int fromRow = firstRowAtOrAfter(query.from());
+		int toRow = firstRowAtOrAfter(query.to());
+		GroupSums sums = toRow - fromRow <= SPLIT_ROWS
+				? scan(query, fromRow, toRow)
+				: ForkJoinPool.commonPool().invoke(new Scan(query, fromRow, toRow));
+		return sums.toArray(query.groups());
+	}
+
+	private GroupSums scan(AdhocQuery query, int fromRow, int toRow) {
+		GroupSums sums = new GroupSums(query);
+		int[] values = column(query.metric());
+		int author = query.author();
+		int word = query.word();
+		long from = query.from();
+		long total = 0;
+		for (int row = fromRow; row < toRow; row++) {
+			if (author >= 0 && authors[row] != author) {
+				continue;
+			}
+			if (word >= 0 && Arrays.binarySearch(tokens, tokenStart[row], tokenStart[row + 1], word) < 0) {
+				continue;
+			}
+			long value = values == null ? 1L : values[row];
+			total += value;
+			switch (query.groupBy()) {
+				case HOUR -> sums.add((int) ((createdAt[row] - from) / HOUR_SECONDS), value);
+				case DAY -> sums.add((int) ((createdAt[row] - from) / DAY_SECONDS), value);
+				case HOUR_OF_DAY -> sums.add((int) (Math.floorMod(createdAt[row], DAY_SECONDS) / HOUR_SECONDS), value);
+				// 1970-01-01 fue jueves; 0 = lunes.
+				case WEEKDAY -> sums.add((int) Math.floorMod(Math.floorDiv(createdAt[row], DAY_SECONDS) + 3, 7L), value);
+				case AUTHOR -> sums.add(authors[row], value);
+				case WORD -> {
+					for (int token = tokenStart[row]; token < tokenStart[row + 1]; token++) {
+						sums.add(tokens[token], value);
+					}
+				}
+			}
+		}
+		sums.total = total;
+		return sums;
+	}
+
+	private int[] column(AdhocQuery.Metric metric) {
+		return switch (metric) {
+			case POSTS -> null;
+			case LIKES -> likes;
+			case VIEWS -> views;
+			case COMMENTS -> comments;
+		};
+	}
+
+	private final class Scan extends RecursiveTask<GroupSums> {
+
+		private final AdhocQuery query;
+		private final int fromRow;
+		private final int toRow;
+
+		private Scan(AdhocQuery query, int fromRow, int toRow) {
+			this.query = query;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		protected GroupSums compute() {
+			if (toRow - fromRow <= SPLIT_ROWS) {
+				return scan(query, fromRow, toRow);
+			}
+			int mid = (fromRow + toRow) >>> 1;
+			Scan left = new Scan(query, fromRow, mid);
+			left.fork();
+			GroupSums sums = new Scan(query, mid, toRow).compute();
+			return sums.merge(left.join());
+		}
+	}
+
+	// Sumas por grupo de un trozo. Denso (long[groups]) para los grupos de tiempo, que son pocos; por autor o
+	// palabra, tabla abierta int -> long con sondeo lineal que crece al pasar de la mitad de ocupacion.
+	private static final class GroupSums {
+
+		private static final int EMPTY = -1;
+		private static final int INITIAL_SLOTS = 256;
+
+		private final long[] dense;
+		private int[] keys;
+		private long[] values;
+		private int size;
+		private long total;
+
+		private GroupSums(AdhocQuery query) {
+			boolean sparse = query.groupBy() == AdhocQuery.GroupBy.AUTHOR || query.groupBy() == AdhocQuery.GroupBy.WORD;
+			if (sparse) {
+				dense = null;
+				keys = new int[INITIAL_SLOTS];
+				values = new long[INITIAL_SLOTS];
+				Arrays.fill(keys, EMPTY);
+			} else {
+				dense = new long[query.groups()];
+			}
+		}
+
+		private void add(int group, long value) {
+			if (dense != null) {
+				dense[group] += value;
+				return;
+			}
+			int slot = slotOf(keys, group);
+			if (keys[slot] == EMPTY) {
+				if ((size + 1) * 2 > keys.length) {
+					grow();
+					slot = slotOf(keys, group);
+				}
+				keys[slot] = group;
+				size++;
+			}
+			values[slot] += value;
+		}
+
+		// La tabla con mas grupos recibe a la otra.
+		private GroupSums merge(GroupSums other) {
+			if (dense != null) {
+				for (int i = 0; i < dense.length; i++) {
+					dense[i] += other.dense[i];
+				}
+				total += other.total;
+				return this;
+			}
+			GroupSums into = size >= other.size ? this : other;
+			GroupSums from = into == this ? other : this;
+			for (int slot = 0; slot < from.keys.length; slot++) {
+				if (from.keys[slot] != EMPTY) {
+					into.add(from.keys[slot], from.values[slot]);
+				}
+			}
+			into.total += from.total;
+			return into;
+		}
+
+		private long[] toArray(int groups) {
+			long[] sums;
+			if (dense != null) {
+				sums = Arrays.copyOf(dense, groups + 1);
+			} else {
+				sums = new long[groups + 1];
+				for (int slot = 0; slot < keys.length; slot++) {
+					if (keys[slot] != EMPTY) {
+						sums[keys[slot]] = values[slot];
+					}
+				}
+			}
+			sums[groups] = total;
+			return sums;
+		}
+
+		private void grow() {
+			int[] oldKeys = keys;
+			long[] oldValues = values;
+			keys = new int[oldKeys.length * 2];
+			values = new long[oldKeys.length * 2];
+			Arrays.fill(keys, EMPTY);
+			for (int slot = 0; slot < oldKeys.length; slot++) {
+				if (oldKeys[slot] != EMPTY) {
+					int moved = slotOf(keys, oldKeys[slot]);
+					keys[moved] = oldKeys[slot];
+					values[moved] = oldValues[slot];
+				}
+			}
+		}
+
+		// Hash multiplicativo: indices de diccionario consecutivos se reparten por toda la tabla.
+		private static int slotOf(int[] keys, int group) {
+			int mask = keys.length - 1;
+			int hash = group * 0x9E3779B9;
+			int slot = (hash ^ hash >>> 16) & mask;
+			while (keys[slot] != EMPTY && keys[slot] != group) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+	}
+
+	// Recibe los posts del mas nuevo al mas antiguo (el orden de la carga por keyset).
+	static final class Builder {
+
+		private record Counters(long createdAt, UUID postId, int likes, int views, int comments) {
+		}
+
+		private final PostColumns base;
+		private final int maxRows;
+		private int size;
+		private long[] createdAt = new long[1024];
+		private long[] idHigh = new long[1024];
+		private long[] idLow = new long[1024];
+		private int[] authors = new int[1024];
+		private int[] likes = new int[1024];
+		private int[] views = new int[1024];
+		private int[] comments = new int[1024];
+		private int[] tokenEnd = new int[1024];
+		private int[] tokens = new int[4096];
+		private int tokenCount;
+		private final List<UUID> authorIds;
+		private final List<String> authorNames;
+		private final List<String> words;
+		private final Map<UUID, Integer> authorIndex;
+		private final Map<String, Integer> wordIndex;
+		private final List<Counters> counters = new ArrayList<>();
+
+		Builder() {
+			this.base = null;
+			this.maxRows = Integer.MAX_VALUE;
+			this.authorIds = new ArrayList<>();
+			this.authorNames = new ArrayList<>();
+			this.words = new ArrayList<>();
+			this.authorIndex = new HashMap<>();
+			this.wordIndex = new HashMap<>();
+		}
+
+		// Los diccionarios se copian: base se sigue sirviendo mientras tanto.
+		Builder(PostColumns base, int maxRows) {
+			this.base = base;
+			this.maxRows = maxRows;
+			this.authorIds = new ArrayList<>(Arrays.asList(base.authorIds));
+			this.authorNames = new ArrayList<>(Arrays.asList(base.authorNames));
+			this.words = new ArrayList<>(Arrays.asList(base.words));
+			this.authorIndex = new HashMap<>(base.authorIndex);
+			this.wordIndex = new HashMap<>(base.wordIndex);
+		}
+
+		int size() {
+			return size;
+		}
+
+		// Los contadores por encima de Integer.MAX_VALUE se saturan.
+		void add(
+				UUID postId,
+				Instant created,
+				UUID authorId,
+				String authorName,
+				List<String> postWords,
+				long likeCount,
+				long viewCount,
+				long commentCount
+		) {
+			if (size == createdAt.length) {
+				int capacity = size * 2;
+				createdAt = Arrays.copyOf(createdAt, capacity);
+				idHigh = Arrays.copyOf(idHigh, capacity);
+				idLow = Arrays.copyOf(idLow, capacity);
+				authors = Arrays.copyOf(authors, capacity);
+				likes = Arrays.copyOf(likes, capacity);
+				views = Arrays.copyOf(views, capacity);
+				comments = Arrays.copyOf(comments, capacity);
+				tokenEnd = Arrays.copyOf(tokenEnd, capacity);
+			}
+			int[] postTokens = postWords.stream().mapToInt(this::wordId).sorted().distinct().toArray();
+			if (tokenCount + postTokens.length > tokens.length) {
+				tokens = Arrays.copyOf(tokens, Math.max(tokens.length * 2, tokenCount + postTokens.length));
+			}
+			System.arraycopy(postTokens, 0, tokens, tokenCount, postTokens.length);
+			tokenCount += postTokens.length;
+
+			createdAt[size] = created.getEpochSecond();
+			idHigh[size] = postId.getMostSignificantBits();
+			idLow[size] = postId.getLeastSignificantBits();
+			authors[size] = authorIndex.computeIfAbsent(authorId, id -> {
+				authorIds.add(id);
+				authorNames.add(authorName);
+				return authorIds.size() - 1;
+			});
+			likes[size] = saturate(likeCount);
+			views[size] = saturate(viewCount);
+			comments[size] = saturate(commentCount);
+			tokenEnd[size] = tokenCount;
+			size++;
+		}
+
+		// Contadores actuales de un post; se aplican al construir si el post esta en el resultado.
+		void updateCounters(Instant created, UUID postId, long likeCount, long viewCount, long commentCount) {
+			counters.add(new Counters(
+					created.getEpochSecond(), postId, saturate(likeCount), saturate(viewCount), saturate(commentCount)));
+		}
+
+		PostColumns build(Instant builtAt) {
+			return new PostColumns(this, builtAt);
+		}
+
+		private int tokenLength(int row) {
+			return tokenEnd[row] - (row == 0 ? 0 : tokenEnd[row - 1]);
+		}
+
+		private int wordId(String word) {
+			return wordIndex.computeIfAbsent(word, key -> {
+				words.add(key);
+				return words.size() - 1;
+			});
+		}
+
+		private static int saturate(long value) {
+			return (int) Math.min(Math.max(value, 0L), Integer.MAX_VALUE);
+		}
+	}
+}
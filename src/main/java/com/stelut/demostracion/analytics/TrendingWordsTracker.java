@@ -0,0 +1,223 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import com.stelut.demostracion.analytics.dto.TrendingWindowResponse;
+import com.stelut.demostracion.analytics.dto.WordCountResponse;
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Palabras en tendencia por ventana sin recorrer posts: cada post nuevo suma sus palabras (las mismas que
+// word_counts) en el WordSketch del slot actual de cada ventana. Una ventana son sus ultimos N slots
+// (1h = 6 de 10 min, 24h = 24 de 1 h, 7d = 7 de 1 dia), asi que desliza de slot en slot.
+// Memoria acotada: como mucho 37 sketches de tamano fijo por nodo. Entre nodos, cada uno publica sus slots en
+// analytics:trending:{ventana}:{slot} (un campo por nodo, sobrescrito: reintentar no duplica) y al leer se suman.
+@Component
+public class TrendingWordsTracker {
+
+	private static final Logger log = LoggerFactory.getLogger(TrendingWordsTracker.class);
+	private static final String KEY_PREFIX = "analytics:trending:";
+	private static final int CANDIDATES = 100;
+
+	enum Window {
+		ONE_HOUR("1h", Duration.ofMinutes(10), 6),
+		ONE_DAY("24h", Duration.ofHours(1), 24),
+		ONE_WEEK("7d", Duration.ofDays(1), 7);
+
+		private final String label;
+		private final long slotSeconds;
+		private final int slots;
+
+		Window(String label, Duration slot, int slots) {
+			this.label = label;
+			this.slotSeconds = slot.toSeconds();
+			this.slots = slots;
+		}
+
+		long slotStart(Instant at) {
+			return Math.floorDiv(at.getEpochSecond(), slotSeconds) * slotSeconds;
+		}
+
+		long oldestSlot(Instant now) {
+			return slotStart(now) - (slots - 1) * slotSeconds;
+		}
+
+		Duration keyTtl() {
+			return Duration.ofSeconds((slots + 1) * slotSeconds);
+		}
+	}
+
+	private record SlotKey(Window window, long slotStart) {
+
+		String redisKey() {
+			return KEY_PREFIX + window.label + ":" + slotStart;
+		}
+	}
+
+	private final StringRedisTemplate redis;
+	private final SocialAsyncProperties properties;
+	private final String nodeId = UUID.randomUUID().toString();
+	private final Map<Window, TreeMap<Long, WordSketch>> slots = new EnumMap<>(Window.class);
+	private Set<SlotKey> dirty = new HashSet<>();
+
+	public TrendingWordsTracker(StringRedisTemplate redis, SocialAsyncProperties properties) {
+		this.redis = redis;
+		this.properties = properties;
+		for (Window window : Window.values()) {
+			slots.put(window, new TreeMap<>());
+		}
+	}
+
+	// Solo posts locales: los que llegan por relay los publica en su slot el nodo que los creo.
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		if (!event.remote()) {
+			add(WordCountAccumulator.countableWords(event.post().content()), Instant.now());
+		}
+	}
+
+	void add(List<String> words, Instant at) {
+		if (words.isEmpty()) {
+			return;
+		}
+		synchronized (this) {
+			for (Window window : Window.values()) {
+				long slotStart = window.slotStart(at);
+				TreeMap<Long, WordSketch> windowSlots = slots.get(window);
+				windowSlots.headMap(window.oldestSlot(at)).clear();
+				WordSketch sketch = windowSlots.computeIfAbsent(slotStart, ignored -> new WordSketch(CANDIDATES));
+				words.forEach(sketch::add);
+				dirty.add(new SlotKey(window, slotStart));
+			}
+		}
+	}
+
+	// Sobrescribe el campo de este nodo en cada slot que cambio desde la ultima publicacion.
+	@Scheduled(
+			initialDelayString = "${app.analytics.trending-publish-interval:PT10S}",
+			fixedDelayString = "${app.analytics.trending-publish-interval:PT10S}"
+	)
+	public void publish() {
+		if (!properties.redisEnabled()) {
+			return;
+		}
+		Map<SlotKey, String> blobs = new HashMap<>();
+		synchronized (this) {
+			if (dirty.isEmpty()) {
+				return;
+			}
+			for (SlotKey key : dirty) {
+				WordSketch sketch = slots.get(key.window()).get(key.slotStart());
+				if (sketch != null) {
+					blobs.put(key, Base64.getEncoder().encodeToString(sketch.toBytes()));
+				}
+			}
+			dirty = new HashSet<>();
+		}
+		try {
+			redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					blobs.forEach((key, blob) -> {
+						operations.opsForHash().put(key.redisKey(), nodeId, blob);
+						operations.expire(key.redisKey(), key.window().keyTtl());
+					});
+					return null;
+				}
+			});
+		} catch (RuntimeException ex) {
+			synchronized (this) {
+				dirty.addAll(blobs.keySet());
+			}
+			log.warn("redis trending words publish failed slots={} reason={}", blobs.size(), ex.getMessage());
+		}
+	}
+
+	// Sketches de esta ventana en todos los nodos (el propio en memoria, que va por delante de lo publicado).
+	// Sin Redis, o si falla, solo los de este nodo.
+	public List<TrendingWindowResponse> trending(int limit) {
+		Instant now = Instant.now();
+		Map<Window, WordSketch> merged = new EnumMap<>(Window.class);
+		synchronized (this) {
+			for (Window window : Window.values()) {
+				WordSketch sketch = new WordSketch(CANDIDATES);
+				slots.get(window).tailMap(window.oldestSlot(now)).values().forEach(sketch::merge);
+				merged.put(window, sketch);
+			}
+		}
+		if (properties.redisEnabled()) {
+			mergeRemote(merged, now);
+		}
+		List<TrendingWindowResponse> windows = new ArrayList<>();
+		merged.forEach((window, sketch) -> windows.add(new TrendingWindowResponse(
+				window.label,
+				sketch.total(),
+				sketch.errorBound(),
+				sketch.top(limit).entrySet().stream()
+						.map(entry -> new WordCountResponse(entry.getKey(), entry.getValue()))
+						.toList()
+		)));
+		return windows;
+	}
+
+	private void mergeRemote(Map<Window, WordSketch> merged, Instant now) {
+		List<SlotKey> keys = new ArrayList<>();
+		for (Window window : Window.values()) {
+			for (long slotStart = window.oldestSlot(now); slotStart <= window.slotStart(now); slotStart += window.slotSeconds) {
+				keys.add(new SlotKey(window, slotStart));
+			}
+		}
+		List<Object> rows;
+		try {
+			rows = redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					keys.forEach(key -> operations.opsForHash().entries(key.redisKey()));
+					return null;
+				}
+			});
+		} catch (RuntimeException ex) {
+			log.warn("redis trending words read failed reason={}", ex.getMessage());
+			return;
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			if (!(rows.get(i) instanceof Map<?, ?> nodes)) {
+				continue;
+			}
+			SlotKey key = keys.get(i);
+			WordSketch target = merged.get(key.window());
+			nodes.forEach((node, blob) -> {
+				if (nodeId.equals(node)) {
+					return;
+				}
+				try {
+					target.merge(WordSketch.fromBytes(Base64.getDecoder().decode(blob.toString())));
+				} catch (RuntimeException ex) {
+					log.warn("trending words sketch skipped key={} node={} reason={}", key.redisKey(), node, ex.getMessage());
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.stelut.demostracion.analytics;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "word_counts")
+public class WordCount {
+
+	@Id
+	@Column(nullable = false, length = 64)
+	private String word;
+
+	@Column(nullable = false)
+	private long total;
+
+	protected WordCount() {
+	}
+
+	public String getWord() {
+		return word;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+}
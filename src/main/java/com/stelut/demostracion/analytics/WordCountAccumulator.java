@@ -0,0 +1,126 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Mantiene word_counts y word_length_stats: cada word-counts-flush-interval lee de posts los publicados tras la
+// marca de word_count_state (V13), los trocea una vez en Java y suma los conteos en la misma transaccion que avanza
+// la marca. Una caida no pierde nada y cuentan tambien los posts de nodos con otra version.
+// Solo se leen posts con COMMIT_LAG de antiguedad: uno que confirme mas tarde que eso no se cuenta.
+@Component
+public class WordCountAccumulator {
+
+	private static final Logger log = LoggerFactory.getLogger(WordCountAccumulator.class);
+	// Mismo troceado y filtros que el backfill de V10.
+	private static final Pattern WORD_SEPARATOR = Pattern.compile("[^A-Za-z0-9]+");
+	private static final int MIN_WORD_LENGTH = 3;
+	private static final int MAX_WORD_LENGTH = 64;
+	private static final int BATCH_SIZE = 500;
+	private static final int POSTS_PER_TRANSACTION = 2000;
+	private static final Duration COMMIT_LAG = Duration.ofMinutes(1);
+	private static final Set<String> STOPWORDS = Set.of(
+			"the", "and", "for", "that", "with", "this", "from", "have", "your", "you", "are", "was", "but",
+			"una", "unas", "unos", "que", "con", "para", "por", "del", "las", "los", "sus", "como", "pero", "sin",
+			"esto", "esta", "este", "muy", "mas", "uno", "todo", "toda"
+	);
+
+	private final WordCountRepository wordCountRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	public WordCountAccumulator(WordCountRepository wordCountRepository, PlatformTransactionManager transactionManager) {
+		this.wordCountRepository = wordCountRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	// Las palabras que entran en word_counts, en minusculas y con repeticiones; tambien las usa TrendingWordsTracker.
+	static List<String> countableWords(String content) {
+		if (content == null || content.isBlank()) {
+			return List.of();
+		}
+		List<String> words = new ArrayList<>();
+		for (String word : WORD_SEPARATOR.split(content)) {
+			String lowered = word.toLowerCase(Locale.ROOT);
+			if (isCountable(lowered)) {
+				words.add(lowered);
+			}
+		}
+		return words;
+	}
+
+	private static boolean isCountable(String lowered) {
+		return lowered.length() >= MIN_WORD_LENGTH && lowered.length() <= MAX_WORD_LENGTH && !STOPWORDS.contains(lowered);
+	}
+
+	@Scheduled(
+			initialDelayString = "${app.analytics.word-counts-flush-interval:PT5S}",
+			fixedDelayString = "${app.analytics.word-counts-flush-interval:PT5S}"
+	)
+	public void flush() {
+		try {
+			Integer counted;
+			do {
+				counted = transactionTemplate.execute(status -> countNextPosts());
+			} while (counted != null && counted == POSTS_PER_TRANSACTION);
+		} catch (RuntimeException ex) {
+			// La transaccion se deshace entera con la marca: esos posts se vuelven a leer en el siguiente intervalo.
+			log.warn("word counts flush failed reason={}", ex.getMessage());
+		}
+	}
+
+	// La fila de estado queda bloqueada hasta el commit, asi que los nodos cuentan de uno en uno.
+	// Palabras en orden alfabetico: las filas de word_counts se bloquean siempre en el mismo orden.
+	private int countNextPosts() {
+		WordCountRepository.CountedProjection counted = wordCountRepository.lockCounted();
+		List<WordCountRepository.PostContentProjection> posts = wordCountRepository.findPostsAfter(
+				counted.getCreatedAt(), counted.getId(), Instant.now().minus(COMMIT_LAG), POSTS_PER_TRANSACTION);
+		if (posts.isEmpty()) {
+			return 0;
+		}
+		Map<String, Long> counts = new TreeMap<>();
+		long words = 0;
+		long characters = 0;
+		for (WordCountRepository.PostContentProjection post : posts) {
+			String content = post.getContent();
+			if (content == null || content.isBlank()) {
+				continue;
+			}
+			for (String word : WORD_SEPARATOR.split(content)) {
+				if (word.isEmpty()) {
+					continue;
+				}
+				words++;
+				characters += word.length();
+				String lowered = word.toLowerCase(Locale.ROOT);
+				if (isCountable(lowered)) {
+					counts.merge(lowered, 1L, Long::sum);
+				}
+			}
+		}
+		List<Map.Entry<String, Long>> entries = List.copyOf(counts.entrySet());
+		for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+			List<Map.Entry<String, Long>> batch = entries.subList(from, Math.min(from + BATCH_SIZE, entries.size()));
+			wordCountRepository.addCounts(
+					batch.stream().map(Map.Entry::getKey).toArray(String[]::new),
+					batch.stream().mapToLong(Map.Entry::getValue).toArray()
+			);
+		}
+		wordCountRepository.addWordLengths(words, characters);
+		WordCountRepository.PostContentProjection last = posts.get(posts.size() - 1);
+		wordCountRepository.advanceCounted(last.getCreatedAt(), last.getId());
+		return posts.size();
+	}
+}
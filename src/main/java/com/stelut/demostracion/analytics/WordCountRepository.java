@@ -0,0 +1,96 @@
+package com.stelut.demostracion.analytics;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface WordCountRepository extends JpaRepository<WordCount, String> {
+
+	interface CountedProjection {
+		Instant getCreatedAt();
+
+		UUID getId();
+	}
+
+	interface PostContentProjection {
+		Instant getCreatedAt();
+
+		UUID getId();
+
+		String getContent();
+	}
+
+	// Bloquea la fila de estado hasta el commit: un solo nodo cuenta a la vez.
+	@Query(
+			value = """
+					select s.counted_created_at as createdAt, s.counted_id as id
+					from word_count_state s
+					where s.id = 1
+					for update
+					""",
+			nativeQuery = true
+	)
+	CountedProjection lockCounted();
+
+	// Posts posteriores a la marca y anteriores a before, en orden del indice idx_posts_created_at_id.
+	@Query(
+			value = """
+					select p.created_at as createdAt, p.id as id, p.content as content
+					from posts p
+					where (p.created_at, p.id) > (:createdAt, :id)
+					  and p.created_at < :before
+					order by p.created_at asc, p.id asc
+					limit :limit
+					""",
+			nativeQuery = true
+	)
+	List<PostContentProjection> findPostsAfter(
+			@Param("createdAt") Instant createdAt,
+			@Param("id") UUID id,
+			@Param("before") Instant before,
+			@Param("limit") int limit
+	);
+
+	@Modifying
+	@Query(
+			value = """
+					UPDATE word_count_state
+					SET counted_created_at = :createdAt,
+					    counted_id = :id
+					WHERE id = 1
+					""",
+			nativeQuery = true
+	)
+	int advanceCounted(@Param("createdAt") Instant createdAt, @Param("id") UUID id);
+
+	// Un lote de palabras en una sola sentencia; words y totals van en paralelo.
+	@Modifying
+	@Query(
+			value = """
+					INSERT INTO word_counts (word, total)
+					SELECT w.word, w.total
+					FROM unnest(cast(:words AS text[]), cast(:totals AS bigint[])) AS w(word, total)
+					ON CONFLICT (word)
+					DO UPDATE SET total = word_counts.total + EXCLUDED.total
+					""",
+			nativeQuery = true
+	)
+	int addCounts(@Param("words") String[] words, @Param("totals") long[] totals);
+
+	@Modifying
+	@Query(
+			value = """
+					UPDATE word_length_stats
+					SET words = words + :words,
+					    characters = characters + :characters
+					WHERE id = 1
+					""",
+			nativeQuery = true
+	)
+	int addWordLengths(@Param("words") long words, @Param("characters") long characters);
+}
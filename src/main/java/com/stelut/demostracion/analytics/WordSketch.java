@@ -0,0 +1,194 @@
+package com.stelut.demostracion.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Frecuencia aproximada de palabras en memoria fija: Count-Min Sketch (DEPTH x WIDTH contadores) para estimar
+// cualquier palabra y Space-Saving (capacity candidatas) para saber cuales son las frecuentes.
+// La estimacion nunca se queda corta y se pasa como mucho en errorBound() (e / WIDTH del total) con probabilidad
+// 1 - e^-DEPTH. Dos sketches con el mismo tamano se suman con merge: asi se juntan ventanas y nodos.
+final class WordSketch {
+
+	static final int DEPTH = 4;
+	static final int WIDTH = 1024;
+	private static final int MASK = WIDTH - 1;
+	private static final int FORMAT = 1;
+
+	private record Candidate(String word, long count) {
+	}
+
+	private final int capacity;
+	private final long[] counters = new long[DEPTH * WIDTH];
+	// Space-Saving: palabra -> cuenta (cota superior; al entrar hereda la cuenta de la que desplaza).
+	private final Map<String, Long> candidates = new HashMap<>();
+	private long total;
+
+	WordSketch(int capacity) {
+		this.capacity = capacity;
+	}
+
+	void add(String word) {
+		add(word, 1);
+	}
+
+	void add(String word, long count) {
+		total += count;
+		long hash = hash(word);
+		for (int row = 0; row < DEPTH; row++) {
+			counters[index(hash, row)] += count;
+		}
+		if (candidates.containsKey(word) || candidates.size() < capacity) {
+			candidates.merge(word, count, Long::sum);
+			return;
+		}
+		Map.Entry<String, Long> min = null;
+		for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+			if (min == null || entry.getValue() < min.getValue()) {
+				min = entry;
+			}
+		}
+		candidates.remove(min.getKey());
+		candidates.put(word, min.getValue() + count);
+	}
+
+	long estimate(String word) {
+		long hash = hash(word);
+		long min = Long.MAX_VALUE;
+		for (int row = 0; row < DEPTH; row++) {
+			min = Math.min(min, counters[index(hash, row)]);
+		}
+		return min;
+	}
+
+	long total() {
+		return total;
+	}
+
+	long errorBound() {
+		return (long) Math.ceil(Math.E / WIDTH * total);
+	}
+
+	int candidateCount() {
+		return candidates.size();
+	}
+
+	// Suma de contadores y merge de Space-Saving: una palabra que falta en un sketch lleno pudo estar y ser
+	// desplazada, asi que suma la cuenta minima de ese sketch (0 si no esta lleno). Asi las cuentas siguen siendo
+	// cotas superiores; de la union se quedan las capacity mayores.
+	void merge(WordSketch other) {
+		total += other.total;
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] += other.counters[i];
+		}
+		long ownMissing = missingCount();
+		long otherMissing = other.missingCount();
+		Map<String, Long> union = new HashMap<>();
+		candidates.forEach((word, count) -> union.put(word, count + other.candidates.getOrDefault(word, otherMissing)));
+		other.candidates.forEach((word, count) -> union.putIfAbsent(word, count + ownMissing));
+		candidates.clear();
+		if (union.size() <= capacity) {
+			candidates.putAll(union);
+			return;
+		}
+		List<Map.Entry<String, Long>> ranked = new ArrayList<>(union.entrySet());
+		ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+		ranked.subList(0, capacity).forEach(entry -> candidates.put(entry.getKey(), entry.getValue()));
+	}
+
+	// Cota de cualquier palabra que no esta entre las candidatas.
+	private long missingCount() {
+		if (candidates.size() < capacity) {
+			return 0;
+		}
+		long min = Long.MAX_VALUE;
+		for (long count : candidates.values()) {
+			min = Math.min(min, count);
+		}
+		return min;
+	}
+
+	// Candidatas ordenadas por la menor de sus dos cotas superiores (Space-Saving y Count-Min).
+	Map<String, Long> top(int limit) {
+		List<Candidate> ranked = new ArrayList<>(candidates.size());
+		candidates.forEach((word, count) -> ranked.add(new Candidate(word, Math.min(count, estimate(word)))));
+		ranked.sort(Comparator.comparingLong(Candidate::count).reversed().thenComparing(Candidate::word));
+		Map<String, Long> top = new LinkedHashMap<>();
+		ranked.stream().limit(limit).forEach(candidate -> top.put(candidate.word(), candidate.count()));
+		return top;
+	}
+
+	// gzip: casi todos los contadores de una ventana corta son 0.
+	byte[] toBytes() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+			out.writeInt(FORMAT);
+			out.writeInt(capacity);
+			out.writeLong(total);
+			for (long counter : counters) {
+				out.writeLong(counter);
+			}
+			out.writeInt(candidates.size());
+			for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeLong(entry.getValue());
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	static WordSketch fromBytes(byte[] bytes) {
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes)))) {
+			if (in.readInt() != FORMAT) {
+				throw new IllegalArgumentException("unknown word sketch format");
+			}
+			WordSketch sketch = new WordSketch(in.readInt());
+			sketch.total = in.readLong();
+			for (int i = 0; i < sketch.counters.length; i++) {
+				sketch.counters[i] = in.readLong();
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				sketch.candidates.put(in.readUTF(), in.readLong());
+			}
+			return sketch;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// Dos hashes de 32 bits de uno de 64 (Kirsch-Mitzenmacher): fila i -> h1 + i * h2.
+	private static int index(long hash, int row) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		return row * WIDTH + ((h1 + row * h2) & MASK);
+	}
+
+	// FNV-1a sobre los chars con el finalizador de MurmurHash3: estable entre nodos y versiones de la JVM.
+	private static long hash(String word) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < word.length(); i++) {
+			hash ^= word.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
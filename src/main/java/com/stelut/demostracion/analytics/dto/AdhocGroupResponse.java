@@ -0,0 +1,10 @@
+package com.stelut.demostracion.analytics.dto;
+
+// key: inicio del bucket (hour/day), 0-23 (hour_of_day), monday..sunday (weekday), id del autor o palabra.
+// label solo con author: su nombre visible.
+public record AdhocGroupResponse(
+		String key,
+		String label,
+		long value
+) {
+}
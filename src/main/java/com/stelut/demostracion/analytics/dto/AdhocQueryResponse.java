@@ -0,0 +1,19 @@
+package com.stelut.demostracion.analytics.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// Resultado sobre el snapshot columnar de snapshotAt: scannedPosts filas en el rango [from, to),
+// total de la metrica en las que pasan los filtros y tookMicros del recorrido.
+public record AdhocQueryResponse(
+		String groupBy,
+		String metric,
+		Instant from,
+		Instant to,
+		Instant snapshotAt,
+		int scannedPosts,
+		long total,
+		long tookMicros,
+		List<AdhocGroupResponse> groups
+) {
+}
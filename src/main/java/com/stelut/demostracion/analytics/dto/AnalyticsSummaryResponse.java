@@ -2,7 +2,10 @@ package com.stelut.demostracion.analytics.dto;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
+// partial=true: alguna seccion no respondio a tiempo; freshSections dice cuales (false = valor del resumen
+// anterior o vacio).
 public record AnalyticsSummaryResponse(
 		Instant generatedAt,
 		long totalPosts,
@@ -12,6 +15,9 @@ public record AnalyticsSummaryResponse(
 		List<WordCountResponse> topWords,
 		List<TopPostSummaryResponse> topPosts,
 		List<HourlyPostBucketResponse> hourlyHeatmap,
-		List<DailyPostBucketResponse> postsEvolution
+		List<DailyPostBucketResponse> postsEvolution,
+		List<TrendingWindowResponse> trendingWords,
+		boolean partial,
+		Map<String, Boolean> freshSections
 ) {
 }
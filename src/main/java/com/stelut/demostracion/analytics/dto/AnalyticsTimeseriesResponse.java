@@ -0,0 +1,14 @@
+package com.stelut.demostracion.analytics.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// from/to alineados a la granularidad (to exclusivo); un punto por bucket, con 0 donde no hubo actividad.
+public record AnalyticsTimeseriesResponse(
+		String metric,
+		String granularity,
+		Instant from,
+		Instant to,
+		List<TimeseriesPointResponse> points
+) {
+}
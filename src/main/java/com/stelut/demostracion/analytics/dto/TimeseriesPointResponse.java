@@ -0,0 +1,9 @@
+package com.stelut.demostracion.analytics.dto;
+
+import java.time.Instant;
+
+public record TimeseriesPointResponse(
+		Instant bucketStart,
+		long value
+) {
+}
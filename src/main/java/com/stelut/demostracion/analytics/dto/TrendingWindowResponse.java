@@ -0,0 +1,13 @@
+package com.stelut.demostracion.analytics.dto;
+
+import java.util.List;
+
+// Palabras mas frecuentes de una ventana (1h, 24h, 7d) segun los sketches de todos los nodos.
+// Cada count se pasa como mucho en errorBound (con alta probabilidad); totalWords es el total de la ventana.
+public record TrendingWindowResponse(
+		String window,
+		long totalWords,
+		long errorBound,
+		List<WordCountResponse> words
+) {
+}
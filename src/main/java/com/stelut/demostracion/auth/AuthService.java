@@ -15,11 +15,13 @@ import com.stelut.demostracion.security.JwtService.IssuedToken;
 import com.stelut.demostracion.token.RefreshToken;
 import com.stelut.demostracion.token.RefreshTokenRepository;
 import com.stelut.demostracion.user.User;
+import com.stelut.demostracion.user.UserRegisteredEvent;
 import com.stelut.demostracion.user.UserRepository;
 import com.stelut.demostracion.user.UserRole;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -38,6 +40,7 @@ public class AuthService {
 	private final JwtService jwtService;
 	private final JwtDecoder jwtDecoder;
 	private final ObjectProvider<UserLanguagePreferenceState> languageStateProvider;
+	private final ApplicationEventPublisher eventPublisher;
 
 	public AuthService(
 			UserRepository userRepository,
@@ -45,7 +48,8 @@ public class AuthService {
 			PasswordEncoder passwordEncoder,
 			JwtService jwtService,
 			JwtDecoder jwtDecoder,
-			ObjectProvider<UserLanguagePreferenceState> languageStateProvider
+			ObjectProvider<UserLanguagePreferenceState> languageStateProvider,
+			ApplicationEventPublisher eventPublisher
 	) {
 		this.userRepository = userRepository;
 		this.refreshTokenRepository = refreshTokenRepository;
@@ -53,6 +57,7 @@ public class AuthService {
 		this.jwtService = jwtService;
 		this.jwtDecoder = jwtDecoder;
 		this.languageStateProvider = languageStateProvider;
+		this.eventPublisher = eventPublisher;
 	}
 
 	public AuthResponse register(RegisterRequest request) {
@@ -71,6 +76,7 @@ public class AuthService {
 		);
 
 		userRepository.save(user);
+		eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getEmail(), user.getCreatedAt()));
 		return issueTokens(user);
 	}
 
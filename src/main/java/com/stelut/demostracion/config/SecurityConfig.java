@@ -2,6 +2,8 @@ package com.stelut.demostracion.config;
 
 import java.util.List;
 
+import jakarta.servlet.DispatcherType;
+
 import com.stelut.demostracion.logging.MeEndpointAuditFilter;
 
 import org.springframework.context.annotation.Bean;
@@ -35,6 +37,8 @@ public class SecurityConfig {
 				.cors(Customizer.withDefaults())
 				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 				.authorizeHttpRequests(auth -> auth
+						// Re-dispatch ASYNC de SseEmitter: la request original ya paso la autorizacion.
+						.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 						.requestMatchers("/v3/api-docs/**", "/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
 						.requestMatchers("/api/v1/auth/register", "/api/v1/auth/login", "/api/v1/auth/refresh").permitAll()
 						.requestMatchers("/api/v1/analytics/summary").permitAll()
@@ -0,0 +1,58 @@
+package com.stelut.demostracion.logging;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Bytes de heap asignados por el hilo de la request en los endpoints de lectura calientes.
+// Metrica: GET /actuator/metrics/http.request.allocated?tag=endpoint:feed
+@Component
+public class RequestAllocationFilter extends OncePerRequestFilter {
+
+	private static final Map<String, String> ENDPOINTS = Map.of(
+			"/api/v1/posts/feed", "feed",
+			"/api/v1/search/results", "search_results"
+	);
+
+	private final MeterRegistry registry;
+	private final com.sun.management.ThreadMXBean threads;
+
+	public RequestAllocationFilter(MeterRegistry registry) {
+		this.registry = registry;
+		this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+				&& bean.isThreadAllocatedMemorySupported()
+				? bean
+				: null;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return threads == null || !ENDPOINTS.containsKey(request.getRequestURI());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long before = threads.getCurrentThreadAllocatedBytes();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+			DistributionSummary.builder("http.request.allocated")
+					.baseUnit("bytes")
+					.tag("endpoint", ENDPOINTS.get(request.getRequestURI()))
+					.register(registry)
+					.record(allocated);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.stelut.demostracion.social;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "author_stats")
+public class AuthorStats {
+
+	@Id
+	@Column(name = "author_id", nullable = false, columnDefinition = "uuid")
+	private UUID authorId;
+
+	@Column(nullable = false)
+	private long posts;
+
+	@Column(nullable = false)
+	private long likes;
+
+	@Column(nullable = false)
+	private long comments;
+
+	@Column(nullable = false)
+	private long views;
+
+	@Column(name = "updated_at", nullable = false)
+	private Instant updatedAt;
+
+	protected AuthorStats() {
+	}
+
+	public UUID getAuthorId() {
+		return authorId;
+	}
+
+	public long getPosts() {
+		return posts;
+	}
+
+	public long getLikes() {
+		return likes;
+	}
+
+	public long getComments() {
+		return comments;
+	}
+
+	public long getViews() {
+		return views;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+}
@@ -0,0 +1,50 @@
+package com.stelut.demostracion.social;
+
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AuthorStatsRepository extends JpaRepository<AuthorStats, UUID> {
+
+	@Modifying
+	@Query(
+			value = """
+					INSERT INTO author_stats (author_id, posts, likes, comments, views, updated_at)
+					VALUES (:authorId, :posts, :likes, :comments, :views, NOW())
+					ON CONFLICT (author_id)
+					DO UPDATE SET
+						posts = author_stats.posts + EXCLUDED.posts,
+						likes = GREATEST(author_stats.likes + EXCLUDED.likes, 0),
+						comments = author_stats.comments + EXCLUDED.comments,
+						views = author_stats.views + EXCLUDED.views,
+						updated_at = EXCLUDED.updated_at
+					""",
+			nativeQuery = true
+	)
+	int increment(
+			@Param("authorId") UUID authorId,
+			@Param("posts") long posts,
+			@Param("likes") long likes,
+			@Param("comments") long comments,
+			@Param("views") long views
+	);
+
+	// Views acumuladas por AuthorStatsService: un lote de autores en una sola sentencia; authorIds y views en paralelo.
+	@Modifying
+	@Query(
+			value = """
+					INSERT INTO author_stats (author_id, views, updated_at)
+					SELECT v.author_id, v.views, NOW()
+					FROM unnest(cast(:authorIds AS uuid[]), cast(:views AS bigint[])) AS v(author_id, views)
+					ON CONFLICT (author_id)
+					DO UPDATE SET
+						views = author_stats.views + EXCLUDED.views,
+						updated_at = EXCLUDED.updated_at
+					""",
+			nativeQuery = true
+	)
+	int addViews(@Param("authorIds") String[] authorIds, @Param("views") long[] views);
+}
@@ -0,0 +1,273 @@
+package com.stelut.demostracion.social;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.SocialEventType;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+// Agregados por autor (posts publicados y likes/comments/views recibidos) mantenidos de forma incremental:
+// tabla author_stats como fuente de verdad y hash social:author:{id}:stats como cache de lectura.
+// Las escrituras se aplican donde la interaccion se persiste de verdad (ruta sincrona o consumer de Kafka).
+// Posts, likes y comments suman en la transaccion del llamante y, tras el commit, se borra el hash (la siguiente
+// lectura lo rellena). Las views, mucho mas frecuentes, se acumulan tras el commit y se escriben en lote cada
+// author-stats-flush-interval, sin bloquear la fila de un autor popular en cada peticion; un volcado pendiente
+// se pierde si el proceso cae.
+@Service
+public class AuthorStatsService {
+
+	private static final Logger log = LoggerFactory.getLogger(AuthorStatsService.class);
+	private static final String FIELD_POSTS = "posts";
+	private static final String FIELD_LIKES = "likes";
+	private static final String FIELD_COMMENTS = "comments";
+	private static final String FIELD_VIEWS = "views";
+
+	private static final int BATCH_SIZE = 500;
+
+	private final AuthorStatsRepository authorStatsRepository;
+	private final PostRepository postRepository;
+	private final StringRedisTemplate redis;
+	private final SocialAsyncProperties properties;
+	private final SocialMetrics metrics;
+	private final TransactionTemplate transactionTemplate;
+	private Map<UUID, Long> pendingViews = new HashMap<>();
+
+	public AuthorStatsService(
+			AuthorStatsRepository authorStatsRepository,
+			PostRepository postRepository,
+			StringRedisTemplate redis,
+			SocialAsyncProperties properties,
+			SocialMetrics metrics,
+			PlatformTransactionManager transactionManager
+	) {
+		this.authorStatsRepository = authorStatsRepository;
+		this.postRepository = postRepository;
+		this.redis = redis;
+		this.properties = properties;
+		this.metrics = metrics;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Transactional
+	public void postCreated(UUID authorId) {
+		apply(authorId, 1, 0, 0, 0);
+	}
+
+	// Llamar solo cuando la escritura tuvo efecto (like insertado, unlike borrado, comentario nuevo, view upsert).
+	@Transactional
+	public void interactionPersisted(UUID postId, SocialEventType type) {
+		UUID authorId = postRepository.findAuthorIdById(postId).orElse(null);
+		if (authorId == null) {
+			return;
+		}
+		switch (type) {
+			case LIKE -> apply(authorId, 0, 1, 0, 0);
+			case UNLIKE -> apply(authorId, 0, -1, 0, 0);
+			case COMMENT -> apply(authorId, 0, 0, 1, 0);
+			case VIEW -> afterCommit(() -> addPendingView(authorId));
+		}
+	}
+
+	// Autores en orden: dos nodos que vuelcan a la vez bloquean las filas en el mismo orden.
+	@Scheduled(
+			initialDelayString = "${app.social.author-stats-flush-interval:PT5S}",
+			fixedDelayString = "${app.social.author-stats-flush-interval:PT5S}"
+	)
+	public void flushViews() {
+		Map<UUID, Long> views;
+		synchronized (this) {
+			if (pendingViews.isEmpty()) {
+				return;
+			}
+			views = new TreeMap<>(pendingViews);
+			pendingViews = new HashMap<>();
+		}
+		try {
+			List<Map.Entry<UUID, Long>> entries = List.copyOf(views.entrySet());
+			transactionTemplate.executeWithoutResult(status -> {
+				for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+					List<Map.Entry<UUID, Long>> batch = entries.subList(from, Math.min(from + BATCH_SIZE, entries.size()));
+					authorStatsRepository.addViews(
+							batch.stream().map(entry -> entry.getKey().toString()).toArray(String[]::new),
+							batch.stream().mapToLong(Map.Entry::getValue).toArray()
+					);
+				}
+			});
+			evictCached(views.keySet());
+		} catch (RuntimeException ex) {
+			// La transaccion se deshace entera: todo vuelve al buffer y se reintenta en el siguiente volcado.
+			synchronized (this) {
+				views.forEach((authorId, total) -> pendingViews.merge(authorId, total, Long::sum));
+			}
+			log.warn("author stats views flush failed authors={} reason={}", views.size(), ex.getMessage());
+		}
+	}
+
+	@PreDestroy
+	void flushOnShutdown() {
+		flushViews();
+	}
+
+	// Lote: un pipeline HGETALL para todos los autores y un unico findAllById para los fallos de cache.
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public Map<UUID, SocialSearchService.UserAggregates> getAggregates(Collection<UUID> authorIds) {
+		List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(authorIds));
+		Map<UUID, SocialSearchService.UserAggregates> result = new HashMap<>(readCached(ids));
+
+		List<UUID> misses = ids.stream().filter(id -> !result.containsKey(id)).toList();
+		if (misses.isEmpty()) {
+			return result;
+		}
+		Map<UUID, SocialSearchService.UserAggregates> loaded = new HashMap<>();
+		for (AuthorStats stats : authorStatsRepository.findAllById(misses)) {
+			loaded.put(stats.getAuthorId(), new SocialSearchService.UserAggregates(
+					stats.getPosts(),
+					stats.getLikes(),
+					stats.getComments(),
+					stats.getViews()
+			));
+		}
+		for (UUID id : misses) {
+			loaded.putIfAbsent(id, new SocialSearchService.UserAggregates(0, 0, 0, 0));
+		}
+		writeCached(loaded);
+		result.putAll(loaded);
+		return result;
+	}
+
+	private void apply(UUID authorId, long posts, long likes, long comments, long views) {
+		authorStatsRepository.increment(authorId, posts, likes, comments, views);
+		afterCommit(() -> evictCached(List.of(authorId)));
+	}
+
+	private synchronized void addPendingView(UUID authorId) {
+		pendingViews.merge(authorId, 1L, Long::sum);
+	}
+
+	// Sin transaccion activa (llamada directa) se ejecuta al momento.
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private void evictCached(Collection<UUID> authorIds) {
+		if (!isEnabled()) {
+			return;
+		}
+		try {
+			redis.delete(authorIds.stream().map(AuthorStatsService::statsKey).toList());
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis author stats evict failed authors={}", authorIds.size(), ex);
+		}
+	}
+
+	private Map<UUID, SocialSearchService.UserAggregates> readCached(List<UUID> ids) {
+		if (!isEnabled() || ids.isEmpty()) {
+			return Map.of();
+		}
+		try {
+			List<Object> rows = redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					for (UUID id : ids) {
+						operations.opsForHash().entries(statsKey(id));
+					}
+					return null;
+				}
+			});
+			Map<UUID, SocialSearchService.UserAggregates> cached = new HashMap<>();
+			for (int i = 0; i < ids.size(); i++) {
+				if (rows.get(i) instanceof Map<?, ?> hash && !hash.isEmpty()) {
+					cached.put(ids.get(i), new SocialSearchService.UserAggregates(
+							field(hash, FIELD_POSTS),
+							field(hash, FIELD_LIKES),
+							field(hash, FIELD_COMMENTS),
+							field(hash, FIELD_VIEWS)
+					));
+					metrics.redisCacheHit();
+				} else {
+					metrics.redisCacheMiss();
+				}
+			}
+			return cached;
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis author stats read failed authors={}", ids.size(), ex);
+			return Map.of();
+		}
+	}
+
+	private void writeCached(Map<UUID, SocialSearchService.UserAggregates> aggregates) {
+		if (!isEnabled() || aggregates.isEmpty()) {
+			return;
+		}
+		try {
+			redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					aggregates.forEach((id, value) -> {
+						String key = statsKey(id);
+						operations.opsForHash().putAll(key, Map.of(
+								FIELD_POSTS, Long.toString(value.posts()),
+								FIELD_LIKES, Long.toString(value.likes()),
+								FIELD_COMMENTS, Long.toString(value.comments()),
+								FIELD_VIEWS, Long.toString(value.views())
+						));
+						operations.expire(key, properties.redisStatsTtl());
+					});
+					return null;
+				}
+			});
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis author stats write failed authors={}", aggregates.size(), ex);
+		}
+	}
+
+	private boolean isEnabled() {
+		return properties.redisEnabled();
+	}
+
+	private static long field(Map<?, ?> hash, String name) {
+		Object value = hash.get(name);
+		return value == null ? 0L : Long.parseLong(value.toString());
+	}
+
+	private static String statsKey(UUID authorId) {
+		return "social:author:" + authorId + ":stats";
+	}
+}
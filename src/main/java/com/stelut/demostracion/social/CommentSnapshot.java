@@ -0,0 +1,16 @@
+package com.stelut.demostracion.social;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Fila de lectura de un comentario con el autor ya resuelto (sin tocar la asociacion LAZY PostComment.user).
+public record CommentSnapshot(
+		UUID id,
+		UUID postId,
+		UUID userId,
+		String userDisplayName,
+		String content,
+		Instant createdAt,
+		Instant updatedAt
+) {
+}
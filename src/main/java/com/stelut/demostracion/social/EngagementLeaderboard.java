@@ -0,0 +1,219 @@
+package com.stelut.demostracion.social;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.event.PostInteractionEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Leaderboard de engagement en un ZSET: mismo orden que el top de posts (likes, luego views, luego comments)
+// codificado en un score likes * 2^36 + views * 2^14 + comments, exacto en un double mientras
+// likes < 2^17, views < 2^22 y comments < 2^14 por post (por encima los desempates pueden desbordar al campo
+// superior; quien lo lee reordena con los contadores reales). Cada interaccion suma su peso con ZINCRBY y los
+// posts que vuelven a 0 salen del ZSET. Se reconstruye desde la BBDD al arrancar si no existe y cada
+// leaderboard-rebuild-interval, para corregir lo que se perdiera con Redis caido o eventos de Kafka descartados.
+@Service
+public class EngagementLeaderboard {
+
+	private static final Logger log = LoggerFactory.getLogger(EngagementLeaderboard.class);
+	private static final String LEADERBOARD_KEY = "social:leaderboard:posts";
+	private static final String REBUILD_KEY = "social:leaderboard:posts:rebuild";
+	private static final String BUILT_KEY = "social:leaderboard:posts:built";
+	private static final String LOCK_KEY = "social:leaderboard:posts:lock";
+	private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+	private static final int REBUILD_PAGE_SIZE = 1000;
+	private static final double LIKE_WEIGHT = 0x1p36;
+	private static final double VIEW_WEIGHT = 0x1p14;
+	private static final double COMMENT_WEIGHT = 1D;
+
+	private static final RedisScript<Long> INCREMENT_SCRIPT = RedisScript.of("""
+			local score = tonumber(redis.call('ZINCRBY', KEYS[1], ARGV[2], ARGV[1]))
+			if score <= 0 then
+			  redis.call('ZREM', KEYS[1], ARGV[1])
+			end
+			return 1
+			""", Long.class);
+
+	private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+			if redis.call('GET', KEYS[1]) == ARGV[1] then
+			  return redis.call('DEL', KEYS[1])
+			end
+			return 0
+			""", Long.class);
+
+	private final StringRedisTemplate redis;
+	private final SocialStatsCacheService socialStatsCacheService;
+	private final PostRepository postRepository;
+	private final SocialMetrics metrics;
+
+	public EngagementLeaderboard(
+			StringRedisTemplate redis,
+			SocialStatsCacheService socialStatsCacheService,
+			PostRepository postRepository,
+			SocialMetrics metrics
+	) {
+		this.redis = redis;
+		this.socialStatsCacheService = socialStatsCacheService;
+		this.postRepository = postRepository;
+		this.metrics = metrics;
+	}
+
+	public boolean isEnabled() {
+		return socialStatsCacheService.isEnabled();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onInteraction(PostInteractionEvent event) {
+		if (!isEnabled()) {
+			return;
+		}
+		double delta = switch (event.type()) {
+			case LIKE -> LIKE_WEIGHT;
+			case UNLIKE -> -LIKE_WEIGHT;
+			case VIEW -> VIEW_WEIGHT;
+			case COMMENT -> COMMENT_WEIGHT;
+		};
+		try {
+			redis.execute(INCREMENT_SCRIPT, List.of(LEADERBOARD_KEY), event.postId().toString(), Double.toString(delta));
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis leaderboard increment failed postId={}", event.postId(), ex);
+		}
+	}
+
+	// ZREVRANGE 0..limit-1. Vacio si no hay Redis, si falla o si aun no se ha construido: el llamante usa la BBDD.
+	// Solo contiene posts con alguna interaccion, asi que puede traer menos de limit ids.
+	public Optional<List<UUID>> topPostIds(int limit) {
+		if (!isEnabled()) {
+			return Optional.empty();
+		}
+		try {
+			List<Object> replies = redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					operations.hasKey(BUILT_KEY);
+					operations.opsForZSet().reverseRange(LEADERBOARD_KEY, 0, limit - 1L);
+					return null;
+				}
+			});
+			if (!Boolean.TRUE.equals(replies.get(0)) || !(replies.get(1) instanceof Set<?> members)) {
+				return Optional.empty();
+			}
+			List<UUID> ids = new ArrayList<>(members.size());
+			for (Object member : members) {
+				ids.add(UUID.fromString(member.toString()));
+			}
+			return Optional.of(ids);
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis leaderboard read failed", ex);
+			return Optional.empty();
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildIfMissing() {
+		if (!isEnabled()) {
+			return;
+		}
+		try {
+			if (!Boolean.TRUE.equals(redis.hasKey(BUILT_KEY))) {
+				Thread.ofVirtual().name("engagement-leaderboard-rebuild").start(this::rebuild);
+			}
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis leaderboard check failed", ex);
+		}
+	}
+
+	// Un solo nodo a la vez (lock con token). Se construye en otra clave y se cambia con RENAME: los lectores
+	// nunca ven un leaderboard a medias. Las interacciones que lleguen durante la reconstruccion se pierden
+	// hasta la siguiente; la BBDD va algo por detras de Redis con Kafka.
+	@Scheduled(
+			initialDelayString = "${app.social.leaderboard-rebuild-interval:PT6H}",
+			fixedDelayString = "${app.social.leaderboard-rebuild-interval:PT6H}"
+	)
+	public void rebuild() {
+		if (!isEnabled()) {
+			return;
+		}
+		String token = UUID.randomUUID().toString();
+		try {
+			if (!Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(LOCK_KEY, token, LOCK_TTL))) {
+				return;
+			}
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis leaderboard lock failed", ex);
+			return;
+		}
+		long started = System.nanoTime();
+		try {
+			redis.delete(REBUILD_KEY);
+			long posts = 0;
+			UUID after = new UUID(0L, 0L);
+			while (true) {
+				List<PostRepository.PostCountersProjection> page = postRepository.findCountersAfter(after, REBUILD_PAGE_SIZE);
+				if (page.isEmpty()) {
+					break;
+				}
+				Set<ZSetOperations.TypedTuple<String>> scored = new HashSet<>();
+				for (PostRepository.PostCountersProjection row : page) {
+					double score = score(row);
+					if (score > 0) {
+						scored.add(ZSetOperations.TypedTuple.of(row.getPostId().toString(), score));
+					}
+				}
+				if (!scored.isEmpty()) {
+					redis.opsForZSet().add(REBUILD_KEY, scored);
+					posts += scored.size();
+				}
+				after = page.get(page.size() - 1).getPostId();
+			}
+			if (posts > 0) {
+				redis.rename(REBUILD_KEY, LEADERBOARD_KEY);
+			} else {
+				redis.delete(LEADERBOARD_KEY);
+			}
+			redis.opsForValue().set(BUILT_KEY, Long.toString(System.currentTimeMillis()));
+			log.info("engagement leaderboard rebuilt posts={} tookMs={}", posts, (System.nanoTime() - started) / 1_000_000);
+		} catch (RuntimeException ex) {
+			log.warn("engagement leaderboard rebuild failed reason={}", ex.getMessage());
+		} finally {
+			try {
+				redis.execute(RELEASE_SCRIPT, List.of(LOCK_KEY), token);
+			} catch (RuntimeException ex) {
+				log.warn("redis leaderboard unlock failed reason={}", ex.getMessage());
+			}
+		}
+	}
+
+	private static double score(PostRepository.PostCountersProjection row) {
+		return count(row.getLikes()) * LIKE_WEIGHT
+				+ count(row.getViews()) * VIEW_WEIGHT
+				+ count(row.getComments()) * COMMENT_WEIGHT;
+	}
+
+	private static long count(Number value) {
+		return value == null ? 0L : value.longValue();
+	}
+}
@@ -0,0 +1,45 @@
+package com.stelut.demostracion.social;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+// Cursor opaco del feed: posicion (created_at, id) del ultimo post entregado.
+public record FeedCursor(Instant createdAt, UUID id) {
+
+	private static final char SEPARATOR = '|';
+
+	public static FeedCursor of(PostSummary post) {
+		return new FeedCursor(post.createdAt(), post.id());
+	}
+
+	public String encode() {
+		String raw = createdAt.toString() + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static FeedCursor decode(String token) {
+		if (!StringUtils.hasText(token)) {
+			return null;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+			int separator = raw.indexOf(SEPARATOR);
+			if (separator <= 0) {
+				throw new IllegalArgumentException("missing separator");
+			}
+			return new FeedCursor(
+					Instant.parse(raw.substring(0, separator)),
+					UUID.fromString(raw.substring(separator + 1))
+			);
+		} catch (IllegalArgumentException | DateTimeParseException ex) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.stelut.demostracion.social;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Cabeza del feed global en memoria (por nodo): los N posts mas recientes como snapshot inmutable.
+// Lectores hacen un get() sin locks; escritores publican una copia nueva con CAS.
+@Component
+public class FeedHeadRing {
+
+	private static final Logger log = LoggerFactory.getLogger(FeedHeadRing.class);
+	private static final int DEFAULT_CAPACITY = 200;
+	// Desempate por id sin signo, como compara PostgreSQL los uuid (UUID.compareTo usa long con signo).
+	private static final Comparator<UUID> UUID_UNSIGNED = (left, right) -> {
+		int byMost = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+		return byMost != 0 ? byMost : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+	};
+	private static final Comparator<PostSummary> NEWEST_FIRST = Comparator
+			.comparing(PostSummary::createdAt, Comparator.reverseOrder())
+			.thenComparing(PostSummary::id, UUID_UNSIGNED.reversed());
+
+	private record Snapshot(List<PostSummary> posts, long totalPosts, boolean warmed) {
+
+		boolean holdsAllPosts() {
+			return warmed && totalPosts <= posts.size();
+		}
+	}
+
+	private final PostRepository postRepository;
+	private final int capacity;
+	private final AtomicReference<Snapshot> snapshotRef = new AtomicReference<>(new Snapshot(List.of(), 0, false));
+
+	public FeedHeadRing(PostRepository postRepository, SocialAsyncProperties properties) {
+		this.postRepository = postRepository;
+		this.capacity = properties.feedHeadCapacity() > 0 ? properties.feedHeadCapacity() : DEFAULT_CAPACITY;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		push(event.post());
+	}
+
+	public void push(PostSummary post) {
+		Snapshot current;
+		Snapshot next;
+		do {
+			current = snapshotRef.get();
+			if (current.posts().stream().anyMatch(existing -> existing.id().equals(post.id()))) {
+				return;
+			}
+			List<PostSummary> merged = new ArrayList<>(current.posts().size() + 1);
+			merged.addAll(current.posts());
+			merged.add(post);
+			next = new Snapshot(trim(merged), current.totalPosts() + 1, current.warmed());
+		} while (!snapshotRef.compareAndSet(current, next));
+	}
+
+	public Optional<List<PostSummary>> page(int page, int size) {
+		Snapshot snapshot = ensureWarm();
+		long from = (long) page * size;
+		return slice(snapshot, from, size);
+	}
+
+	public Optional<List<PostSummary>> after(FeedCursor cursor, int limit) {
+		Snapshot snapshot = ensureWarm();
+		int from = 0;
+		if (cursor != null) {
+			PostSummary probe = new PostSummary(cursor.id(), null, null, null, cursor.createdAt(), null);
+			while (from < snapshot.posts().size() && NEWEST_FIRST.compare(snapshot.posts().get(from), probe) <= 0) {
+				from++;
+			}
+			if (from == snapshot.posts().size() && !snapshot.holdsAllPosts()) {
+				return Optional.empty();
+			}
+		}
+		return slice(snapshot, from, limit);
+	}
+
+	public long totalPosts() {
+		return ensureWarm().totalPosts();
+	}
+
+	private Optional<List<PostSummary>> slice(Snapshot snapshot, long from, int size) {
+		List<PostSummary> posts = snapshot.posts();
+		long to = from + size;
+		if (to > posts.size() && !snapshot.holdsAllPosts()) {
+			return Optional.empty();
+		}
+		int start = (int) Math.min(from, posts.size());
+		int end = (int) Math.min(to, posts.size());
+		return Optional.of(posts.subList(start, end));
+	}
+
+	private Snapshot ensureWarm() {
+		Snapshot current = snapshotRef.get();
+		if (current.warmed()) {
+			return current;
+		}
+		List<PostSummary> loaded = postRepository.findFeedHead(PageRequest.ofSize(capacity));
+		long total = postRepository.count();
+		Snapshot next;
+		do {
+			current = snapshotRef.get();
+			if (current.warmed()) {
+				return current;
+			}
+			List<PostSummary> merged = new ArrayList<>(loaded);
+			current.posts().stream()
+					.filter(pushed -> loaded.stream().noneMatch(row -> row.id().equals(pushed.id())))
+					.forEach(merged::add);
+			next = new Snapshot(trim(merged), Math.max(total, merged.size()), true);
+		} while (!snapshotRef.compareAndSet(current, next));
+		log.info("feed head ring warmed posts={} totalPosts={}", next.posts().size(), next.totalPosts());
+		return next;
+	}
+
+	private List<PostSummary> trim(List<PostSummary> posts) {
+		posts.sort(NEWEST_FIRST);
+		return List.copyOf(posts.size() > capacity ? posts.subList(0, capacity) : posts);
+	}
+}
@@ -0,0 +1,124 @@
+package com.stelut.demostracion.social;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.dto.NewPostNotificationResponse;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Canal SSE de "hay posts nuevos" para el feed. Recibe PostCreatedEvent tras el commit (local o via NewPostRelay)
+// y lo difunde como notificacion compacta; el cliente pide el cuerpo del post cuando lo necesita.
+// Cada suscriptor tiene una cola acotada drenada por su propio hilo virtual: si se llena, se le desconecta.
+@Component
+public class FeedStreamHub {
+
+	private static final String STREAM = "feed";
+	private static final int QUEUE_CAPACITY = 64;
+	private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final BlockingQueue<NewPostNotificationResponse> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		private volatile boolean closed;
+
+		private Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+
+		private void drain() {
+			try {
+				while (!closed) {
+					NewPostNotificationResponse next = queue.poll(HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+					if (next == null) {
+						emitter.send(SseEmitter.event().comment("ping"));
+						continue;
+					}
+					emitter.send(SseEmitter.event().name("post").id(next.postId().toString()).data(next));
+					metrics.streamFanoutLatency(STREAM, Duration.between(next.createdAt(), Instant.now()));
+				}
+			} catch (IOException | IllegalStateException ex) {
+				remove(this);
+				emitter.completeWithError(ex);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final ExecutorService drainers = Executors.newVirtualThreadPerTaskExecutor();
+	private final SocialMetrics metrics;
+	private final Duration emitterTimeout;
+
+	public FeedStreamHub(SocialMetrics metrics, SocialAsyncProperties properties) {
+		this.metrics = metrics;
+		this.emitterTimeout = properties.streamEmitterTimeout();
+	}
+
+	@PostConstruct
+	void init() {
+		metrics.streamSubscribers(STREAM, subscribers::size);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		subscribers.forEach(subscriber -> {
+			subscriber.closed = true;
+			subscriber.emitter.complete();
+		});
+		subscribers.clear();
+		drainers.shutdownNow();
+	}
+
+	public SseEmitter subscribe() {
+		SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+		Subscriber subscriber = new Subscriber(emitter);
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(ex -> remove(subscriber));
+		subscribers.add(subscriber);
+		drainers.execute(subscriber::drain);
+		return emitter;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		PostSummary post = event.post();
+		NewPostNotificationResponse notification = new NewPostNotificationResponse(
+				post.id(),
+				post.authorId(),
+				post.authorDisplayName(),
+				post.createdAt()
+		);
+		for (Subscriber subscriber : subscribers) {
+			if (!subscriber.queue.offer(notification)) {
+				metrics.streamDropped(STREAM);
+				remove(subscriber);
+				subscriber.emitter.complete();
+			}
+		}
+	}
+
+	private void remove(Subscriber subscriber) {
+		subscriber.closed = true;
+		subscribers.remove(subscriber);
+	}
+}
@@ -0,0 +1,27 @@
+package com.stelut.demostracion.social;
+
+import java.util.UUID;
+
+// Segmento del indice invertido de posts. Los doc ids son densos y locales al segmento (0..docCount-1)
+// y las listas de postings se recorren en orden creciente de doc id.
+interface IndexSegment {
+
+	int docCount();
+
+	long totalLength();
+
+	int docFreq(String term);
+
+	void forEachPosting(String term, PostingConsumer consumer);
+
+	UUID postId(int doc);
+
+	long createdAtMillis(int doc);
+
+	int length(int doc);
+
+	@FunctionalInterface
+	interface PostingConsumer {
+		void accept(int doc, int frequency);
+	}
+}
@@ -0,0 +1,98 @@
+package com.stelut.demostracion.social;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.dto.InteractionBatchRequest;
+import com.stelut.demostracion.social.dto.InteractionBatchResponse;
+import com.stelut.demostracion.social.dto.InteractionItemRequest;
+import com.stelut.demostracion.social.dto.InteractionItemResponse;
+import com.stelut.demostracion.social.dto.PostStatsResponse;
+import com.stelut.demostracion.social.event.SocialEventType;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/v1/interactions")
+@Validated
+public class InteractionController {
+
+	private final SocialPostService socialPostService;
+
+	public InteractionController(SocialPostService socialPostService) {
+		this.socialPostService = socialPostService;
+	}
+
+	// Sustituye a un POST /posts/{id}/view por impresion: estado por item y, solo si se pide, contadores.
+	@PostMapping("/batch")
+	public InteractionBatchResponse batch(
+			@AuthenticationPrincipal Jwt jwt,
+			@Valid @RequestBody InteractionBatchRequest request,
+			@RequestParam(name = "stats", defaultValue = "false") boolean includeStats
+	) {
+		UUID userId = requireUserId(jwt);
+		List<SocialPostService.InteractionCommand> commands = request.items().stream()
+				.map(item -> new SocialPostService.InteractionCommand(item.postId(), parseType(item)))
+				.toList();
+		List<SocialPostService.InteractionOutcome> outcomes = socialPostService.applyInteractions(userId, commands);
+
+		List<InteractionItemResponse> items = new ArrayList<>(outcomes.size());
+		for (int i = 0; i < outcomes.size(); i++) {
+			SocialPostService.InteractionOutcome outcome = outcomes.get(i);
+			items.add(new InteractionItemResponse(
+					i,
+					outcome.postId(),
+					request.items().get(i).type(),
+					outcome.status().name().toLowerCase(Locale.ROOT)
+			));
+		}
+
+		List<PostStatsResponse> stats = null;
+		if (includeStats) {
+			List<UUID> acceptedPostIds = outcomes.stream()
+					.filter(outcome -> outcome.status() == SocialPostService.InteractionStatus.ACCEPTED)
+					.map(SocialPostService.InteractionOutcome::postId)
+					.toList();
+			stats = socialPostService.getPostCounters(acceptedPostIds).entrySet().stream()
+					.map(entry -> new PostStatsResponse(
+							entry.getKey(),
+							entry.getValue().likes(),
+							entry.getValue().views(),
+							entry.getValue().comments()
+					))
+					.toList();
+		}
+		return new InteractionBatchResponse(items, stats);
+	}
+
+	private SocialEventType parseType(InteractionItemRequest item) {
+		try {
+			return SocialEventType.valueOf(item.type().trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	private UUID requireUserId(Jwt jwt) {
+		if (jwt == null || jwt.getSubject() == null || jwt.getSubject().isBlank()) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid token");
+		}
+		try {
+			return UUID.fromString(jwt.getSubject());
+		} catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid token");
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.stelut.demostracion.social;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Segmento en memoria que recibe los posts nuevos hasta que se vuelca a disco.
+// Postings como int[] con deltas de doc id (y la frecuencia en paralelo), igual que se escriben en el fichero.
+// Sin sincronizacion propia: la protege el lock de PostSearchEngine.
+final class LiveSegment implements IndexSegment {
+
+	static final class Postings {
+		private int[] deltas = new int[2];
+		private int[] frequencies = new int[2];
+		private int size;
+		private int lastDoc = -1;
+
+		private void add(int doc, int frequency) {
+			if (size == deltas.length) {
+				deltas = Arrays.copyOf(deltas, size * 2);
+				frequencies = Arrays.copyOf(frequencies, size * 2);
+			}
+			deltas[size] = lastDoc < 0 ? doc : doc - lastDoc;
+			frequencies[size] = frequency;
+			lastDoc = doc;
+			size++;
+		}
+
+		int size() {
+			return size;
+		}
+
+		int delta(int index) {
+			return deltas[index];
+		}
+
+		int frequency(int index) {
+			return frequencies[index];
+		}
+	}
+
+	private final Map<String, Postings> postings = new HashMap<>();
+	private final Map<UUID, Integer> docByPostId = new HashMap<>();
+	private UUID[] postIds = new UUID[64];
+	private long[] createdAt = new long[64];
+	private int[] lengths = new int[64];
+	private int docCount;
+	private long totalLength;
+
+	// false si el post ya estaba en este segmento.
+	boolean add(UUID postId, long createdAtMillis, List<String> terms) {
+		if (docByPostId.containsKey(postId)) {
+			return false;
+		}
+		int doc = addDoc(postId, createdAtMillis, terms.size());
+		Map<String, Integer> frequencies = new HashMap<>();
+		for (String term : terms) {
+			frequencies.merge(term, 1, Integer::sum);
+		}
+		frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new Postings()).add(doc, frequency));
+		return true;
+	}
+
+	// Copia los docs de segment detras de los actuales, con los postings de terms (todos los del segmento).
+	// Los posts que ya estaban aqui se saltan, asi una fusion tambien quita duplicados.
+	void append(IndexSegment segment, Iterable<String> terms) {
+		int[] docs = new int[segment.docCount()];
+		for (int doc = 0; doc < docs.length; doc++) {
+			UUID postId = segment.postId(doc);
+			docs[doc] = docByPostId.containsKey(postId) ? -1 : addDoc(postId, segment.createdAtMillis(doc), segment.length(doc));
+		}
+		for (String term : terms) {
+			Postings list = postings.computeIfAbsent(term, key -> new Postings());
+			segment.forEachPosting(term, (doc, frequency) -> {
+				if (docs[doc] >= 0) {
+					list.add(docs[doc], frequency);
+				}
+			});
+			if (list.size == 0) {
+				postings.remove(term);
+			}
+		}
+	}
+
+	private int addDoc(UUID postId, long createdAtMillis, int length) {
+		if (docCount == postIds.length) {
+			postIds = Arrays.copyOf(postIds, docCount * 2);
+			createdAt = Arrays.copyOf(createdAt, docCount * 2);
+			lengths = Arrays.copyOf(lengths, docCount * 2);
+		}
+		int doc = docCount++;
+		postIds[doc] = postId;
+		createdAt[doc] = createdAtMillis;
+		lengths[doc] = length;
+		totalLength += length;
+		docByPostId.put(postId, doc);
+		return doc;
+	}
+
+	Map<String, Postings> postings() {
+		return postings;
+	}
+
+	@Override
+	public int docCount() {
+		return docCount;
+	}
+
+	@Override
+	public long totalLength() {
+		return totalLength;
+	}
+
+	@Override
+	public int docFreq(String term) {
+		Postings list = postings.get(term);
+		return list == null ? 0 : list.size;
+	}
+
+	@Override
+	public void forEachPosting(String term, PostingConsumer consumer) {
+		Postings list = postings.get(term);
+		if (list == null) {
+			return;
+		}
+		int doc = 0;
+		for (int i = 0; i < list.size; i++) {
+			doc += list.deltas[i];
+			consumer.accept(doc, list.frequencies[i]);
+		}
+	}
+
+	@Override
+	public UUID postId(int doc) {
+		return postIds[doc];
+	}
+
+	@Override
+	public long createdAtMillis(int doc) {
+		return createdAt[doc];
+	}
+
+	@Override
+	public int length(int doc) {
+		return lengths[doc];
+	}
+}
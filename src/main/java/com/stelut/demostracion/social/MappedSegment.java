@@ -0,0 +1,201 @@
+package com.stelut.demostracion.social;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Segmento inmutable en disco, leido con mmap: la tabla de documentos y los postings no pasan por el heap,
+// solo el diccionario de terminos (termino -> df y rango de bytes).
+// Formato: cabecera | docs (msb, lsb, createdAt, length) | postings en varint (delta de doc id, frecuencia) | diccionario.
+final class MappedSegment implements IndexSegment {
+
+	private static final int MAGIC = 0x53504958;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 4;
+	private static final int DOC_BYTES = 8 + 8 + 8 + 4;
+
+	private record TermInfo(int docFreq, int offset, int length) {
+	}
+
+	private final Path file;
+	private final MappedByteBuffer buffer;
+	private final int docCount;
+	private final long totalLength;
+	private final Map<String, TermInfo> terms;
+
+	private MappedSegment(Path file, MappedByteBuffer buffer, int docCount, long totalLength, Map<String, TermInfo> terms) {
+		this.file = file;
+		this.buffer = buffer;
+		this.docCount = docCount;
+		this.totalLength = totalLength;
+		this.terms = terms;
+	}
+
+	// Escribe a un temporal y lo mueve de forma atomica: un fichero con el nombre final siempre esta completo.
+	static MappedSegment write(Path file, LiveSegment live) throws IOException {
+		ByteArrayOutputStream postings = new ByteArrayOutputStream();
+		Map<String, TermInfo> dictionary = new TreeMap<>();
+		live.postings().forEach((term, list) -> {
+			int offset = postings.size();
+			for (int i = 0; i < list.size(); i++) {
+				writeVarInt(postings, list.delta(i));
+				writeVarInt(postings, list.frequency(i));
+			}
+			dictionary.put(term, new TermInfo(list.size(), offset, postings.size() - offset));
+		});
+
+		int postingsOffset = HEADER_BYTES + live.docCount() * DOC_BYTES;
+		long dictionaryOffset = (long) postingsOffset + postings.size();
+		if (dictionaryOffset > Integer.MAX_VALUE) {
+			throw new IOException("segment too large: " + dictionaryOffset + " bytes");
+		}
+
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(live.docCount());
+			out.writeInt(dictionary.size());
+			out.writeLong(live.totalLength());
+			out.writeInt((int) dictionaryOffset);
+			for (int doc = 0; doc < live.docCount(); doc++) {
+				UUID postId = live.postId(doc);
+				out.writeLong(postId.getMostSignificantBits());
+				out.writeLong(postId.getLeastSignificantBits());
+				out.writeLong(live.createdAtMillis(doc));
+				out.writeInt(live.length(doc));
+			}
+			postings.writeTo(out);
+			for (Map.Entry<String, TermInfo> entry : dictionary.entrySet()) {
+				byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				out.writeShort(term.length);
+				out.write(term);
+				out.writeInt(entry.getValue().docFreq());
+				out.writeInt(postingsOffset + entry.getValue().offset());
+				out.writeInt(entry.getValue().length());
+			}
+		}
+		Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		return open(file);
+	}
+
+	static MappedSegment open(Path file) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("not a search segment: " + file);
+		}
+		int docCount = buffer.getInt(8);
+		int termCount = buffer.getInt(12);
+		long totalLength = buffer.getLong(16);
+		int position = buffer.getInt(24);
+
+		Map<String, TermInfo> terms = HashMap.newHashMap(termCount);
+		for (int i = 0; i < termCount; i++) {
+			int length = Short.toUnsignedInt(buffer.getShort(position));
+			byte[] term = new byte[length];
+			buffer.get(position + 2, term);
+			position += 2 + length;
+			terms.put(
+					new String(term, StandardCharsets.UTF_8),
+					new TermInfo(buffer.getInt(position), buffer.getInt(position + 4), buffer.getInt(position + 8))
+			);
+			position += 12;
+		}
+		return new MappedSegment(file, buffer, docCount, totalLength, terms);
+	}
+
+	Path file() {
+		return file;
+	}
+
+	Set<String> terms() {
+		return terms.keySet();
+	}
+
+	@Override
+	public int docCount() {
+		return docCount;
+	}
+
+	@Override
+	public long totalLength() {
+		return totalLength;
+	}
+
+	@Override
+	public int docFreq(String term) {
+		TermInfo info = terms.get(term);
+		return info == null ? 0 : info.docFreq();
+	}
+
+	// Lecturas absolutas sobre el buffer compartido: no mueven la posicion, se pueden hacer en paralelo.
+	@Override
+	public void forEachPosting(String term, PostingConsumer consumer) {
+		TermInfo info = terms.get(term);
+		if (info == null) {
+			return;
+		}
+		int position = info.offset();
+		int end = position + info.length();
+		int doc = 0;
+		while (position < end) {
+			int delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = buffer.get(position++);
+				delta |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			int frequency = 0;
+			shift = 0;
+			do {
+				b = buffer.get(position++);
+				frequency |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			doc += delta;
+			consumer.accept(doc, frequency);
+		}
+	}
+
+	@Override
+	public UUID postId(int doc) {
+		int offset = HEADER_BYTES + doc * DOC_BYTES;
+		return new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+	}
+
+	@Override
+	public long createdAtMillis(int doc) {
+		return buffer.getLong(HEADER_BYTES + doc * DOC_BYTES + 16);
+	}
+
+	@Override
+	public int length(int doc) {
+		return buffer.getInt(HEADER_BYTES + doc * DOC_BYTES + 24);
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+}
@@ -0,0 +1,91 @@
+package com.stelut.demostracion.social;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+// Propaga los posts nuevos entre nodos via Redis pub/sub y los re-emite localmente como PostCreatedEvent(remote=true).
+@Component
+public class NewPostRelay implements MessageListener {
+
+	public static final String CHANNEL = "social:posts:new";
+
+	private static final Logger log = LoggerFactory.getLogger(NewPostRelay.class);
+
+	record RelayMessage(String originNode, PostSummary post) {
+	}
+
+	private final String nodeId = UUID.randomUUID().toString();
+	private final StringRedisTemplate redis;
+	private final JsonMapper jsonMapper;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectProvider<RedisMessageListenerContainer> listenerContainer;
+	private final SocialAsyncProperties properties;
+	private final SocialMetrics metrics;
+
+	public NewPostRelay(
+			StringRedisTemplate redis,
+			JsonMapper jsonMapper,
+			ApplicationEventPublisher eventPublisher,
+			ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+			SocialAsyncProperties properties,
+			SocialMetrics metrics
+	) {
+		this.redis = redis;
+		this.jsonMapper = jsonMapper;
+		this.eventPublisher = eventPublisher;
+		this.listenerContainer = listenerContainer;
+		this.properties = properties;
+		this.metrics = metrics;
+	}
+
+	@PostConstruct
+	void subscribe() {
+		listenerContainer.ifAvailable(container -> container.addMessageListener(this, new ChannelTopic(CHANNEL)));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		if (event.remote() || !properties.redisEnabled()) {
+			return;
+		}
+		try {
+			redis.convertAndSend(CHANNEL, jsonMapper.writeValueAsString(new RelayMessage(nodeId, event.post())));
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis new post relay publish failed postId={}", event.post().id(), ex);
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		try {
+			RelayMessage relayed = jsonMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), RelayMessage.class);
+			if (nodeId.equals(relayed.originNode()) || relayed.post() == null) {
+				return;
+			}
+			eventPublisher.publishEvent(new PostCreatedEvent(relayed.post(), true));
+		} catch (JacksonException ex) {
+			log.warn("new post relay message skipped reason={}", ex.getMessage());
+		}
+	}
+}
@@ -14,10 +14,51 @@ import org.springframework.data.repository.query.Param;
 public interface PostCommentRepository extends JpaRepository<PostComment, UUID> {
 	List<PostComment> findByPostIdOrderByCreatedAtAsc(UUID postId);
 
-	Page<PostComment> findByPostIdOrderByCreatedAtAsc(UUID postId, Pageable pageable);
-
 	long countByPostId(UUID postId);
 
+	@Query(
+			value = """
+					select new com.stelut.demostracion.social.CommentSnapshot(
+					    c.id, c.post.id, u.id, u.email, c.content, c.createdAt, c.updatedAt
+					)
+					from PostComment c
+					join c.user u
+					where c.post.id = :postId
+					""",
+			countQuery = "select count(c) from PostComment c where c.post.id = :postId"
+	)
+	Page<CommentSnapshot> findSnapshotPage(@Param("postId") UUID postId, Pageable pageable);
+
+	@Query("""
+			select new com.stelut.demostracion.social.CommentSnapshot(
+			    c.id, c.post.id, u.id, u.email, c.content, c.createdAt, c.updatedAt
+			)
+			from PostComment c
+			join c.user u
+			where c.post.id = :postId
+			order by c.createdAt desc, c.id desc
+			""")
+	List<CommentSnapshot> findLatest(@Param("postId") UUID postId, Pageable pageable);
+
+	// Mismo patron que PostRepository.findFeedAfter, acotado por idx_post_comments_post_created_at_id.
+	@Query("""
+			select new com.stelut.demostracion.social.CommentSnapshot(
+			    c.id, c.post.id, u.id, u.email, c.content, c.createdAt, c.updatedAt
+			)
+			from PostComment c
+			join c.user u
+			where c.post.id = :postId
+			  and c.createdAt <= :createdAt
+			  and (c.createdAt < :createdAt or c.id < :id)
+			order by c.createdAt desc, c.id desc
+			""")
+	List<CommentSnapshot> findBefore(
+			@Param("postId") UUID postId,
+			@Param("createdAt") Instant createdAt,
+			@Param("id") UUID id,
+			Pageable pageable
+	);
+
 	@Modifying
 	@Query(
 			value = """
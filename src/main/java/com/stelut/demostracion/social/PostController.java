@@ -1,25 +1,36 @@
 package com.stelut.demostracion.social;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import com.stelut.demostracion.social.dto.CreateCommentRequest;
 import com.stelut.demostracion.social.dto.CreatePostRequest;
+import com.stelut.demostracion.social.dto.FeedCursorResponse;
 import com.stelut.demostracion.social.dto.FeedResponse;
+import com.stelut.demostracion.social.dto.PostBatchRequest;
+import com.stelut.demostracion.social.dto.PostBatchResponse;
 import com.stelut.demostracion.social.dto.PostCommentResponse;
+import com.stelut.demostracion.social.dto.PostCommentsCursorResponse;
 import com.stelut.demostracion.social.dto.PostCommentsPageResponse;
 import com.stelut.demostracion.social.dto.PostResponse;
+import com.stelut.demostracion.social.dto.PostStatsBatchResponse;
 import com.stelut.demostracion.social.dto.PostStatsResponse;
+import com.stelut.demostracion.social.dto.TrendingPostsResponse;
 import com.stelut.demostracion.social.mapper.PostMapper;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.domain.Sort;
 
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.annotation.Validated;
@@ -29,21 +40,34 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/posts")
 @Validated
 public class PostController {
 
+	private static final SocialPostService.PostCounters NO_COUNTERS = new SocialPostService.PostCounters(0, 0, 0);
+
 	private final SocialPostService socialPostService;
 	private final PostMapper postMapper; // mapstruct se usa aqui
+	private final PostStatsStreamHub postStatsStreamHub;
+	private final FeedStreamHub feedStreamHub;
 
-	public PostController(SocialPostService socialPostService, PostMapper postMapper) {
+	public PostController(
+			SocialPostService socialPostService,
+			PostMapper postMapper,
+			PostStatsStreamHub postStatsStreamHub,
+			FeedStreamHub feedStreamHub
+	) {
 		this.socialPostService = socialPostService;
 		this.postMapper = postMapper;
+		this.postStatsStreamHub = postStatsStreamHub;
+		this.feedStreamHub = feedStreamHub;
 	}
 
 	@PostMapping
@@ -86,7 +110,7 @@ public class PostController {
 			@Valid @RequestBody CreateCommentRequest request
 	) {
 		UUID userId = requireUserId(jwt);
-		SocialPostService.CommentSnapshot comment = socialPostService.addComment(postId, userId, request.content());
+		CommentSnapshot comment = socialPostService.addComment(postId, userId, request.content());
 		return new PostCommentResponse(
 				comment.id(),
 				postId,
@@ -98,6 +122,48 @@ public class PostController {
 		);
 	}
 
+	// Hidratacion en bloque (notificaciones, deep links): 1 consulta de posts, 1 de likes y 1 pipeline de contadores.
+	@PostMapping("/batch")
+	public PostBatchResponse batch(@AuthenticationPrincipal Jwt jwt, @Valid @RequestBody PostBatchRequest request) {
+		UUID userId = requireUserId(jwt);
+		List<PostSummary> posts = socialPostService.getPostSummaries(request.ids());
+		Set<UUID> postIds = posts.stream().map(PostSummary::id).collect(java.util.stream.Collectors.toSet());
+		Set<UUID> likedPostIds = socialPostService.findLikedPostIds(userId, postIds);
+		Map<UUID, SocialPostService.PostCounters> counters = socialPostService.getPostCounters(postIds);
+
+		List<PostResponse> items = posts.stream()
+				.map(post -> {
+					SocialPostService.PostCounters postCounters = counters.getOrDefault(post.id(), NO_COUNTERS);
+					return postMapper.toPostResponse(
+							post,
+							postCounters.likes(),
+							postCounters.views(),
+							postCounters.comments(),
+							likedPostIds.contains(post.id())
+					);
+				})
+				.toList();
+		List<UUID> missing = request.ids().stream().distinct().filter(id -> !postIds.contains(id)).toList();
+		return new PostBatchResponse(items, missing);
+	}
+
+	@GetMapping("/stats")
+	public PostStatsBatchResponse statsBatch(
+			@AuthenticationPrincipal Jwt jwt,
+			@RequestParam(name = "ids") @Size(min = 1, max = 100) List<UUID> ids
+	) {
+		requireUserId(jwt);
+		List<PostStatsResponse> items = socialPostService.getPostCounters(ids).entrySet().stream()
+				.map(entry -> new PostStatsResponse(
+						entry.getKey(),
+						entry.getValue().likes(),
+						entry.getValue().views(),
+						entry.getValue().comments()
+				))
+				.toList();
+		return new PostStatsBatchResponse(items);
+	}
+
 	@GetMapping("/{postId}")
 	public PostResponse postDetail(@AuthenticationPrincipal Jwt jwt, @PathVariable UUID postId) {
 		UUID userId = requireUserId(jwt);
@@ -106,13 +172,21 @@ public class PostController {
 		return toPostResponse(post, likedByMe);
 	}
 
+	// SSE: evento "snapshot" al conectar y despues eventos "delta" agregados por intervalo.
+	@GetMapping(value = "/{postId}/stats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamStats(@AuthenticationPrincipal Jwt jwt, @PathVariable UUID postId) {
+		requireUserId(jwt);
+		socialPostService.requirePostExists(postId);
+		return postStatsStreamHub.subscribe(postId, buildStats(postId));
+	}
+
 	@GetMapping("/{postId}/comments")
 	public PostCommentsPageResponse listComments(
 			@PathVariable UUID postId,
 			@PageableDefault(size = 50, sort = "createdAt", direction = Sort.Direction.ASC)
 			Pageable pageable // pageable se usa aqui
 	) {
-		Page<SocialPostService.CommentSnapshot> commentsPage = socialPostService.listComments(postId, pageable);
+		Page<CommentSnapshot> commentsPage = socialPostService.listComments(postId, pageable);
 		List<PostCommentResponse> items = commentsPage.getContent().stream()
 				.map(comment -> new PostCommentResponse(
 						comment.id(),
@@ -133,6 +207,32 @@ public class PostController {
 		);
 	}
 
+	@GetMapping(value = "/{postId}/comments", params = "cursor")
+	public PostCommentsCursorResponse listCommentsByCursor(
+			@PathVariable UUID postId,
+			@RequestParam(name = "cursor") String cursor,
+			@RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(RecentCommentsCache.CAPACITY - 1) int size
+	) {
+		SocialPostService.CommentSlice slice = socialPostService.getCommentsBefore(postId, FeedCursor.decode(cursor), size);
+		List<PostCommentResponse> items = slice.comments().stream()
+				.map(comment -> new PostCommentResponse(
+						comment.id(),
+						comment.postId(),
+						comment.userId(),
+						comment.userDisplayName(),
+						comment.content(),
+						comment.createdAt(),
+						comment.updatedAt()
+				))
+				.toList();
+		return new PostCommentsCursorResponse(
+				items,
+				size,
+				slice.nextCursor() == null ? null : slice.nextCursor().encode(),
+				slice.nextCursor() != null
+		);
+	}
+
 	@GetMapping("/feed")
 	public FeedResponse feed(
 			@AuthenticationPrincipal Jwt jwt,
@@ -140,12 +240,12 @@ public class PostController {
 			Pageable pageable // pageable se usa aqui
 	) {
 		UUID userId = requireUserId(jwt);
-		Page<Post> feed = socialPostService.getFeed(pageable);
-		Set<UUID> postIds = feed.getContent().stream().map(Post::getId).collect(java.util.stream.Collectors.toSet());
+		Page<PostSummary> feed = socialPostService.getFeed(pageable);
+		Set<UUID> postIds = feed.getContent().stream().map(PostSummary::id).collect(java.util.stream.Collectors.toSet());
 		Set<UUID> likedPostIds = socialPostService.findLikedPostIds(userId, postIds);
 
 		List<PostResponse> items = feed.getContent().stream()
-				.map(post -> toPostResponse(post, likedPostIds.contains(post.getId())))
+				.map(post -> toPostResponse(post, likedPostIds.contains(post.id())))
 				.toList();
 
 		return new FeedResponse(
@@ -157,6 +257,52 @@ public class PostController {
 		);
 	}
 
+	// SSE: un evento "post" (id, autor, createdAt) por cada post nuevo; el cuerpo se pide aparte.
+	@GetMapping(value = "/feed/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamFeed(@AuthenticationPrincipal Jwt jwt) {
+		requireUserId(jwt);
+		return feedStreamHub.subscribe();
+	}
+
+	@GetMapping(value = "/feed", params = "cursor")
+	public FeedCursorResponse feedByCursor(
+			@AuthenticationPrincipal Jwt jwt,
+			@RequestParam(name = "cursor") String cursor,
+			@RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(100) int size
+	) {
+		UUID userId = requireUserId(jwt);
+		SocialPostService.FeedSlice feed = socialPostService.getFeedAfter(FeedCursor.decode(cursor), size);
+		Set<UUID> postIds = feed.posts().stream().map(PostSummary::id).collect(java.util.stream.Collectors.toSet());
+		Set<UUID> likedPostIds = socialPostService.findLikedPostIds(userId, postIds);
+
+		List<PostResponse> items = feed.posts().stream()
+				.map(post -> toPostResponse(post, likedPostIds.contains(post.id())))
+				.toList();
+
+		return new FeedCursorResponse(
+				items,
+				size,
+				feed.nextCursor() == null ? null : feed.nextCursor().encode(),
+				feed.nextCursor() != null
+		);
+	}
+
+	@GetMapping("/trending")
+	public TrendingPostsResponse trending(
+			@AuthenticationPrincipal Jwt jwt,
+			@RequestParam(name = "limit", defaultValue = "20") @Min(1) @Max(50) int limit
+	) {
+		UUID userId = requireUserId(jwt);
+		List<PostSummary> posts = socialPostService.getTrending(limit);
+		Set<UUID> postIds = posts.stream().map(PostSummary::id).collect(java.util.stream.Collectors.toSet());
+		Set<UUID> likedPostIds = socialPostService.findLikedPostIds(userId, postIds);
+
+		List<PostResponse> items = posts.stream()
+				.map(post -> toPostResponse(post, likedPostIds.contains(post.id())))
+				.toList();
+		return new TrendingPostsResponse(items);
+	}
+
 	private UUID requireUserId(Jwt jwt) {
 		if (jwt == null || jwt.getSubject() == null || jwt.getSubject().isBlank()) {
 			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid token");
@@ -179,6 +325,17 @@ public class PostController {
 		);
 	}
 
+	private PostResponse toPostResponse(PostSummary post, boolean likedByMe) {
+		SocialPostService.PostCounters counters = socialPostService.getPostCounters(post.id());
+		return postMapper.toPostResponse(
+				post,
+				counters.likes(),
+				counters.views(),
+				counters.comments(),
+				likedByMe
+		);
+	}
+
 	private PostStatsResponse buildStats(UUID postId) {
 		SocialPostService.PostCounters counters = socialPostService.getPostCounters(postId);
 		return new PostStatsResponse(
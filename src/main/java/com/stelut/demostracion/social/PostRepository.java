@@ -1,19 +1,138 @@
 package com.stelut.demostracion.social;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface PostRepository extends JpaRepository<Post, UUID> {
-	List<Post> findByAuthorIdOrderByCreatedAtDesc(UUID authorId);
 
+	interface PostCountersProjection {
+		UUID getPostId();
+
+		Number getLikes();
+
+		Number getViews();
+
+		Number getComments();
+	}
 	long countByAuthorId(UUID authorId);
 
+	@Query("select p.id from Post p where p.id in :ids")
+	List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+	@Query("select p.author.id from Post p where p.id = :postId")
+	Optional<UUID> findAuthorIdById(@Param("postId") UUID postId);
+
+	@Query(
+			value = """
+					select new com.stelut.demostracion.social.PostSummary(
+					    p.id, p.author.id, p.authorDisplayName, p.content, p.createdAt, p.updatedAt
+					)
+					from Post p
+					""",
+			countQuery = "select count(p) from Post p"
+	)
+	Page<PostSummary> findFeedPage(Pageable pageable);
+
+	@Query("""
+			select new com.stelut.demostracion.social.PostSummary(
+			    p.id, p.author.id, p.authorDisplayName, p.content, p.createdAt, p.updatedAt
+			)
+			from Post p
+			order by p.createdAt desc, p.id desc
+			""")
+	List<PostSummary> findFeedHead(Pageable pageable);
+
+	@Query("""
+			select new com.stelut.demostracion.social.PostSummary(
+			    p.id, p.author.id, p.authorDisplayName, p.content, p.createdAt, p.updatedAt
+			)
+			from Post p
+			where p.id in :ids
+			""")
+	List<PostSummary> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+	// Contadores de varios posts en una sola ida; los ids que no existen no devuelven fila.
+	@Query(
+			value = """
+					select p.id as postId,
+					       (select count(*) from post_likes l where l.post_id = p.id) as likes,
+					       (select coalesce(sum(v.view_count), 0) from post_views v where v.post_id = p.id) as views,
+					       (select count(*) from post_comments c where c.post_id = p.id) as comments
+					from posts p
+					where p.id in (:ids)
+					""",
+			nativeQuery = true
+	)
+	List<PostCountersProjection> findCountersByIdIn(@Param("ids") Collection<UUID> ids);
+
+	// Recorrido por id en paginas (para reconstruir el leaderboard); mismos contadores que findCountersByIdIn.
+	@Query(
+			value = """
+					select p.id as postId,
+					       (select count(*) from post_likes l where l.post_id = p.id) as likes,
+					       (select coalesce(sum(v.view_count), 0) from post_views v where v.post_id = p.id) as views,
+					       (select count(*) from post_comments c where c.post_id = p.id) as comments
+					from posts p
+					where p.id > :after
+					order by p.id
+					limit :limit
+					""",
+			nativeQuery = true
+	)
+	List<PostCountersProjection> findCountersAfter(@Param("after") UUID after, @Param("limit") int limit);
+
+	@Query("""
+			select new com.stelut.demostracion.social.PostSummary(
+			    p.id, p.author.id, p.authorDisplayName, p.content, p.createdAt, p.updatedAt
+			)
+			from Post p
+			where p.author.id = :authorId
+			order by p.createdAt desc, p.id desc
+			""")
+	List<PostSummary> findRecentByAuthor(@Param("authorId") UUID authorId, Pageable pageable);
+
+	// created_at <= :createdAt acota el rango en idx_posts_created_at_id; el resto desempata por id.
+	@Query("""
+			select new com.stelut.demostracion.social.PostSummary(
+			    p.id, p.author.id, p.authorDisplayName, p.content, p.createdAt, p.updatedAt
+			)
+			from Post p
+			where p.createdAt <= :createdAt
+			  and (p.createdAt < :createdAt or p.id < :id)
+			order by p.createdAt desc, p.id desc
+			""")
+	List<PostSummary> findFeedAfter(
+			@Param("createdAt") Instant createdAt,
+			@Param("id") UUID id,
+			Pageable pageable
+	);
+
+	// Recorrido ascendente por (created_at, id) para alimentar el indice de busqueda desde su marca de agua.
+	@Query("""
+			select new com.stelut.demostracion.social.PostSummary(
+			    p.id, p.author.id, p.authorDisplayName, p.content, p.createdAt, p.updatedAt
+			)
+			from Post p
+			where p.createdAt >= :createdAt
+			  and (p.createdAt > :createdAt or p.id > :id)
+			order by p.createdAt asc, p.id asc
+			""")
+	List<PostSummary> findCreatedAfter(
+			@Param("createdAt") Instant createdAt,
+			@Param("id") UUID id,
+			Pageable pageable
+	);
+
 	@Query("""
 			select p from Post p
 			where lower(p.content) like lower(concat('%', :query, '%'))
@@ -22,10 +141,80 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
 			""")
 	List<Post> searchSuggestions(@Param("query") String query, Pageable pageable);
 
+	// Slice: pide size+1 filas para saber si hay siguiente pagina, sin el count(*) de un Page.
 	@Query("""
-			select p from Post p
+			select new com.stelut.demostracion.social.PostSummary(
+			    p.id, p.author.id, p.authorDisplayName, p.content, p.createdAt, p.updatedAt
+			)
+			from Post p
 			where lower(p.content) like lower(concat('%', :query, '%'))
 			   or lower(p.authorDisplayName) like lower(concat('%', :query, '%'))
+			order by p.createdAt desc, p.id desc
 			""")
-	Page<Post> searchResults(@Param("query") String query, Pageable pageable);
+	Slice<PostSummary> searchResults(@Param("query") String query, Pageable pageable);
+
+	// Count acotado: deja de contar al llegar a :limit coincidencias.
+	@Query(
+			value = """
+					select count(*) from (
+					    select 1 from posts p
+					    where lower(p.content) like lower(concat('%', :query, '%'))
+					       or lower(p.author_display_name) like lower(concat('%', :query, '%'))
+					    limit :limit
+					) matches
+					""",
+			nativeQuery = true
+	)
+	long countSearchResults(@Param("query") String query, @Param("limit") long limit);
+
+	// Full-text (V8): ts_rank ponderado por recencia (se divide a la mitad cada :halfLifeSeconds).
+	// Devuelve solo ids en orden de ranking; se hidratan con findSummariesByIdIn.
+	@Query(
+			value = """
+					select p.id
+					from posts p, websearch_to_tsquery(cast(:config as regconfig), :query) q
+					where p.search_vector @@ q
+					order by ts_rank(p.search_vector, q)
+					         * power(0.5, extract(epoch from (now() - p.created_at)) / :halfLifeSeconds) desc,
+					         p.created_at desc
+					""",
+			nativeQuery = true
+	)
+	Slice<UUID> searchIdsFullText(
+			@Param("config") String config,
+			@Param("query") String query,
+			@Param("halfLifeSeconds") double halfLifeSeconds,
+			Pageable pageable
+	);
+
+	@Query(
+			value = """
+					select count(*) from (
+					    select 1 from posts p
+					    where p.search_vector @@ websearch_to_tsquery(cast(:config as regconfig), :query)
+					    limit :limit
+					) matches
+					""",
+			nativeQuery = true
+	)
+	long countFullText(@Param("config") String config, @Param("query") String query, @Param("limit") long limit);
+
+	// Sugerencias mientras se escribe: :query ya viene como "tok1:* & tok2:*".
+	@Query(
+			value = """
+					select p.id
+					from posts p, to_tsquery(cast(:config as regconfig), :query) q
+					where p.search_vector @@ q
+					order by ts_rank(p.search_vector, q)
+					         * power(0.5, extract(epoch from (now() - p.created_at)) / :halfLifeSeconds) desc,
+					         p.created_at desc
+					""",
+			nativeQuery = true
+	)
+	List<UUID> searchIdsByPrefix(
+			@Param("config") String config,
+			@Param("query") String query,
+			@Param("halfLifeSeconds") double halfLifeSeconds,
+			Pageable pageable
+	);
 }
@@ -0,0 +1,614 @@
+package com.stelut.demostracion.social;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Motor de busqueda de posts embebido (app.social.search-engine=bm25): indice invertido por nodo con ranking BM25
+// y un impulso de recencia. Los posts nuevos entran en un segmento en memoria que se vuelca a disco cada
+// search-index-flush-docs documentos; los segmentos en disco se leen con mmap y un manifest guarda la lista y la
+// marca de agua (created_at, id) del ultimo volcado. Al arrancar se abren los segmentos y se leen de la BBDD los
+// posts desde SAFETY_WINDOW antes de la marca (un post confirmado tarde puede traer un created_at anterior);
+// los ids de esa ventana se recuerdan para no indexar dos veces. Sin manifest se indexa todo desde cero.
+// Fusion por tamanos: cuando hay MERGE_FACTOR segmentos del mismo nivel se reescriben como uno. Los posts no se
+// editan ni se borran, asi que el indice solo crece.
+@Component
+public class PostSearchEngine {
+
+	public static final String ENGINE = "bm25";
+
+	private static final Logger log = LoggerFactory.getLogger(PostSearchEngine.class);
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+	// Un post recien publicado puntua hasta el doble; a una vida media, x1.5.
+	private static final double RECENCY_WEIGHT = 1.0;
+	private static final int BATCH_SIZE = 1000;
+	private static final int MAX_TERM_LENGTH = 64;
+	private static final String MANIFEST = "manifest.properties";
+	private static final Duration SAFETY_WINDOW = Duration.ofMinutes(5);
+	private static final int MERGE_FACTOR = 4;
+	private static final UUID MIN_ID = new UUID(0, 0);
+
+	public record SearchHits(List<UUID> postIds, long total) {
+	}
+
+	private record Hit(UUID postId, double score, long createdAtMillis) {
+	}
+
+	private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score)
+			.thenComparingLong(Hit::createdAtMillis);
+
+	private final PostRepository postRepository;
+	private final SocialMetrics metrics;
+	private final boolean enabled;
+	private final Path directory;
+	private final int flushDocs;
+	private final double halfLifeMillis;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	// Serializa volcados y fusiones: la escritura a disco va fuera de lock, que solo cubre los cambios de lista.
+	private final ReentrantLock flushLock = new ReentrantLock();
+	// Volcados y fusiones en un unico hilo de fondo: index() (tambien desde el listener tras el commit de
+	// createPost) solo toca memoria.
+	private final ExecutorService flusher =
+			Executors.newSingleThreadExecutor(Thread.ofVirtual().name("post-search-index-flush").factory());
+	private final AtomicBoolean flushQueued = new AtomicBoolean();
+	private final List<MappedSegment> segments = new ArrayList<>();
+	// post id -> created_at de lo indexado dentro de la ventana de seguridad.
+	private final Map<UUID, Long> recentIds = new HashMap<>();
+	private LiveSegment live = new LiveSegment();
+	// Segmento en memoria que se esta escribiendo (o cuya escritura fallo): sigue en las busquedas.
+	private LiveSegment flushing;
+	private int nextSegment = 1;
+	private Instant watermarkCreatedAt = Instant.EPOCH;
+	private UUID watermarkId = MIN_ID;
+	private Instant liveMaxCreatedAt = Instant.EPOCH;
+	private UUID liveMaxId = MIN_ID;
+	private Instant flushingMaxCreatedAt = Instant.EPOCH;
+	private UUID flushingMaxId = MIN_ID;
+	private volatile boolean ready;
+
+	public PostSearchEngine(
+			PostRepository postRepository,
+			SocialMetrics metrics,
+			SocialAsyncProperties properties
+	) {
+		this.postRepository = postRepository;
+		this.metrics = metrics;
+		this.enabled = ENGINE.equals(properties.searchEngine().trim().toLowerCase(Locale.ROOT));
+		this.directory = properties.searchIndexDir();
+		this.flushDocs = properties.searchIndexFlushDocs();
+		this.halfLifeMillis = properties.searchRecencyHalfLife().toMillis();
+	}
+
+	@PostConstruct
+	void init() {
+		metrics.searchIndex(this::documentCount, this::segmentCount);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (enabled) {
+			Thread.ofVirtual().name("post-search-index-load").start(this::load);
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		if (ready) {
+			index(List.of(event.post()));
+		}
+	}
+
+	@PreDestroy
+	void flushOnShutdown() throws InterruptedException {
+		flusher.shutdown();
+		flusher.awaitTermination(30, TimeUnit.SECONDS);
+		if (ready) {
+			flush();
+		}
+	}
+
+	// Pagina del ranking como ids; vacio si el indice no esta listo. total cuenta todos los posts con algun termino.
+	public Optional<SearchHits> search(String query, int page, int size) {
+		if (!ready) {
+			return Optional.empty();
+		}
+		List<String> terms = TextAnalyzer.terms(query).stream()
+				.filter(term -> term.length() <= MAX_TERM_LENGTH)
+				.distinct()
+				.toList();
+		if (terms.isEmpty()) {
+			return Optional.of(new SearchHits(List.of(), 0));
+		}
+		int wanted = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+		long now = System.currentTimeMillis();
+
+		lock.readLock().lock();
+		try {
+			List<IndexSegment> all = new ArrayList<>(segments);
+			if (flushing != null) {
+				all.add(flushing);
+			}
+			all.add(live);
+			long documents = 0;
+			long totalLength = 0;
+			for (IndexSegment segment : all) {
+				documents += segment.docCount();
+				totalLength += segment.totalLength();
+			}
+			if (documents == 0) {
+				return Optional.of(new SearchHits(List.of(), 0));
+			}
+			double averageLength = Math.max(1.0, (double) totalLength / documents);
+			double[] idf = new double[terms.size()];
+			for (int t = 0; t < terms.size(); t++) {
+				long docFreq = 0;
+				for (IndexSegment segment : all) {
+					docFreq += segment.docFreq(terms.get(t));
+				}
+				idf[t] = Math.log(1 + (documents - docFreq + 0.5) / (docFreq + 0.5));
+			}
+
+			PriorityQueue<Hit> top = new PriorityQueue<>(RANKING);
+			long total = 0;
+			for (IndexSegment segment : all) {
+				total += score(segment, terms, idf, averageLength, now, wanted, top);
+			}
+
+			List<Hit> ranked = new ArrayList<>(top);
+			ranked.sort(RANKING.reversed());
+			int from = (int) Math.min((long) page * size, ranked.size());
+			List<UUID> postIds = ranked.subList(from, ranked.size()).stream().map(Hit::postId).toList();
+			return Optional.of(new SearchHits(postIds, total));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Acumula BM25 por doc local en un array del tamano del segmento y solo recorre los docs tocados.
+	private long score(
+			IndexSegment segment,
+			List<String> terms,
+			double[] idf,
+			double averageLength,
+			long now,
+			int wanted,
+			PriorityQueue<Hit> top
+	) {
+		Accumulator accumulator = new Accumulator(segment, averageLength);
+		for (int t = 0; t < terms.size(); t++) {
+			accumulator.idf = idf[t];
+			segment.forEachPosting(terms.get(t), accumulator);
+		}
+		for (int i = 0; i < accumulator.touchedCount; i++) {
+			int doc = accumulator.touched[i];
+			long createdAt = segment.createdAtMillis(doc);
+			double age = Math.max(0, now - createdAt);
+			double score = accumulator.scores[doc] * (1 + RECENCY_WEIGHT * Math.pow(0.5, age / halfLifeMillis));
+			if (top.size() < wanted) {
+				top.add(new Hit(segment.postId(doc), score, createdAt));
+			} else if (score > top.peek().score()) {
+				top.poll();
+				top.add(new Hit(segment.postId(doc), score, createdAt));
+			}
+		}
+		return accumulator.touchedCount;
+	}
+
+	private static final class Accumulator implements IndexSegment.PostingConsumer {
+		private final IndexSegment segment;
+		private final double averageLength;
+		private final double[] scores;
+		private int[] touched = new int[16];
+		private int touchedCount;
+		private double idf;
+
+		private Accumulator(IndexSegment segment, double averageLength) {
+			this.segment = segment;
+			this.averageLength = averageLength;
+			this.scores = new double[segment.docCount()];
+		}
+
+		@Override
+		public void accept(int doc, int frequency) {
+			if (scores[doc] == 0) {
+				if (touchedCount == touched.length) {
+					touched = Arrays.copyOf(touched, touchedCount * 2);
+				}
+				touched[touchedCount++] = doc;
+			}
+			double norm = K1 * (1 - B + B * segment.length(doc) / averageLength);
+			scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+		}
+	}
+
+	private void load() {
+		long started = System.nanoTime();
+		try {
+			openSegments();
+			Instant since;
+			lock.readLock().lock();
+			try {
+				since = watermarkCreatedAt;
+			} finally {
+				lock.readLock().unlock();
+			}
+			Instant last = catchUp(since);
+			// Segundo barrido corto ya con los eventos activos: recoge lo publicado durante el primero.
+			ready = true;
+			catchUp(last);
+			log.info(
+					"post search index ready documents={} segments={} tookMs={}",
+					documentCount(),
+					segmentCount(),
+					(System.nanoTime() - started) / 1_000_000
+			);
+		} catch (IOException | RuntimeException ex) {
+			ready = false;
+			log.warn("post search index load failed, search stays on the database reason={}", ex.getMessage());
+		}
+	}
+
+	private void openSegments() throws IOException {
+		Files.createDirectories(directory);
+		Path manifestFile = directory.resolve(MANIFEST);
+		Properties manifest = new Properties();
+		if (Files.exists(manifestFile)) {
+			try (InputStream in = Files.newInputStream(manifestFile)) {
+				manifest.load(in);
+			}
+		}
+		List<MappedSegment> opened = new ArrayList<>();
+		Set<String> listed = new HashSet<>();
+		try {
+			for (String name : manifest.getProperty("segments", "").split(",")) {
+				if (!name.isBlank()) {
+					opened.add(MappedSegment.open(directory.resolve(name.trim())));
+					listed.add(name.trim());
+				}
+			}
+		} catch (IOException ex) {
+			// Segmento ilegible: se descarta todo y se reconstruye desde la BBDD.
+			log.warn("post search index segments unreadable, rebuilding reason={}", ex.getMessage());
+			Files.delete(manifestFile);
+			manifest.clear();
+			opened.clear();
+			listed.clear();
+		}
+		deleteUnlisted(listed);
+		if (opened.isEmpty()) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			segments.addAll(opened);
+			nextSegment = Integer.parseInt(manifest.getProperty("next-segment", "1"));
+			watermarkCreatedAt = Instant.parse(manifest.getProperty("watermark-created-at", Instant.EPOCH.toString()));
+			watermarkId = UUID.fromString(manifest.getProperty("watermark-id", MIN_ID.toString()));
+			long cutoff = watermarkCreatedAt.minus(SAFETY_WINDOW).toEpochMilli();
+			for (MappedSegment segment : opened) {
+				for (int doc = 0; doc < segment.docCount(); doc++) {
+					long createdAt = segment.createdAtMillis(doc);
+					if (createdAt >= cutoff) {
+						recentIds.put(segment.postId(doc), createdAt);
+					}
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Segmentos de un volcado o una fusion que no llego al manifest, o ya sustituidos por una fusion.
+	private void deleteUnlisted(Set<String> listed) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*")) {
+			for (Path file : files) {
+				if (!listed.contains(file.getFileName().toString())) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	// Desde SAFETY_WINDOW antes de since hasta el final; devuelve el created_at del ultimo post leido.
+	private Instant catchUp(Instant since) {
+		Instant createdAt = since.minus(SAFETY_WINDOW);
+		UUID id = MIN_ID;
+		while (true) {
+			List<PostSummary> rows = postRepository.findCreatedAfter(createdAt, id, PageRequest.ofSize(BATCH_SIZE));
+			index(rows);
+			if (!rows.isEmpty()) {
+				PostSummary last = rows.get(rows.size() - 1);
+				createdAt = last.createdAt();
+				id = last.id();
+			}
+			if (rows.size() < BATCH_SIZE) {
+				return createdAt.isAfter(since) ? createdAt : since;
+			}
+		}
+	}
+
+	private void index(List<PostSummary> posts) {
+		if (posts.isEmpty()) {
+			return;
+		}
+		boolean full;
+		lock.writeLock().lock();
+		try {
+			long cutoff = watermarkCreatedAt.minus(SAFETY_WINDOW).toEpochMilli();
+			for (PostSummary post : posts) {
+				long createdAt = post.createdAt().toEpochMilli();
+				// Antes de la ventana ya esta en un segmento; dentro, recentIds dice si ya se indexo.
+				if (createdAt < cutoff || recentIds.putIfAbsent(post.id(), createdAt) != null) {
+					continue;
+				}
+				List<String> terms = new ArrayList<>(TextAnalyzer.terms(post.content()));
+				terms.addAll(TextAnalyzer.terms(post.authorDisplayName()));
+				terms.removeIf(term -> term.length() > MAX_TERM_LENGTH);
+				live.add(post.id(), createdAt, terms);
+				if (isAfter(post.createdAt(), post.id(), liveMaxCreatedAt, liveMaxId)) {
+					liveMaxCreatedAt = post.createdAt();
+					liveMaxId = post.id();
+				}
+			}
+			full = live.docCount() >= flushDocs;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		if (full && flushQueued.compareAndSet(false, true)) {
+			flusher.execute(this::flushInBackground);
+		}
+	}
+
+	private void flushInBackground() {
+		flushQueued.set(false);
+		if (!flush()) {
+			return;
+		}
+		flushLock.lock();
+		try {
+			merge();
+		} catch (IOException ex) {
+			// Los segmentos siguen como estaban; se reintenta tras el siguiente volcado.
+			log.warn("post search index merge failed reason={}", ex.getMessage());
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	// Escribe el segmento en memoria y despues el manifest; si el proceso cae entre medias,
+	// el segmento huerfano se borra al arrancar y los posts se vuelven a leer desde la marca anterior.
+	// Durante la escritura los posts nuevos van a otro segmento en memoria y las busquedas siguen sin esperar.
+	// true si se publico un segmento nuevo.
+	private boolean flush() {
+		flushLock.lock();
+		try {
+			LiveSegment pending;
+			String name;
+			lock.writeLock().lock();
+			try {
+				// Un volcado fallido se reintenta antes de apartar el segmento actual.
+				if (flushing == null) {
+					if (live.docCount() == 0) {
+						return false;
+					}
+					flushing = live;
+					flushingMaxCreatedAt = liveMaxCreatedAt;
+					flushingMaxId = liveMaxId;
+					live = new LiveSegment();
+					liveMaxCreatedAt = Instant.EPOCH;
+					liveMaxId = MIN_ID;
+				}
+				pending = flushing;
+				name = segmentName(nextSegment++);
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			MappedSegment segment;
+			try {
+				segment = MappedSegment.write(directory.resolve(name), pending);
+			} catch (IOException ex) {
+				// Se queda en memoria (y en las busquedas) y se reintenta en el siguiente volcado.
+				log.warn("post search index flush failed documents={} reason={}", pending.docCount(), ex.getMessage());
+				return false;
+			}
+
+			List<MappedSegment> updated;
+			int next;
+			Instant newWatermarkCreatedAt;
+			UUID newWatermarkId;
+			lock.writeLock().lock();
+			try {
+				segments.add(segment);
+				flushing = null;
+				if (isAfter(flushingMaxCreatedAt, flushingMaxId, watermarkCreatedAt, watermarkId)) {
+					watermarkCreatedAt = flushingMaxCreatedAt;
+					watermarkId = flushingMaxId;
+				}
+				long cutoff = watermarkCreatedAt.minus(SAFETY_WINDOW).toEpochMilli();
+				recentIds.values().removeIf(createdAt -> createdAt < cutoff);
+				updated = List.copyOf(segments);
+				next = nextSegment;
+				newWatermarkCreatedAt = watermarkCreatedAt;
+				newWatermarkId = watermarkId;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			writeManifest(updated, next, newWatermarkCreatedAt, newWatermarkId);
+			return true;
+		} catch (IOException ex) {
+			// El segmento ya esta en memoria; el siguiente manifest lo incluye y al arrancar se releen sus posts.
+			log.warn("post search index manifest write failed reason={}", ex.getMessage());
+			return false;
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	// Con flushLock. Mientras algun nivel (docCount ~ flushDocs * MERGE_FACTOR^nivel) tenga MERGE_FACTOR segmentos,
+	// los reescribe como uno solo. Los ficheros viejos se borran despues de publicar el manifest.
+	private void merge() throws IOException {
+		while (true) {
+			List<MappedSegment> group;
+			String name;
+			lock.readLock().lock();
+			try {
+				group = mergeCandidates(segments);
+				if (group.isEmpty()) {
+					return;
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+			long started = System.nanoTime();
+			LiveSegment merged = new LiveSegment();
+			for (MappedSegment segment : group) {
+				merged.append(segment, segment.terms());
+			}
+			lock.writeLock().lock();
+			try {
+				name = segmentName(nextSegment++);
+			} finally {
+				lock.writeLock().unlock();
+			}
+			MappedSegment segment = MappedSegment.write(directory.resolve(name), merged);
+
+			List<MappedSegment> updated;
+			int next;
+			Instant createdAt;
+			UUID id;
+			lock.writeLock().lock();
+			try {
+				segments.set(segments.indexOf(group.get(0)), segment);
+				segments.removeAll(group.subList(1, group.size()));
+				updated = List.copyOf(segments);
+				next = nextSegment;
+				createdAt = watermarkCreatedAt;
+				id = watermarkId;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			writeManifest(updated, next, createdAt, id);
+			for (MappedSegment old : group) {
+				Files.deleteIfExists(old.file());
+			}
+			log.info(
+					"post search index merged segments={} documents={} tookMs={}",
+					group.size(),
+					segment.docCount(),
+					(System.nanoTime() - started) / 1_000_000
+			);
+		}
+	}
+
+	// Los MERGE_FACTOR primeros segmentos del nivel mas bajo que los tenga; vacio si ninguno llega.
+	private List<MappedSegment> mergeCandidates(List<MappedSegment> list) {
+		Map<Integer, List<MappedSegment>> byTier = new TreeMap<>();
+		for (MappedSegment segment : list) {
+			int tier = 0;
+			for (long size = (long) flushDocs * MERGE_FACTOR; segment.docCount() >= size; size *= MERGE_FACTOR) {
+				tier++;
+			}
+			byTier.computeIfAbsent(tier, key -> new ArrayList<>()).add(segment);
+		}
+		for (List<MappedSegment> tier : byTier.values()) {
+			if (tier.size() >= MERGE_FACTOR) {
+				return tier.subList(0, MERGE_FACTOR);
+			}
+		}
+		return List.of();
+	}
+
+	private static String segmentName(int number) {
+		return String.format(Locale.ROOT, "segment-%06d.idx", number);
+	}
+
+	private static boolean isAfter(Instant createdAt, UUID id, Instant otherCreatedAt, UUID otherId) {
+		int byTime = createdAt.compareTo(otherCreatedAt);
+		return byTime > 0 || (byTime == 0 && id.compareTo(otherId) > 0);
+	}
+
+	private void writeManifest(List<MappedSegment> list, int next, Instant createdAt, UUID id) throws IOException {
+		Properties manifest = new Properties();
+		manifest.setProperty(
+				"segments",
+				String.join(",", list.stream().map(segment -> segment.file().getFileName().toString()).toList())
+		);
+		manifest.setProperty("next-segment", Integer.toString(next));
+		manifest.setProperty("watermark-created-at", createdAt.toString());
+		manifest.setProperty("watermark-id", id.toString());
+		Path tmp = directory.resolve(MANIFEST + ".tmp");
+		try (OutputStream out = Files.newOutputStream(tmp)) {
+			manifest.store(out, null);
+		}
+		Files.move(tmp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private long documentCount() {
+		lock.readLock().lock();
+		try {
+			long documents = live.docCount() + (flushing == null ? 0 : flushing.docCount());
+			for (MappedSegment segment : segments) {
+				documents += segment.docCount();
+			}
+			return documents;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private int segmentCount() {
+		lock.readLock().lock();
+		try {
+			return segments.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package com.stelut.demostracion.social;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.dto.PostStatsDeltaResponse;
+import com.stelut.demostracion.social.dto.PostStatsResponse;
+import com.stelut.demostracion.social.event.PostInteractionEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+// Fan-out por nodo de deltas de contadores a clientes SSE.
+// Los deltas se agregan por post y se emiten como mucho una vez por intervalo; los de este nodo se
+// reenvian al resto en un unico mensaje de Redis pub/sub por intervalo.
+// Como en FeedStreamHub, cada cliente tiene una cola acotada drenada por su propio hilo virtual: un cliente lento
+// solo se retrasa a si mismo y, si su cola se llena, se le desconecta.
+@Component
+public class PostStatsStreamHub implements MessageListener {
+
+	public static final String CHANNEL = "social:posts:stats";
+
+	private static final Logger log = LoggerFactory.getLogger(PostStatsStreamHub.class);
+	private static final String STREAM = "post_stats";
+	private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+	private static final int QUEUE_CAPACITY = 16;
+
+	record Delta(long likes, long views, long comments) {
+
+		Delta plus(Delta other) {
+			return new Delta(likes + other.likes, views + other.views, comments + other.comments);
+		}
+	}
+
+	record RelayedDelta(UUID postId, long likes, long views, long comments) {
+	}
+
+	record RelayMessage(String originNode, List<RelayedDelta> deltas) {
+	}
+
+	private final class Watcher {
+
+		private final UUID postId;
+		private final SseEmitter emitter;
+		private final BlockingQueue<PostStatsDeltaResponse> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		private volatile boolean closed;
+
+		private Watcher(UUID postId, SseEmitter emitter) {
+			this.postId = postId;
+			this.emitter = emitter;
+		}
+
+		private void drain() {
+			try {
+				while (!closed) {
+					PostStatsDeltaResponse next = queue.poll(HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+					if (next == null) {
+						emitter.send(SseEmitter.event().comment("ping"));
+						continue;
+					}
+					emitter.send(SseEmitter.event().name("delta").data(next));
+				}
+			} catch (IOException | IllegalStateException ex) {
+				metrics.streamDropped(STREAM);
+				unsubscribe(this);
+				emitter.completeWithError(ex);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private final String nodeId = UUID.randomUUID().toString();
+	private final Map<UUID, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+	private final Map<UUID, Delta> pendingPush = new ConcurrentHashMap<>();
+	private final Map<UUID, Delta> pendingRelay = new ConcurrentHashMap<>();
+	private final ExecutorService drainers = Executors.newVirtualThreadPerTaskExecutor();
+	private final StringRedisTemplate redis;
+	private final JsonMapper jsonMapper;
+	private final ObjectProvider<RedisMessageListenerContainer> listenerContainer;
+	private final SocialAsyncProperties properties;
+	private final SocialMetrics metrics;
+	private final Duration emitterTimeout;
+
+	public PostStatsStreamHub(
+			StringRedisTemplate redis,
+			JsonMapper jsonMapper,
+			ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+			SocialAsyncProperties properties,
+			SocialMetrics metrics
+	) {
+		this.redis = redis;
+		this.jsonMapper = jsonMapper;
+		this.listenerContainer = listenerContainer;
+		this.properties = properties;
+		this.metrics = metrics;
+		this.emitterTimeout = properties.streamEmitterTimeout();
+	}
+
+	@PostConstruct
+	void init() {
+		listenerContainer.ifAvailable(container -> container.addMessageListener(this, new ChannelTopic(CHANNEL)));
+		metrics.streamSubscribers(STREAM, () -> watchers.values().stream().mapToInt(Set::size).sum());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		watchers.values().forEach(postWatchers -> postWatchers.forEach(watcher -> {
+			watcher.closed = true;
+			watcher.emitter.complete();
+		}));
+		watchers.clear();
+		drainers.shutdownNow();
+	}
+
+	public SseEmitter subscribe(UUID postId, PostStatsResponse snapshot) {
+		SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+		Watcher watcher = new Watcher(postId, emitter);
+		// Alta dentro de compute: unsubscribe no puede retirar el set entre crearlo y anadir el watcher.
+		watchers.compute(postId, (id, postWatchers) -> {
+			Set<Watcher> current = postWatchers == null ? ConcurrentHashMap.newKeySet() : postWatchers;
+			current.add(watcher);
+			return current;
+		});
+		emitter.onCompletion(() -> unsubscribe(watcher));
+		emitter.onTimeout(() -> unsubscribe(watcher));
+		emitter.onError(ex -> unsubscribe(watcher));
+		// Los deltas que lleguen mientras tanto esperan en la cola: el drenado empieza tras el snapshot.
+		try {
+			emitter.send(SseEmitter.event().name("snapshot").data(snapshot));
+		} catch (IOException ex) {
+			unsubscribe(watcher);
+			emitter.completeWithError(ex);
+			return emitter;
+		}
+		drainers.execute(watcher::drain);
+		return emitter;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onInteraction(PostInteractionEvent event) {
+		Delta delta = switch (event.type()) {
+			case LIKE -> new Delta(1, 0, 0);
+			case UNLIKE -> new Delta(-1, 0, 0);
+			case VIEW -> new Delta(0, 1, 0);
+			case COMMENT -> new Delta(0, 0, 1);
+		};
+		if (properties.redisEnabled()) {
+			pendingRelay.merge(event.postId(), delta, Delta::plus);
+		}
+		if (watchers.containsKey(event.postId())) {
+			pendingPush.merge(event.postId(), delta, Delta::plus);
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		try {
+			RelayMessage relayed = jsonMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), RelayMessage.class);
+			if (nodeId.equals(relayed.originNode()) || relayed.deltas() == null) {
+				return;
+			}
+			for (RelayedDelta delta : relayed.deltas()) {
+				if (watchers.containsKey(delta.postId())) {
+					pendingPush.merge(delta.postId(), new Delta(delta.likes(), delta.views(), delta.comments()), Delta::plus);
+				}
+			}
+		} catch (JacksonException ex) {
+			log.warn("post stats relay message skipped reason={}", ex.getMessage());
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.social.stats-stream-interval:PT1S}")
+	public void flush() {
+		relayLocalDeltas();
+		for (UUID postId : pendingPush.keySet()) {
+			Delta delta = pendingPush.remove(postId);
+			Set<Watcher> postWatchers = watchers.get(postId);
+			if (delta == null || postWatchers == null) {
+				continue;
+			}
+			PostStatsDeltaResponse payload = new PostStatsDeltaResponse(postId, delta.likes(), delta.views(), delta.comments());
+			for (Watcher watcher : postWatchers) {
+				if (!watcher.queue.offer(payload)) {
+					metrics.streamDropped(STREAM);
+					unsubscribe(watcher);
+					watcher.emitter.complete();
+				}
+			}
+		}
+	}
+
+	private void relayLocalDeltas() {
+		if (pendingRelay.isEmpty()) {
+			return;
+		}
+		List<RelayedDelta> deltas = new ArrayList<>();
+		for (UUID postId : pendingRelay.keySet()) {
+			Delta delta = pendingRelay.remove(postId);
+			if (delta != null) {
+				deltas.add(new RelayedDelta(postId, delta.likes(), delta.views(), delta.comments()));
+			}
+		}
+		try {
+			redis.convertAndSend(CHANNEL, jsonMapper.writeValueAsString(new RelayMessage(nodeId, deltas)));
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis post stats relay publish failed posts={}", deltas.size(), ex);
+		}
+	}
+
+	private void unsubscribe(Watcher watcher) {
+		watcher.closed = true;
+		watchers.computeIfPresent(watcher.postId, (id, postWatchers) -> {
+			postWatchers.remove(watcher);
+			return postWatchers.isEmpty() ? null : postWatchers;
+		});
+	}
+}
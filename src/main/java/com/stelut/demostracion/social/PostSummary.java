@@ -0,0 +1,25 @@
+package com.stelut.demostracion.social;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Vista inmutable de las columnas de un post que necesita PostResponse (sin contadores ni likedByMe).
+public record PostSummary(
+		UUID id,
+		UUID authorId,
+		String authorDisplayName,
+		String content,
+		Instant createdAt,
+		Instant updatedAt
+) {
+	public static PostSummary of(Post post) {
+		return new PostSummary(
+				post.getId(),
+				post.getAuthor().getId(),
+				post.getAuthorDisplayName(),
+				post.getContent(),
+				post.getCreatedAt(),
+				post.getUpdatedAt()
+		);
+	}
+}
@@ -0,0 +1,332 @@
+package com.stelut.demostracion.social;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.stelut.demostracion.social.dto.SearchSuggestionItemResponse;
+
+// Trie de prefijos con el top-k (por score, mayor primero) precalculado en cada nodo.
+// Los hijos van en arrays ordenados (char[] + Node[]) y el top-k en un int[] que crece hasta k,
+// asi un nodo pesa unas decenas de bytes. La profundidad se corta en maxDepth.
+// Como mucho maxEntries entradas: al pasarse se expulsa la de menor score (la mas antigua) de todos sus nodos.
+// Un nodo con menos de k entradas en su top tiene todas las de ese prefijo: con varios tokens o tokens mas
+// largos que maxDepth se filtra el nodo mas pequeno, y si esta lleno y no da para limit no hay respuesta exacta.
+// Tampoco la hay si el indice esta truncado (expulsiones o carga parcial) y salen menos de limit: las entradas
+// de fuera son mas antiguas que todas las de dentro, asi que un resultado con limit entradas si es exacto.
+final class PrefixIndex {
+
+	private static final char[] NO_KEYS = new char[0];
+	private static final Node[] NO_CHILDREN = new Node[0];
+	private static final int[] NO_ENTRIES = new int[0];
+
+	private static final class Node {
+		private char[] keys = NO_KEYS;
+		private Node[] children = NO_CHILDREN;
+		private int[] top = NO_ENTRIES;
+	}
+
+	// terms: todos los tokens indexados del item (texto completo, no el titulo recortado).
+	private record Entry(SearchSuggestionItemResponse item, long score, String[] terms) {
+	}
+
+	private final int topK;
+	private final int maxDepth;
+	private final int maxEntries;
+	private final Node root = new Node();
+	private final List<Entry> entries = new ArrayList<>();
+	private final Deque<Integer> freeSlots = new ArrayDeque<>();
+	private final Map<String, Integer> entryById = new HashMap<>();
+	private final PriorityQueue<Integer> oldest = new PriorityQueue<>(Comparator.comparingLong(entry -> entries.get(entry).score()));
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private long nodes = 1;
+	private long topSlots;
+	private boolean truncated;
+
+	PrefixIndex(int topK, int maxDepth, int maxEntries) {
+		this.topK = topK;
+		this.maxDepth = maxDepth;
+		this.maxEntries = maxEntries;
+	}
+
+	// Idempotente por item.id(): reindexar el mismo id no duplica resultados.
+	// Con el indice lleno, un item mas antiguo que todos los indexados no entra.
+	void add(SearchSuggestionItemResponse item, long score, String... texts) {
+		lock.writeLock().lock();
+		try {
+			if (entryById.containsKey(item.id())) {
+				return;
+			}
+			if (entryById.size() >= maxEntries) {
+				Integer victim = oldest.peek();
+				truncated = true;
+				if (victim == null || entries.get(victim).score() >= score) {
+					return;
+				}
+				evict(oldest.poll());
+			}
+			String[] terms = Arrays.stream(texts).flatMap(text -> tokenize(text).stream()).distinct().toArray(String[]::new);
+			Entry created = new Entry(item, score, terms);
+			int entry;
+			if (freeSlots.isEmpty()) {
+				entry = entries.size();
+				entries.add(created);
+			} else {
+				entry = freeSlots.pop();
+				entries.set(entry, created);
+			}
+			entryById.put(item.id(), entry);
+			oldest.add(entry);
+			for (String term : terms) {
+				insert(term, entry, score);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Vacio si el indice no puede dar la respuesta exacta (el llamante consulta la BBDD).
+	Optional<List<SearchSuggestionItemResponse>> search(String query, int limit) {
+		List<String> tokens = tokenize(query);
+		if (tokens.isEmpty()) {
+			return Optional.of(List.of());
+		}
+		boolean needsFilter = tokens.size() > 1;
+		lock.readLock().lock();
+		try {
+			Node smallest = null;
+			for (String token : tokens) {
+				needsFilter |= token.length() > maxDepth;
+				Node node = root;
+				for (int i = 0; i < Math.min(token.length(), maxDepth) && node != null; i++) {
+					node = child(node, token.charAt(i));
+				}
+				if (node == null) {
+					return truncated ? Optional.empty() : Optional.of(List.of());
+				}
+				if (smallest == null || node.top.length < smallest.top.length) {
+					smallest = node;
+				}
+			}
+			List<SearchSuggestionItemResponse> results = new ArrayList<>(Math.min(limit, smallest.top.length));
+			for (int entry : smallest.top) {
+				Entry candidate = entries.get(entry);
+				if (!needsFilter || matchesAll(candidate.terms(), tokens)) {
+					results.add(candidate.item());
+					if (results.size() == limit) {
+						break;
+					}
+				}
+			}
+			// Top lleno: puede haber mas entradas con el prefijo que no caben y que si pasan el filtro.
+			if (results.size() < limit && (truncated || (needsFilter && smallest.top.length == topK))) {
+				return Optional.empty();
+			}
+			return Optional.of(results);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Quedan entradas mas antiguas sin indexar (la carga inicial paro en el maximo).
+	void markTruncated() {
+		lock.writeLock().lock();
+		try {
+			truncated = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	int size() {
+		lock.readLock().lock();
+		try {
+			return entryById.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	long nodeCount() {
+		lock.readLock().lock();
+		try {
+			return nodes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Estimacion con cabeceras de 16 bytes y referencias comprimidas de 4; los items cuentan sus Strings.
+	long estimatedBytes() {
+		lock.readLock().lock();
+		try {
+			long trie = nodes * (16 + 3 * 4 + 3 * 16) + (nodes - 1) * (2 + 4) + topSlots * 4;
+			long items = 0;
+			for (Entry entry : entries) {
+				if (entry == null) {
+					continue;
+				}
+				SearchSuggestionItemResponse item = entry.item();
+				items += 16 + 8 + 4 + 4 + 16 + 24 + stringBytes(item.id()) + stringBytes(item.kind())
+						+ stringBytes(item.title()) + stringBytes(item.subtitle()) + 16L + entry.terms().length * 4L;
+				for (String term : entry.terms()) {
+					items += stringBytes(term);
+				}
+			}
+			return trie + items + entryById.size() * (48L + 16L);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		return TextAnalyzer.terms(text).stream().distinct().toList();
+	}
+
+	private void insert(String token, int entry, long score) {
+		Node node = root;
+		for (int i = 0; i < Math.min(token.length(), maxDepth); i++) {
+			node = childOrCreate(node, token.charAt(i));
+			offer(node, entry, score);
+		}
+	}
+
+	// La expulsada es la de menor score: en un top lleno solo puede estar si el nodo no tenia mas entradas,
+	// asi que los nodos siguen guardando todas las suyas cuando les quedan menos de k.
+	private void evict(int entry) {
+		Entry removed = entries.get(entry);
+		for (String term : removed.terms()) {
+			remove(term, entry);
+		}
+		entryById.remove(removed.item().id());
+		entries.set(entry, null);
+		freeSlots.push(entry);
+	}
+
+	// Quita la entrada del top de cada nodo del camino; el primer nodo que se queda sin entradas se descuelga
+	// con todo su subarbol (ninguna entrada tiene ya ese prefijo).
+	private void remove(String token, int entry) {
+		Node parent = null;
+		Node node = root;
+		for (int i = 0; i < Math.min(token.length(), maxDepth); i++) {
+			Node next = child(node, token.charAt(i));
+			if (next == null) {
+				return;
+			}
+			parent = node;
+			node = next;
+			int[] top = node.top;
+			int position = indexOf(top, entry);
+			if (position >= 0) {
+				int[] shrunk = new int[top.length - 1];
+				System.arraycopy(top, 0, shrunk, 0, position);
+				System.arraycopy(top, position + 1, shrunk, position, top.length - position - 1);
+				node.top = shrunk.length == 0 ? NO_ENTRIES : shrunk;
+				topSlots--;
+			}
+			if (node.top.length == 0) {
+				detach(parent, token.charAt(i));
+				return;
+			}
+		}
+	}
+
+	private void detach(Node parent, char key) {
+		int index = Arrays.binarySearch(parent.keys, key);
+		Node detached = parent.children[index];
+		int length = parent.keys.length;
+		char[] keys = new char[length - 1];
+		Node[] children = new Node[length - 1];
+		System.arraycopy(parent.keys, 0, keys, 0, index);
+		System.arraycopy(parent.children, 0, children, 0, index);
+		System.arraycopy(parent.keys, index + 1, keys, index, length - index - 1);
+		System.arraycopy(parent.children, index + 1, children, index, length - index - 1);
+		parent.keys = keys.length == 0 ? NO_KEYS : keys;
+		parent.children = children.length == 0 ? NO_CHILDREN : children;
+		discount(detached);
+	}
+
+	private void discount(Node node) {
+		nodes--;
+		topSlots -= node.top.length;
+		for (Node child : node.children) {
+			discount(child);
+		}
+	}
+
+	private void offer(Node node, int entry, long score) {
+		int[] top = node.top;
+		int position = top.length;
+		for (int i = 0; i < top.length; i++) {
+			if (top[i] == entry) {
+				return;
+			}
+			if (position == top.length && score > entries.get(top[i]).score()) {
+				position = i;
+			}
+		}
+		if (position >= topK) {
+			return;
+		}
+		int newLength = Math.min(top.length + 1, topK);
+		int[] next = new int[newLength];
+		System.arraycopy(top, 0, next, 0, position);
+		next[position] = entry;
+		System.arraycopy(top, position, next, position + 1, newLength - position - 1);
+		topSlots += newLength - top.length;
+		node.top = next;
+	}
+
+	private static int indexOf(int[] values, int value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static Node child(Node node, char key) {
+		int index = Arrays.binarySearch(node.keys, key);
+		return index >= 0 ? node.children[index] : null;
+	}
+
+	private Node childOrCreate(Node node, char key) {
+		int index = Arrays.binarySearch(node.keys, key);
+		if (index >= 0) {
+			return node.children[index];
+		}
+		int insertAt = -index - 1;
+		int length = node.keys.length;
+		char[] keys = new char[length + 1];
+		Node[] children = new Node[length + 1];
+		System.arraycopy(node.keys, 0, keys, 0, insertAt);
+		System.arraycopy(node.children, 0, children, 0, insertAt);
+		System.arraycopy(node.keys, insertAt, keys, insertAt + 1, length - insertAt);
+		System.arraycopy(node.children, insertAt, children, insertAt + 1, length - insertAt);
+		Node created = new Node();
+		keys[insertAt] = key;
+		children[insertAt] = created;
+		node.keys = keys;
+		node.children = children;
+		nodes++;
+		return created;
+	}
+
+	// Cada token de la consulta debe ser prefijo de alguna palabra indexada del item.
+	private static boolean matchesAll(String[] terms, List<String> tokens) {
+		return tokens.stream().allMatch(token -> Arrays.stream(terms).anyMatch(term -> term.startsWith(token)));
+	}
+
+	private static long stringBytes(String value) {
+		return value == null ? 0 : 40L + value.length();
+	}
+}
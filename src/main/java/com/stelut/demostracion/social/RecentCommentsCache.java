@@ -0,0 +1,85 @@
+package com.stelut.demostracion.social;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Lista acotada en Redis con los CAPACITY comentarios mas recientes de cada post (el mas nuevo primero).
+// La escribe addComment antes de que Kafka llegue a PostgreSQL, asi que sirve de read-your-writes para la
+// primera pagina. Puede no estar completa (TTL, Redis caido): quien la lee la mezcla con la BBDD.
+@Component
+public class RecentCommentsCache {
+
+	public static final int CAPACITY = 50;
+
+	private static final Logger log = LoggerFactory.getLogger(RecentCommentsCache.class);
+
+	private final StringRedisTemplate redis;
+	private final JsonMapper jsonMapper;
+	private final SocialAsyncProperties properties;
+	private final SocialMetrics metrics;
+
+	public RecentCommentsCache(
+			StringRedisTemplate redis,
+			JsonMapper jsonMapper,
+			SocialAsyncProperties properties,
+			SocialMetrics metrics
+	) {
+		this.redis = redis;
+		this.jsonMapper = jsonMapper;
+		this.properties = properties;
+		this.metrics = metrics;
+	}
+
+	public void push(CommentSnapshot comment) {
+		if (!properties.redisEnabled()) {
+			return;
+		}
+		String key = recentKey(comment.postId());
+		try {
+			redis.opsForList().leftPush(key, jsonMapper.writeValueAsString(comment));
+			redis.opsForList().trim(key, 0, CAPACITY - 1L);
+			redis.expire(key, properties.redisStatsTtl());
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis recent comments push failed postId={}", comment.postId(), ex);
+		}
+	}
+
+	public List<CommentSnapshot> latest(UUID postId, int limit) {
+		if (!properties.redisEnabled()) {
+			return List.of();
+		}
+		try {
+			List<String> raw = redis.opsForList().range(recentKey(postId), 0, limit - 1L);
+			if (raw == null || raw.isEmpty()) {
+				metrics.redisCacheMiss();
+				return List.of();
+			}
+			metrics.redisCacheHit();
+			List<CommentSnapshot> comments = new ArrayList<>(raw.size());
+			for (String item : raw) {
+				comments.add(jsonMapper.readValue(item, CommentSnapshot.class));
+			}
+			return comments;
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis recent comments read failed postId={}", postId, ex);
+			return List.of();
+		}
+	}
+
+	private String recentKey(UUID postId) {
+		return "social:post:" + postId + ":comments:recent";
+	}
+}
@@ -1,6 +1,7 @@
 package com.stelut.demostracion.social;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -13,7 +14,6 @@ import com.stelut.demostracion.user.User;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
-import org.springframework.data.domain.Page;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.annotation.Validated;
@@ -30,6 +30,8 @@ import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 @Validated
 public class SearchController {
 
+	private static final SocialPostService.PostCounters NO_COUNTERS = new SocialPostService.PostCounters(0, 0, 0);
+
 	private final SocialSearchService socialSearchService;
 	private final SocialPostService socialPostService;
 
@@ -40,14 +42,16 @@ public class SearchController {
 
 	@GetMapping("/suggestions")
 	public SearchSuggestionsResponse suggestions(
+			@AuthenticationPrincipal Jwt jwt,
 			@RequestParam(name = "q", defaultValue = "") String query,
 			@RequestParam(name = "type", defaultValue = "posts") String rawType,
-			@RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(10) int limit
+			@RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(10) int limit,
+			@RequestParam(name = "lang", required = false) String language
 	) {
 		String type = normalizeType(rawType);
 		List<SearchSuggestionItemResponse> items = type.equals("users")
 				? socialSearchService.searchUsers(query, limit)
-				: socialSearchService.searchPosts(query, limit);
+				: socialSearchService.searchPosts(query, limit, requireUserId(jwt), language);
 
 		return new SearchSuggestionsResponse(query, type, items);
 	}
@@ -58,15 +62,22 @@ public class SearchController {
 			@RequestParam(name = "q", defaultValue = "") String query,
 			@RequestParam(name = "type", defaultValue = "posts") String rawType,
 			@RequestParam(name = "page", defaultValue = "0") @Min(0) int page,
-			@RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(50) int size
+			@RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(50) int size,
+			@RequestParam(name = "total", required = false) Boolean total,
+			@RequestParam(name = "lang", required = false) String language
 	) {
 		String type = normalizeType(rawType);
 		UUID userId = requireUserId(jwt);
+		// Por defecto solo se cuenta en la primera pagina; las siguientes reutilizan ese total.
+		boolean withTotal = total != null ? total : page == 0;
 
 		if (type.equals("users")) {
-			Page<User> users = socialSearchService.searchUsersPage(query, page, size);
-			List<SearchResultItemResponse> items = users.getContent().stream().map(user -> {
-				SocialSearchService.UserAggregates aggregates = socialSearchService.getUserAggregates(user.getId());
+			SocialSearchService.SearchPage<User> users = socialSearchService.searchUsersPage(query, page, size, withTotal);
+			Map<UUID, SocialSearchService.UserAggregates> aggregatesByUser = socialSearchService.getUserAggregates(
+					users.items().stream().map(User::getId).toList()
+			);
+			List<SearchResultItemResponse> items = users.items().stream().map(user -> {
+				SocialSearchService.UserAggregates aggregates = aggregatesByUser.get(user.getId());
 				return new SearchResultItemResponse(
 						user.getId().toString(),
 						"user",
@@ -82,46 +93,51 @@ public class SearchController {
 				);
 			}).toList();
 
-			return new SearchResultsPageResponse(
-					query,
-					type,
-					items,
-					users.getNumber(),
-					users.getSize(),
-					users.getTotalElements(),
-					users.getTotalPages()
-			);
+			return toResponse(query, type, items, users);
 		}
 
-		Page<Post> posts = socialSearchService.searchPostsPage(query, page, size);
-		Set<UUID> postIds = posts.getContent().stream().map(Post::getId).collect(java.util.stream.Collectors.toSet());
+		// Los ids pueden venir de SearchResultCache: contadores y likedByMe se resuelven siempre aqui, en lote.
+		SocialSearchService.SearchPage<PostSummary> posts = socialSearchService.searchPostsPage(query, page, size, withTotal, userId, language);
+		List<UUID> postIds = posts.items().stream().map(PostSummary::id).toList();
 		Set<UUID> likedPostIds = socialPostService.findLikedPostIds(userId, postIds);
+		Map<UUID, SocialPostService.PostCounters> countersByPost = socialPostService.getPostCounters(postIds);
 
-		List<SearchResultItemResponse> items = posts.getContent().stream().map(post -> {
-			SocialPostService.PostCounters counters = socialPostService.getPostCounters(post.getId());
+		List<SearchResultItemResponse> items = posts.items().stream().map(post -> {
+			SocialPostService.PostCounters counters = countersByPost.getOrDefault(post.id(), NO_COUNTERS);
 			return new SearchResultItemResponse(
-					post.getId().toString(),
+					post.id().toString(),
 					"post",
-					post.getContent(),
-					post.getAuthorDisplayName(),
-					post.getAuthor().getId().toString(),
-					post.getCreatedAt(),
+					post.content(),
+					post.authorDisplayName(),
+					post.authorId().toString(),
+					post.createdAt(),
 					0,
 					counters.likes(),
 					counters.views(),
 					counters.comments(),
-					likedPostIds.contains(post.getId())
+					likedPostIds.contains(post.id())
 			);
 		}).toList();
 
+		return toResponse(query, type, items, posts);
+	}
+
+	private SearchResultsPageResponse toResponse(
+			String query,
+			String type,
+			List<SearchResultItemResponse> items,
+			SocialSearchService.SearchPage<?> page
+	) {
 		return new SearchResultsPageResponse(
 				query,
 				type,
 				items,
-				posts.getNumber(),
-				posts.getSize(),
-				posts.getTotalElements(),
-				posts.getTotalPages()
+				page.page(),
+				page.size(),
+				page.total(),
+				page.totalPages(),
+				page.hasNext(),
+				page.totalExact()
 		);
 	}
 
@@ -0,0 +1,197 @@
+package com.stelut.demostracion.social;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+import com.stelut.demostracion.user.UserRegisteredEvent;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+
+// Cache por nodo de /api/v1/search/results para las consultas calientes: guarda solo los ids en orden de ranking
+// y el total (nada del viewer); contadores y likedByMe se aplican en cada peticion.
+// Admision por frecuencia (TinyLFU simplificado): una consulta entra cuando se ha pedido al menos ADMIT_AFTER veces
+// y, con la cache llena, solo si es mas frecuente que la victima LRU. TTL corto y, ademas, se invalidan las entradas
+// cuyos terminos aparecen en un post nuevo (local o por relay) o en el email de un usuario nuevo.
+@Component
+public class SearchResultCache {
+
+	public static final String TYPE_POSTS = "posts";
+	public static final String TYPE_USERS = "users";
+
+	private static final int ADMIT_AFTER = 2;
+	// Prefijo comun a la consulta y al texto del post para invalidar: cubre like, lexemas de fts y tokens de bm25.
+	private static final int STEM_LENGTH = 4;
+	private static final int SKETCH_DEPTH = 4;
+
+	// withTotal: la misma pagina con y sin count son entradas distintas.
+	public record Key(String type, String query, String variant, int page, int size, boolean withTotal) {
+	}
+
+	public record CachedPage(List<UUID> ids, boolean hasNext, long total, boolean totalExact) {
+
+		static <T> CachedPage of(SocialSearchService.SearchPage<T> page, Function<T, UUID> id) {
+			return new CachedPage(page.items().stream().map(id).toList(), page.hasNext(), page.total(), page.totalExact());
+		}
+	}
+
+	private record Entry(CachedPage page, List<String> stems, long expiresAt) {
+	}
+
+	private final SocialMetrics metrics;
+	private final boolean enabled;
+	private final long ttlMillis;
+	private final int maxEntries;
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final int[][] sketch;
+	private final int sketchMask;
+	private final int resetAfter;
+	private int additions;
+	private long generation;
+
+	public SearchResultCache(SocialMetrics metrics, SocialAsyncProperties properties) {
+		int maxEntries = properties.searchCacheMaxEntries();
+		this.metrics = metrics;
+		this.enabled = properties.searchCacheEnabled() && maxEntries > 0;
+		this.ttlMillis = properties.searchCacheTtl().toMillis();
+		this.maxEntries = maxEntries;
+		int width = Integer.highestOneBit(Math.max(64, maxEntries * 4) - 1) << 1;
+		this.sketch = new int[SKETCH_DEPTH][width];
+		this.sketchMask = width - 1;
+		// Envejecimiento: cada 10 x ancho accesos se dividen los contadores a la mitad.
+		this.resetAfter = width * 10;
+	}
+
+	@PostConstruct
+	void init() {
+		metrics.searchCacheEntries(this::size);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// Cuenta el acceso para la admision aunque no haya entrada.
+	public Optional<CachedPage> get(Key key) {
+		if (!enabled) {
+			return Optional.empty();
+		}
+		synchronized (this) {
+			increment(key);
+			Entry entry = entries.get(key);
+			if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+				metrics.searchCache(key.type(), true);
+				return Optional.of(entry.page());
+			}
+			if (entry != null) {
+				entries.remove(key);
+			}
+		}
+		metrics.searchCache(key.type(), false);
+		return Optional.empty();
+	}
+
+	// Tomar antes de ejecutar la consulta y pasarlo a put: si hubo invalidaciones entre medias, no se guarda.
+	public synchronized long stamp() {
+		return generation;
+	}
+
+	public void put(Key key, CachedPage page, long stamp) {
+		if (!enabled) {
+			return;
+		}
+		List<String> stems = TextAnalyzer.terms(key.query()).stream().map(SearchResultCache::stem).distinct().toList();
+		synchronized (this) {
+			if (stamp != generation) {
+				return;
+			}
+			int frequency = frequency(key);
+			if (frequency < ADMIT_AFTER) {
+				return;
+			}
+			if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+				Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+				Map.Entry<Key, Entry> victim = eldest.next();
+				if (victim.getValue().expiresAt() > System.currentTimeMillis() && frequency(victim.getKey()) >= frequency) {
+					return;
+				}
+				eldest.remove();
+			}
+			entries.put(key, new Entry(page, stems, System.currentTimeMillis() + ttlMillis));
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		invalidate(TYPE_POSTS, event.post().content() + " " + event.post().authorDisplayName());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onUserRegistered(UserRegisteredEvent event) {
+		invalidate(TYPE_USERS, event.email());
+	}
+
+	private void invalidate(String type, String text) {
+		if (!enabled) {
+			return;
+		}
+		String folded = String.join(" ", TextAnalyzer.terms(text));
+		synchronized (this) {
+			generation++;
+			entries.entrySet().removeIf(entry -> entry.getKey().type().equals(type)
+					&& entry.getValue().stems().stream().anyMatch(folded::contains));
+		}
+	}
+
+	private synchronized int size() {
+		return entries.size();
+	}
+
+	private void increment(Key key) {
+		int hash = spread(key.hashCode());
+		for (int row = 0; row < SKETCH_DEPTH; row++) {
+			sketch[row][index(hash, row)]++;
+		}
+		if (++additions >= resetAfter) {
+			additions = 0;
+			for (int[] counters : sketch) {
+				for (int i = 0; i < counters.length; i++) {
+					counters[i] >>>= 1;
+				}
+			}
+		}
+	}
+
+	private int frequency(Key key) {
+		int hash = spread(key.hashCode());
+		int min = Integer.MAX_VALUE;
+		for (int row = 0; row < SKETCH_DEPTH; row++) {
+			min = Math.min(min, sketch[row][index(hash, row)]);
+		}
+		return min;
+	}
+
+	private int index(int hash, int row) {
+		return spread(hash + row * 0x9E3779B9) & sketchMask;
+	}
+
+	private static int spread(int value) {
+		int h = value * 0x85EBCA6B;
+		return h ^ (h >>> 16);
+	}
+
+	private static String stem(String term) {
+		return term.substring(0, Math.min(STEM_LENGTH, term.length())).toLowerCase(Locale.ROOT);
+	}
+}
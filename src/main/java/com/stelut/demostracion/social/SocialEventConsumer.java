@@ -1,5 +1,6 @@
 package com.stelut.demostracion.social;
 
+import com.stelut.demostracion.social.event.InteractionPersistedEvent;
 import com.stelut.demostracion.social.event.SocialEvent;
 import com.stelut.demostracion.social.event.SocialEventType;
 import com.stelut.demostracion.social.metrics.SocialMetrics;
@@ -7,6 +8,7 @@ import com.stelut.demostracion.social.metrics.SocialMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
@@ -21,18 +23,24 @@ public class SocialEventConsumer {
 	private final PostLikeRepository postLikeRepository;
 	private final PostViewRepository postViewRepository;
 	private final PostCommentRepository postCommentRepository;
+	private final AuthorStatsService authorStatsService;
 	private final SocialMetrics metrics;
+	private final ApplicationEventPublisher eventPublisher;
 
 	public SocialEventConsumer(
 			PostLikeRepository postLikeRepository,
 			PostViewRepository postViewRepository,
 			PostCommentRepository postCommentRepository,
-			SocialMetrics metrics
+			AuthorStatsService authorStatsService,
+			SocialMetrics metrics,
+			ApplicationEventPublisher eventPublisher
 	) {
 		this.postLikeRepository = postLikeRepository;
 		this.postViewRepository = postViewRepository;
 		this.postCommentRepository = postCommentRepository;
+		this.authorStatsService = authorStatsService;
 		this.metrics = metrics;
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Transactional
@@ -41,20 +49,28 @@ public class SocialEventConsumer {
 		try {
 			metrics.kafkaConsumed(event.type().name());
 			if (event.type() == SocialEventType.LIKE) {
-				postLikeRepository.insertIgnore(
+				int inserted = postLikeRepository.insertIgnore(
 						event.eventId(),
 						event.postId(),
 						event.userId(),
 						event.occurredAt()
 				);
+				if (inserted > 0) {
+					authorStatsService.interactionPersisted(event.postId(), SocialEventType.LIKE);
+					persisted(event);
+				}
 				return;
 			}
 
 			if (event.type() == SocialEventType.UNLIKE) {
-				postLikeRepository.deleteByPostIdAndUserId(
+				int deleted = postLikeRepository.deleteByPostIdAndUserId(
 						event.postId(),
 						event.userId()
 				);
+				if (deleted > 0) {
+					authorStatsService.interactionPersisted(event.postId(), SocialEventType.UNLIKE);
+					persisted(event);
+				}
 				return;
 			}
 
@@ -65,21 +81,32 @@ public class SocialEventConsumer {
 						event.userId(),
 						event.occurredAt()
 				);
+				authorStatsService.interactionPersisted(event.postId(), SocialEventType.VIEW);
+				persisted(event);
 				return;
 			}
 
 			if (event.type() == SocialEventType.COMMENT) {
-				postCommentRepository.insertIgnore(
+				int inserted = postCommentRepository.insertIgnore(
 						event.commentId(),
 						event.postId(),
 						event.userId(),
 						event.commentContent(),
 						event.occurredAt()
 				);
+				if (inserted > 0) {
+					authorStatsService.interactionPersisted(event.postId(), SocialEventType.COMMENT);
+					persisted(event);
+				}
 			}
 		} catch (DataAccessException ex) {
 			metrics.kafkaDbError(event.type().name());
 			log.warn("kafka event skipped eventId={} type={} reason={}", event.eventId(), event.type(), ex.getMessage());
 		}
 	}
+
+	// EngagementRollupAccumulator lo apunta dentro de la transaccion del listener: si se deshace, no cuenta.
+	private void persisted(SocialEvent event) {
+		eventPublisher.publishEvent(new InteractionPersistedEvent(event.postId(), event.userId(), event.type(), event.occurredAt()));
+	}
 }
@@ -1,6 +1,11 @@
 package com.stelut.demostracion.social;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.stelut.demostracion.social.config.SocialAsyncProperties;
 import com.stelut.demostracion.social.event.SocialEvent;
@@ -45,4 +50,40 @@ public class SocialEventPublisher {
 			return false;
 		}
 	}
+
+	// Envia todos los eventos sin esperar uno a uno (el productor los agrupa en lotes) y espera una sola vez
+	// con el mismo timeout. Devuelve, por posicion, si cada evento quedo encolado.
+	public boolean[] publishAll(List<SocialEvent> events) {
+		boolean[] queued = new boolean[events.size()];
+		if (!properties.asyncEnabled() || events.isEmpty()) {
+			return queued;
+		}
+		List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+		for (SocialEvent event : events) {
+			try {
+				sends.add(kafkaTemplate.send(properties.kafkaTopic(), event.postId().toString(), event));
+			} catch (RuntimeException ex) {
+				sends.add(CompletableFuture.failedFuture(ex));
+			}
+		}
+		try {
+			CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+					.get(properties.kafkaSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException ex) {
+			log.warn("kafka batch publish incomplete events={} reason={}", events.size(), ex.getMessage());
+		}
+		for (int i = 0; i < events.size(); i++) {
+			SocialEvent event = events.get(i);
+			CompletableFuture<?> send = sends.get(i);
+			queued[i] = send.isDone() && !send.isCompletedExceptionally();
+			if (queued[i]) {
+				metrics.kafkaPublished(event.type().name());
+			} else {
+				metrics.kafkaFailed(event.type().name());
+			}
+		}
+		return queued;
+	}
 }
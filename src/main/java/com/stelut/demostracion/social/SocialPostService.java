@@ -1,25 +1,42 @@
 package com.stelut.demostracion.social;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+import com.stelut.demostracion.social.event.InteractionPersistedEvent;
+import com.stelut.demostracion.social.event.PostInteractionEvent;
 import com.stelut.demostracion.social.event.SocialEvent;
+import com.stelut.demostracion.social.event.SocialEventType;
 import com.stelut.demostracion.social.metrics.SocialMetrics;
 import com.stelut.demostracion.user.User;
 import com.stelut.demostracion.user.UserRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -29,20 +46,30 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @Transactional
 public class SocialPostService {
 
-	public record CommentSnapshot(
-			UUID id,
-			UUID postId,
-			UUID userId,
-			String userDisplayName,
-			String content,
-			Instant createdAt,
-			Instant updatedAt
-	) {
+	public record PostCounters(long likes, long views, long comments) {
 	}
 
-	public record PostCounters(long likes, long views, long comments) {
+	public record FeedSlice(List<PostSummary> posts, FeedCursor nextCursor) {
+	}
+
+	public enum InteractionStatus {
+		ACCEPTED, DUPLICATE, NOT_FOUND, UNSUPPORTED
+	}
+
+	public record InteractionCommand(UUID postId, SocialEventType type) {
+	}
+
+	public record InteractionOutcome(UUID postId, SocialEventType type, InteractionStatus status) {
 	}
 
+	public record CommentSlice(List<CommentSnapshot> comments, FeedCursor nextCursor) {
+	}
+
+	private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+	private static final Comparator<CommentSnapshot> NEWEST_COMMENT_FIRST = Comparator
+			.comparing(CommentSnapshot::createdAt, Comparator.reverseOrder())
+			.thenComparing(CommentSnapshot::id, Comparator.reverseOrder());
+
 	private final PostRepository postRepository;
 	private final PostLikeRepository postLikeRepository;
 	private final PostViewRepository postViewRepository;
@@ -52,6 +79,12 @@ public class SocialPostService {
 	private final SocialEventPublisher socialEventPublisher;
 	private final SocialAsyncProperties socialAsyncProperties;
 	private final SocialMetrics metrics;
+	private final FeedHeadRing feedHeadRing;
+	private final TrendingService trendingService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final AuthorStatsService authorStatsService;
+	private final RecentCommentsCache recentCommentsCache;
+	private final TransactionTemplate readOnlyTx;
 
 	public SocialPostService(
 			PostRepository postRepository,
@@ -62,7 +95,13 @@ public class SocialPostService {
 			SocialStatsCacheService socialStatsCacheService,
 			SocialEventPublisher socialEventPublisher,
 			SocialAsyncProperties socialAsyncProperties,
-			SocialMetrics metrics
+			SocialMetrics metrics,
+			FeedHeadRing feedHeadRing,
+			TrendingService trendingService,
+			ApplicationEventPublisher eventPublisher,
+			AuthorStatsService authorStatsService,
+			RecentCommentsCache recentCommentsCache,
+			PlatformTransactionManager transactionManager
 	) {
 		this.postRepository = postRepository;
 		this.postLikeRepository = postLikeRepository;
@@ -73,6 +112,13 @@ public class SocialPostService {
 		this.socialEventPublisher = socialEventPublisher;
 		this.socialAsyncProperties = socialAsyncProperties;
 		this.metrics = metrics;
+		this.feedHeadRing = feedHeadRing;
+		this.trendingService = trendingService;
+		this.eventPublisher = eventPublisher;
+		this.authorStatsService = authorStatsService;
+		this.recentCommentsCache = recentCommentsCache;
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
 	}
 
 	public Post createPost(UUID authorId, String authorDisplayName, String content) {
@@ -85,9 +131,11 @@ public class SocialPostService {
 
 		Post post = new Post(UUID.randomUUID(), author, resolvedDisplayName, content);
 		Post saved = postRepository.save(post);
+		authorStatsService.postCreated(authorId);
 
 		socialStatsCacheService.markPostExists(saved.getId());
 		socialStatsCacheService.setStats(saved.getId(), 0, 0, 0);
+		eventPublisher.publishEvent(new PostCreatedEvent(PostSummary.of(saved), false));
 
 		return saved;
 	}
@@ -96,7 +144,9 @@ public class SocialPostService {
 		ensurePostKnown(postId);
 
 		if (!socialAsyncProperties.asyncEnabled()) {
-			persistLike(postId, userId, Instant.now(), true);
+			if (persistLike(postId, userId, Instant.now(), true)) {
+				interactionApplied(postId, SocialEventType.LIKE);
+			}
 			metrics.dbFallback("like");
 			return;
 		}
@@ -105,6 +155,7 @@ public class SocialPostService {
 		if (Boolean.FALSE.equals(shouldPublish)) {
 			return;
 		}
+		interactionApplied(postId, SocialEventType.LIKE);
 
 		boolean queued = socialEventPublisher.publish(SocialEvent.like(postId, userId));
 		if (!queued) {
@@ -117,7 +168,9 @@ public class SocialPostService {
 		ensurePostKnown(postId);
 
 		if (!socialAsyncProperties.asyncEnabled()) {
-			persistUnlike(postId, userId, true);
+			if (persistUnlike(postId, userId, true)) {
+				interactionApplied(postId, SocialEventType.UNLIKE);
+			}
 			metrics.dbFallback("unlike");
 			return;
 		}
@@ -126,6 +179,7 @@ public class SocialPostService {
 		if (Boolean.FALSE.equals(shouldPublish)) {
 			return;
 		}
+		interactionApplied(postId, SocialEventType.UNLIKE);
 
 		boolean queued = socialEventPublisher.publish(SocialEvent.unlike(postId, userId));
 		if (!queued) {
@@ -136,6 +190,7 @@ public class SocialPostService {
 
 	public void registerView(UUID postId, UUID userId) {
 		ensurePostKnown(postId);
+		interactionApplied(postId, SocialEventType.VIEW);
 
 		if (!socialAsyncProperties.asyncEnabled()) {
 			persistView(postId, userId, Instant.now(), true);
@@ -152,6 +207,80 @@ public class SocialPostService {
 		}
 	}
 
+	// Lote de impresiones/likes/unlikes de un usuario: existencia validada en bloque (SMISMEMBER + un select),
+	// vistas agregadas en un pipeline y todos los eventos enviados juntos a Kafka. Los comentarios no entran aqui.
+	public List<InteractionOutcome> applyInteractions(UUID userId, List<InteractionCommand> commands) {
+		Set<UUID> existing = existingPosts(commands.stream()
+				.filter(command -> command.postId() != null)
+				.map(InteractionCommand::postId)
+				.collect(Collectors.toSet()));
+		boolean async = socialAsyncProperties.asyncEnabled();
+		InteractionStatus[] statuses = new InteractionStatus[commands.size()];
+		List<SocialEvent> events = new ArrayList<>();
+		Map<UUID, Long> viewsByPost = new HashMap<>();
+		Instant now = Instant.now();
+
+		for (int i = 0; i < commands.size(); i++) {
+			InteractionCommand command = commands.get(i);
+			UUID postId = command.postId();
+			if (command.type() == null || command.type() == SocialEventType.COMMENT) {
+				statuses[i] = InteractionStatus.UNSUPPORTED;
+				continue;
+			}
+			if (!existing.contains(postId)) {
+				statuses[i] = InteractionStatus.NOT_FOUND;
+				continue;
+			}
+			if (!async) {
+				boolean applied = persistInteraction(postId, userId, command.type(), now, true);
+				metrics.dbFallback(command.type().name().toLowerCase());
+				statuses[i] = applied ? InteractionStatus.ACCEPTED : InteractionStatus.DUPLICATE;
+				if (applied) {
+					interactionApplied(postId, command.type());
+				}
+				continue;
+			}
+
+			Boolean fresh = switch (command.type()) {
+				case LIKE -> socialStatsCacheService.registerLike(postId, userId);
+				case UNLIKE -> socialStatsCacheService.unregisterLike(postId, userId);
+				default -> {
+					viewsByPost.merge(postId, 1L, Long::sum);
+					yield true;
+				}
+			};
+			if (Boolean.FALSE.equals(fresh)) {
+				statuses[i] = InteractionStatus.DUPLICATE;
+				continue;
+			}
+			statuses[i] = InteractionStatus.ACCEPTED;
+			interactionApplied(postId, command.type());
+			events.add(switch (command.type()) {
+				case LIKE -> SocialEvent.like(postId, userId);
+				case UNLIKE -> SocialEvent.unlike(postId, userId);
+				default -> SocialEvent.view(postId, userId);
+			});
+		}
+
+		if (async) {
+			socialStatsCacheService.registerViews(viewsByPost);
+			boolean[] queued = socialEventPublisher.publishAll(events);
+			for (int i = 0; i < events.size(); i++) {
+				if (!queued[i]) {
+					SocialEvent event = events.get(i);
+					persistInteraction(event.postId(), userId, event.type(), event.occurredAt(), false);
+					metrics.dbFallback(event.type().name().toLowerCase());
+				}
+			}
+		}
+
+		List<InteractionOutcome> outcomes = new ArrayList<>(commands.size());
+		for (int i = 0; i < commands.size(); i++) {
+			outcomes.add(new InteractionOutcome(commands.get(i).postId(), commands.get(i).type(), statuses[i]));
+		}
+		return outcomes;
+	}
+
 	public CommentSnapshot addComment(UUID postId, UUID userId, String content) {
 		ensurePostKnown(postId);
 		String userDisplayName = userRepository.findById(userId)
@@ -160,14 +289,18 @@ public class SocialPostService {
 
 		Instant now = Instant.now();
 		UUID commentId = UUID.randomUUID();
+		CommentSnapshot snapshot = new CommentSnapshot(commentId, postId, userId, userDisplayName, content, now, now);
+		interactionApplied(postId, SocialEventType.COMMENT);
 
 		if (!socialAsyncProperties.asyncEnabled()) {
 			persistComment(postId, userId, commentId, content, now, true);
+			recentCommentsCache.push(snapshot);
 			metrics.dbFallback("comment");
-			return new CommentSnapshot(commentId, postId, userId, userDisplayName, content, now, now);
+			return snapshot;
 		}
 
 		socialStatsCacheService.registerComment(postId);
+		recentCommentsCache.push(snapshot);
 
 		boolean queued = socialEventPublisher.publish(SocialEvent.comment(postId, userId, commentId, content, now));
 		if (!queued) {
@@ -175,7 +308,7 @@ public class SocialPostService {
 			metrics.dbFallback("comment");
 		}
 
-		return new CommentSnapshot(commentId, postId, userId, userDisplayName, content, now, now);
+		return snapshot;
 	}
 
 	@Transactional(readOnly = true)
@@ -184,24 +317,55 @@ public class SocialPostService {
 				.orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "post not found"));
 	}
 
+	// SUPPORTS: si la pagina sale de FeedHeadRing no se abre transaccion ni se toca la BBDD;
+	// el fallback a SQL va en una transaccion de solo lectura (readOnlyTx).
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public Page<PostSummary> getFeed(Pageable pageable) {
+		Pageable resolved = pageable == null ? PageRequest.ofSize(20).withSort(NEWEST_FIRST) : pageable;
+		if (NEWEST_FIRST.equals(resolved.getSort())) {
+			Optional<List<PostSummary>> head = feedHeadRing.page(resolved.getPageNumber(), resolved.getPageSize());
+			if (head.isPresent()) {
+				return new PageImpl<>(head.get(), resolved, feedHeadRing.totalPosts());
+			}
+		}
+		return readOnlyTx.execute(status -> postRepository.findFeedPage(resolved));
+	}
+
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public FeedSlice getFeedAfter(FeedCursor cursor, int size) {
+		List<PostSummary> rows = feedHeadRing.after(cursor, size + 1).orElseGet(() -> readOnlyTx.execute(status -> cursor == null
+				? postRepository.findFeedHead(PageRequest.ofSize(size + 1))
+				: postRepository.findFeedAfter(cursor.createdAt(), cursor.id(), PageRequest.ofSize(size + 1))));
+		if (rows.size() <= size) {
+			return new FeedSlice(rows, null);
+		}
+		List<PostSummary> posts = rows.subList(0, size);
+		return new FeedSlice(posts, FeedCursor.of(posts.get(size - 1)));
+	}
+
 	@Transactional(readOnly = true)
-	public Page<Post> getFeed(Pageable pageable) {
-		if (pageable == null) {
-			Pageable fallback = PageRequest.ofSize(20).withSort(Sort.by(Sort.Direction.DESC, "createdAt"));
-			return postRepository.findAll(fallback);
+	public List<PostSummary> getTrending(int limit) {
+		List<UUID> rankedIds = trendingService.topPostIds(limit);
+		if (rankedIds.isEmpty()) {
+			return feedHeadRing.page(0, limit)
+					.orElseGet(() -> postRepository.findFeedHead(PageRequest.ofSize(limit)));
 		}
-		return postRepository.findAll(pageable);
+		return inRequestedOrder(rankedIds, postRepository.findSummariesByIdIn(rankedIds));
+	}
+
+	// Orden de la peticion; los ids inexistentes se omiten.
+	@Transactional(readOnly = true)
+	public List<PostSummary> getPostSummaries(Collection<UUID> postIds) {
+		List<UUID> ids = postIds.stream().distinct().toList();
+		return inRequestedOrder(ids, postRepository.findSummariesByIdIn(ids));
 	}
 
 	@Transactional(readOnly = true)
-	public List<Post> findRecentPostsByAuthor(UUID authorId, int limit) {
+	public List<PostSummary> findRecentPostsByAuthor(UUID authorId, int limit) {
 		if (limit <= 0) {
 			return List.of();
 		}
-		return postRepository.findByAuthorIdOrderByCreatedAtDesc(authorId)
-				.stream()
-				.limit(limit)
-				.toList();
+		return postRepository.findRecentByAuthor(authorId, PageRequest.ofSize(limit));
 	}
 
 	@Transactional(readOnly = true)
@@ -209,18 +373,34 @@ public class SocialPostService {
 		if (!postRepository.existsById(postId)) {
 			throw new ResponseStatusException(NOT_FOUND, "post not found");
 		}
-		return postCommentRepository.findByPostIdOrderByCreatedAtAsc(
+		return postCommentRepository.findSnapshotPage(
 				postId,
 				pageable == null ? PageRequest.ofSize(50) : pageable
-		).map(comment -> new CommentSnapshot(
-			comment.getId(),
-			comment.getPost().getId(),
-			comment.getUser().getId(),
-			comment.getUser().getEmail(),
-			comment.getContent(),
-			comment.getCreatedAt(),
-			comment.getUpdatedAt()
-		));
+		);
+	}
+
+	// Mas nuevos primero. La primera pagina sale de la lista de Redis (incluye comentarios aun en Kafka)
+	// y, si no basta, se completa con la BBDD deduplicando por id.
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public CommentSlice getCommentsBefore(UUID postId, FeedCursor cursor, int size) {
+		List<CommentSnapshot> rows;
+		if (cursor != null) {
+			rows = postCommentRepository.findBefore(postId, cursor.createdAt(), cursor.id(), PageRequest.ofSize(size + 1));
+		} else {
+			List<CommentSnapshot> cached = recentCommentsCache.latest(postId, size + 1);
+			rows = cached.size() > size
+					? cached
+					: mergeNewestFirst(cached, postCommentRepository.findLatest(postId, PageRequest.ofSize(size + 1)), size + 1);
+		}
+		if (rows.isEmpty()) {
+			requirePostExists(postId);
+		}
+		if (rows.size() <= size) {
+			return new CommentSlice(rows, null);
+		}
+		List<CommentSnapshot> comments = rows.subList(0, size);
+		CommentSnapshot last = comments.get(size - 1);
+		return new CommentSlice(comments, new FeedCursor(last.createdAt(), last.id()));
 	}
 
 	@Transactional(readOnly = true)
@@ -247,6 +427,36 @@ public class SocialPostService {
 		return new PostCounters(likes, views, comments);
 	}
 
+	// Version por lotes: un pipeline a Redis y, para los fallos, una sola consulta que ademas descarta ids inexistentes.
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public Map<UUID, PostCounters> getPostCounters(Collection<UUID> postIds) {
+		List<UUID> ids = postIds.stream().distinct().toList();
+		Map<UUID, SocialStatsCacheService.CachedStats> stats = new HashMap<>(socialStatsCacheService.getStats(ids));
+
+		List<UUID> misses = ids.stream().filter(id -> !stats.containsKey(id)).toList();
+		if (!misses.isEmpty()) {
+			Map<UUID, SocialStatsCacheService.CachedStats> loaded = new HashMap<>();
+			for (PostRepository.PostCountersProjection row : postRepository.findCountersByIdIn(misses)) {
+				loaded.put(row.getPostId(), new SocialStatsCacheService.CachedStats(
+						row.getLikes().longValue(),
+						row.getViews().longValue(),
+						row.getComments().longValue()
+				));
+			}
+			socialStatsCacheService.setStats(loaded);
+			stats.putAll(loaded);
+		}
+
+		Map<UUID, PostCounters> counters = new LinkedHashMap<>();
+		for (UUID id : ids) {
+			SocialStatsCacheService.CachedStats value = stats.get(id);
+			if (value != null) {
+				counters.put(id, new PostCounters(value.likes(), value.views(), value.comments()));
+			}
+		}
+		return counters;
+	}
+
 	public long countLikes(UUID postId) {
 		return getPostCounters(postId).likes();
 	}
@@ -259,6 +469,42 @@ public class SocialPostService {
 		return getPostCounters(postId).comments();
 	}
 
+	public void requirePostExists(UUID postId) {
+		if (socialStatsCacheService.isPostKnown(postId)) {
+			return;
+		}
+		if (!postRepository.existsById(postId)) {
+			throw new ResponseStatusException(NOT_FOUND, "post not found");
+		}
+		socialStatsCacheService.markPostExists(postId);
+	}
+
+	private Set<UUID> existingPosts(Set<UUID> postIds) {
+		if (postIds.isEmpty()) {
+			return Set.of();
+		}
+		Set<UUID> existing = new HashSet<>(socialStatsCacheService.knownPosts(postIds));
+		List<UUID> unknown = postIds.stream().filter(id -> !existing.contains(id)).toList();
+		if (!unknown.isEmpty()) {
+			List<UUID> found = postRepository.findExistingIds(unknown);
+			socialStatsCacheService.markPostsExist(found);
+			existing.addAll(found);
+		}
+		return existing;
+	}
+
+	private boolean persistInteraction(UUID postId, UUID userId, SocialEventType type, Instant at, boolean updateCache) {
+		return switch (type) {
+			case LIKE -> persistLike(postId, userId, at, updateCache);
+			case UNLIKE -> persistUnlike(postId, userId, updateCache);
+			case VIEW -> {
+				persistView(postId, userId, at, updateCache);
+				yield true;
+			}
+			case COMMENT -> throw new IllegalArgumentException("comments are not batched");
+		};
+	}
+
 	private void ensurePostKnown(UUID postId) {
 		if (!socialStatsCacheService.isEnabled()) {
 			return;
@@ -272,22 +518,59 @@ public class SocialPostService {
 		socialStatsCacheService.markPostExists(postId);
 	}
 
-	private void persistLike(UUID postId, UUID userId, Instant at, boolean updateCache) {
+	private static List<CommentSnapshot> mergeNewestFirst(List<CommentSnapshot> cached, List<CommentSnapshot> stored, int limit) {
+		if (cached.isEmpty()) {
+			return stored;
+		}
+		Map<UUID, CommentSnapshot> byId = new LinkedHashMap<>();
+		cached.forEach(comment -> byId.put(comment.id(), comment));
+		stored.forEach(comment -> byId.putIfAbsent(comment.id(), comment));
+		return byId.values().stream().sorted(NEWEST_COMMENT_FIRST).limit(limit).toList();
+	}
+
+	private static List<PostSummary> inRequestedOrder(List<UUID> ids, List<PostSummary> rows) {
+		Map<UUID, PostSummary> byId = rows.stream().collect(Collectors.toMap(PostSummary::id, Function.identity()));
+		return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+	}
+
+	// Los listeners (trending, etc.) corren tras el commit; sin transaccion se ejecutan en el acto.
+	private void interactionApplied(UUID postId, SocialEventType type) {
+		eventPublisher.publishEvent(new PostInteractionEvent(postId, type));
+	}
+
+	// Series de analytics: EngagementRollupAccumulator lo apunta antes del commit, en esta misma transaccion.
+	private void interactionPersisted(UUID postId, UUID userId, SocialEventType type, Instant at) {
+		eventPublisher.publishEvent(new InteractionPersistedEvent(postId, userId, type, at));
+	}
+
+	private boolean persistLike(UUID postId, UUID userId, Instant at, boolean updateCache) {
 		int inserted = postLikeRepository.insertIgnore(UUID.randomUUID(), postId, userId, at);
+		if (inserted > 0) {
+			authorStatsService.interactionPersisted(postId, SocialEventType.LIKE);
+			interactionPersisted(postId, userId, SocialEventType.LIKE, at);
+		}
 		if (inserted > 0 && updateCache) {
 			socialStatsCacheService.registerLike(postId, userId);
 		}
+		return inserted > 0;
 	}
 
-	private void persistUnlike(UUID postId, UUID userId, boolean updateCache) {
+	private boolean persistUnlike(UUID postId, UUID userId, boolean updateCache) {
 		int deleted = postLikeRepository.deleteByPostIdAndUserId(postId, userId);
+		if (deleted > 0) {
+			authorStatsService.interactionPersisted(postId, SocialEventType.UNLIKE);
+			interactionPersisted(postId, userId, SocialEventType.UNLIKE, Instant.now());
+		}
 		if (deleted > 0 && updateCache) {
 			socialStatsCacheService.unregisterLike(postId, userId);
 		}
+		return deleted > 0;
 	}
 
 	private void persistView(UUID postId, UUID userId, Instant at, boolean updateCache) {
 		postViewRepository.upsertView(UUID.randomUUID(), postId, userId, at);
+		authorStatsService.interactionPersisted(postId, SocialEventType.VIEW);
+		interactionPersisted(postId, userId, SocialEventType.VIEW, at);
 		if (updateCache) {
 			socialStatsCacheService.registerView(postId);
 		}
@@ -295,6 +578,10 @@ public class SocialPostService {
 
 	private void persistComment(UUID postId, UUID userId, UUID commentId, String content, Instant at, boolean updateCache) {
 		int inserted = postCommentRepository.insertIgnore(commentId, postId, userId, content, at);
+		if (inserted > 0) {
+			authorStatsService.interactionPersisted(postId, SocialEventType.COMMENT);
+			interactionPersisted(postId, userId, SocialEventType.COMMENT, at);
+		}
 		if (inserted > 0 && updateCache) {
 			socialStatsCacheService.registerComment(postId);
 		}
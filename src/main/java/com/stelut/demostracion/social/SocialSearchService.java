@@ -1,64 +1,131 @@
 package com.stelut.demostracion.social;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
 import com.stelut.demostracion.social.dto.SearchSuggestionItemResponse;
 import com.stelut.demostracion.user.User;
 import com.stelut.demostracion.user.UserRepository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 @Service
 @Transactional(readOnly = true)
 public class SocialSearchService {
 
+	private static final String ENGINE_FULL_TEXT = "fts";
+	private static final String TOTALS_EXACT = "exact";
+	private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
 	private final PostRepository postRepository;
-	private final PostLikeRepository postLikeRepository;
-	private final PostCommentRepository postCommentRepository;
-	private final PostViewRepository postViewRepository;
 	private final UserRepository userRepository;
+	private final AuthorStatsService authorStatsService;
+	private final SuggestionIndex suggestionIndex;
+	private final PostSearchEngine postSearchEngine;
+	private final SearchResultCache searchResultCache;
+	private final String searchEngine;
+	private final boolean exactTotals;
+	private final int totalCap;
+	private final double recencyHalfLifeSeconds;
+	private final String userSimilarityThreshold;
+	private final TransactionTemplate readOnlyTx;
 
 	public SocialSearchService(
 			PostRepository postRepository,
-			PostLikeRepository postLikeRepository,
-			PostCommentRepository postCommentRepository,
-			PostViewRepository postViewRepository,
-			UserRepository userRepository
+			UserRepository userRepository,
+			AuthorStatsService authorStatsService,
+			SuggestionIndex suggestionIndex,
+			PostSearchEngine postSearchEngine,
+			SearchResultCache searchResultCache,
+			PlatformTransactionManager transactionManager,
+			SocialAsyncProperties properties
 	) {
 		this.postRepository = postRepository;
-		this.postLikeRepository = postLikeRepository;
-		this.postCommentRepository = postCommentRepository;
-		this.postViewRepository = postViewRepository;
 		this.userRepository = userRepository;
+		this.authorStatsService = authorStatsService;
+		this.suggestionIndex = suggestionIndex;
+		this.postSearchEngine = postSearchEngine;
+		this.searchResultCache = searchResultCache;
+		this.searchEngine = properties.searchEngine().trim().toLowerCase(Locale.ROOT);
+		this.exactTotals = TOTALS_EXACT.equals(properties.searchTotalMode().trim().toLowerCase(Locale.ROOT));
+		this.totalCap = properties.searchTotalCap();
+		this.recencyHalfLifeSeconds = properties.searchRecencyHalfLife().toSeconds();
+		this.userSimilarityThreshold = Double.toString(properties.userSearchSimilarityThreshold());
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
 	}
 
-	public List<SearchSuggestionItemResponse> searchPosts(String rawQuery, int limit) {
+	// language: "es"/"en" explicito o null para usar el preferred_language del viewer (solo se consulta con fts).
+	// SUPPORTS: con el indice en memoria listo no se abre transaccion ni se pide conexion; la BBDD es el fallback.
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public List<SearchSuggestionItemResponse> searchPosts(String rawQuery, int limit, UUID viewerId, String language) {
 		String query = normalizeQuery(rawQuery);
 		if (query.isEmpty()) {
 			return List.of();
 		}
-		return postRepository.searchSuggestions(query, PageRequest.of(0, limit)).stream()
+		return suggestionIndex.searchPosts(query, limit)
+				.orElseGet(() -> readOnlyTx.execute(status -> searchPostsInDatabase(query, limit, viewerId, language)));
+	}
+
+	private List<SearchSuggestionItemResponse> searchPostsInDatabase(String query, int limit, UUID viewerId, String language) {
+		List<PostSummary> posts;
+		if (isFullTextEnabled()) {
+			String prefixQuery = toPrefixQuery(query);
+			if (prefixQuery.isEmpty()) {
+				return List.of();
+			}
+			List<UUID> ids = postRepository.searchIdsByPrefix(
+					textSearchConfig(viewerId, language),
+					prefixQuery,
+					recencyHalfLifeSeconds,
+					PageRequest.of(0, limit)
+			);
+			posts = inRankOrder(ids, postRepository.findSummariesByIdIn(ids));
+		} else {
+			posts = postRepository.searchSuggestions(query, PageRequest.of(0, limit)).stream()
+					.map(PostSummary::of)
+					.toList();
+		}
+		return posts.stream()
 				.map(post -> new SearchSuggestionItemResponse(
-						post.getId().toString(),
+						post.id().toString(),
 						"post",
-						shorten(post.getContent(), 120),
-						"by " + post.getAuthorDisplayName()
+						shorten(post.content(), 120),
+						"by " + post.authorDisplayName()
 				))
 				.toList();
 	}
 
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
 	public List<SearchSuggestionItemResponse> searchUsers(String rawQuery, int limit) {
 		String query = normalizeQuery(rawQuery);
 		if (query.isEmpty()) {
 			return List.of();
 		}
-		return userRepository.searchSuggestionsByEmail(query, PageRequest.of(0, limit)).stream()
+		return suggestionIndex.searchUsers(query, limit)
+				.orElseGet(() -> readOnlyTx.execute(status -> searchUsersInDatabase(query, limit)));
+	}
+
+	private List<SearchSuggestionItemResponse> searchUsersInDatabase(String query, int limit) {
+		userRepository.applyWordSimilarityThreshold(userSimilarityThreshold);
+		return userRepository.searchSuggestionsByEmail(query.toLowerCase(Locale.ROOT), PageRequest.of(0, limit)).stream()
 				.map(user -> new SearchSuggestionItemResponse(
 						user.getId().toString(),
 						"user",
@@ -68,30 +135,144 @@ public class SocialSearchService {
 				.toList();
 	}
 
-	public Page<Post> searchPostsPage(String rawQuery, int page, int size) {
+	// Con la cache caliente solo se hidratan los ids por PK; el ranking y el count no se repiten.
+	// withTotal=false: sin count aunque haya pagina siguiente (el cliente reutiliza el total de la primera pagina).
+	public SearchPage<PostSummary> searchPostsPage(
+			String rawQuery,
+			int page,
+			int size,
+			boolean withTotal,
+			UUID viewerId,
+			String language
+	) {
 		String query = normalizeQuery(rawQuery);
 		if (query.isEmpty()) {
-			return Page.empty();
+			return SearchPage.empty(page, size);
 		}
-		PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-		return postRepository.searchResults(query, pageable);
+		String config = isFullTextEnabled() ? textSearchConfig(viewerId, language) : "";
+		SearchResultCache.Key key = new SearchResultCache.Key(
+				SearchResultCache.TYPE_POSTS,
+				query.toLowerCase(Locale.ROOT),
+				config,
+				page,
+				size,
+				withTotal
+		);
+		Optional<SearchResultCache.CachedPage> cached = searchResultCache.get(key);
+		if (cached.isPresent()) {
+			SearchResultCache.CachedPage hit = cached.get();
+			List<PostSummary> posts = inRankOrder(hit.ids(), postRepository.findSummariesByIdIn(hit.ids()));
+			return new SearchPage<>(posts, page, size, hit.hasNext(), hit.total(), hit.totalExact());
+		}
+		long stamp = searchResultCache.stamp();
+		SearchPage<PostSummary> result = searchPostsUncached(query, PageRequest.of(page, size), withTotal, config);
+		searchResultCache.put(key, SearchResultCache.CachedPage.of(result, PostSummary::id), stamp);
+		return result;
 	}
 
-	public Page<User> searchUsersPage(String rawQuery, int page, int size) {
+	private SearchPage<PostSummary> searchPostsUncached(String query, PageRequest pageable, boolean withTotal, String config) {
+		if (postSearchEngine.isEnabled()) {
+			// Hasta que el indice local termina de cargar se cae a la busqueda por like.
+			// El total del indice sale gratis del scoring: siempre exacto.
+			Optional<PostSearchEngine.SearchHits> hits = postSearchEngine.search(query, pageable.getPageNumber(), pageable.getPageSize());
+			if (hits.isPresent()) {
+				List<UUID> ids = hits.get().postIds();
+				long total = hits.get().total();
+				return new SearchPage<>(
+						inRankOrder(ids, postRepository.findSummariesByIdIn(ids)),
+						pageable.getPageNumber(),
+						pageable.getPageSize(),
+						total > pageable.getOffset() + pageable.getPageSize(),
+						total,
+						true
+				);
+			}
+		}
+		if (isFullTextEnabled()) {
+			Slice<UUID> ids = postRepository.searchIdsFullText(config, query, recencyHalfLifeSeconds, pageable);
+			List<PostSummary> posts = inRankOrder(ids.getContent(), postRepository.findSummariesByIdIn(ids.getContent()));
+			return toSearchPage(ids, posts, withTotal, limit -> postRepository.countFullText(config, query, limit));
+		}
+		Slice<PostSummary> posts = postRepository.searchResults(query, pageable);
+		return toSearchPage(posts, posts.getContent(), withTotal, limit -> postRepository.countSearchResults(query, limit));
+	}
+
+	public SearchPage<User> searchUsersPage(String rawQuery, int page, int size, boolean withTotal) {
 		String query = normalizeQuery(rawQuery);
 		if (query.isEmpty()) {
-			return Page.empty();
+			return SearchPage.empty(page, size);
+		}
+		String lowered = query.toLowerCase(Locale.ROOT);
+		SearchResultCache.Key key = new SearchResultCache.Key(SearchResultCache.TYPE_USERS, lowered, "", page, size, withTotal);
+		Optional<SearchResultCache.CachedPage> cached = searchResultCache.get(key);
+		if (cached.isPresent()) {
+			SearchResultCache.CachedPage hit = cached.get();
+			Map<UUID, User> byId = userRepository.findAllById(hit.ids()).stream()
+					.collect(Collectors.toMap(User::getId, Function.identity()));
+			List<User> users = hit.ids().stream().map(byId::get).filter(Objects::nonNull).toList();
+			return new SearchPage<>(users, page, size, hit.hasNext(), hit.total(), hit.totalExact());
+		}
+		long stamp = searchResultCache.stamp();
+		userRepository.applyWordSimilarityThreshold(userSimilarityThreshold);
+		Slice<User> users = userRepository.searchResultsByEmail(lowered, PageRequest.of(page, size));
+		SearchPage<User> result = toSearchPage(users, users.getContent(), withTotal, limit -> userRepository.countByEmailMatch(lowered, limit));
+		searchResultCache.put(key, SearchResultCache.CachedPage.of(result, User::getId), stamp);
+		return result;
+	}
+
+	// Sin siguiente pagina el total se deduce de la propia pagina. Si la hay, count exacto o acotado a totalCap:
+	// por encima del tope se devuelve totalCap con totalExact=false ("1000+"). Sin withTotal no se cuenta y el
+	// total es el minimo que se conoce (hasta el primero de la pagina siguiente) con totalExact=false.
+	private <T> SearchPage<T> toSearchPage(Slice<?> slice, List<T> items, boolean withTotal, LongUnaryOperator count) {
+		int page = slice.getNumber();
+		int size = slice.getSize();
+		if (!slice.hasNext() && (!slice.getContent().isEmpty() || page == 0)) {
+			return new SearchPage<>(items, page, size, false, (long) page * size + slice.getNumberOfElements(), true);
+		}
+		if (!withTotal) {
+			long known = (long) page * size + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+			return new SearchPage<>(items, page, size, slice.hasNext(), known, false);
 		}
-		PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-		return userRepository.searchResultsByEmail(query, pageable);
+		if (exactTotals) {
+			return new SearchPage<>(items, page, size, slice.hasNext(), count.applyAsLong(Long.MAX_VALUE), true);
+		}
+		long counted = count.applyAsLong(totalCap + 1L);
+		return counted > totalCap
+				? new SearchPage<>(items, page, size, slice.hasNext(), totalCap, false)
+				: new SearchPage<>(items, page, size, slice.hasNext(), counted, true);
 	}
 
 	public UserAggregates getUserAggregates(UUID userId) {
-		long posts = postRepository.countByAuthorId(userId);
-		long likes = postLikeRepository.countReceivedByAuthorId(userId);
-		long comments = postCommentRepository.countReceivedByAuthorId(userId);
-		long views = postViewRepository.sumViewsReceivedByAuthorId(userId);
-		return new UserAggregates(posts, likes, comments, views);
+		return authorStatsService.getAggregates(List.of(userId)).get(userId);
+	}
+
+	// Una pagina de usuarios: un pipeline a Redis y, para los fallos, un unico select sobre author_stats.
+	public Map<UUID, UserAggregates> getUserAggregates(Collection<UUID> userIds) {
+		return authorStatsService.getAggregates(userIds);
+	}
+
+	public boolean isFullTextEnabled() {
+		return ENGINE_FULL_TEXT.equals(searchEngine);
+	}
+
+	private String textSearchConfig(UUID viewerId, String language) {
+		String resolved = StringUtils.hasText(language)
+				? language
+				: userRepository.findPreferredLanguageById(viewerId).orElse("es");
+		return resolved.trim().toLowerCase(Locale.ROOT).startsWith("en") ? "english" : "spanish";
+	}
+
+	// "hola mun" -> "hola:* & mun:*"; solo letras y digitos, asi el texto del usuario no llega crudo a to_tsquery.
+	private static String toPrefixQuery(String query) {
+		return TOKEN_SEPARATOR.splitAsStream(query.toLowerCase(Locale.ROOT))
+				.filter(token -> !token.isEmpty())
+				.map(token -> token + ":*")
+				.collect(Collectors.joining(" & "));
+	}
+
+	private static List<PostSummary> inRankOrder(List<UUID> ids, List<PostSummary> rows) {
+		Map<UUID, PostSummary> byId = rows.stream().collect(Collectors.toMap(PostSummary::id, Function.identity()));
+		return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
 	}
 
 	private String normalizeQuery(String rawQuery) {
@@ -110,4 +291,18 @@ public class SocialSearchService {
 
 	public record UserAggregates(long posts, long likes, long comments, long views) {
 	}
+
+	// Pagina de busqueda sin count obligatorio: hasNext siempre es exacto; total puede ser un minimo (totalExact=false).
+	public record SearchPage<T>(List<T> items, int page, int size, boolean hasNext, long total, boolean totalExact) {
+
+		static <T> SearchPage<T> empty(int page, int size) {
+			return new SearchPage<>(List.of(), page, size, false, 0, true);
+		}
+
+		// Con total aproximado, al menos hasta la pagina siguiente si la hay.
+		public int totalPages() {
+			int fromTotal = (int) Math.min(Integer.MAX_VALUE, (total + size - 1) / size);
+			return Math.max(fromTotal, hasNext ? page + 2 : (items.isEmpty() ? 0 : page + 1));
+		}
+	}
 }
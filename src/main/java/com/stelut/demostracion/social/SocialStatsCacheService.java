@@ -1,7 +1,12 @@
 package com.stelut.demostracion.social;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import com.stelut.demostracion.social.config.SocialAsyncProperties;
@@ -9,6 +14,8 @@ import com.stelut.demostracion.social.metrics.SocialMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
@@ -51,6 +58,45 @@ public class SocialStatsCacheService {
 		}
 	}
 
+	// SMISMEMBER: los ids que devuelve son los que Redis ya conoce.
+	public Set<UUID> knownPosts(Collection<UUID> postIds) {
+		if (!isEnabled() || postIds.isEmpty()) {
+			return Set.of();
+		}
+		try {
+			Map<Object, Boolean> members = redis.opsForSet().isMember(
+					POSTS_SET_KEY,
+					postIds.stream().map(UUID::toString).toArray()
+			);
+			Set<UUID> known = new HashSet<>();
+			if (members != null) {
+				members.forEach((member, present) -> {
+					if (Boolean.TRUE.equals(present)) {
+						known.add(UUID.fromString(member.toString()));
+					}
+				});
+			}
+			return known;
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis knownPosts failed posts={}", postIds.size(), ex);
+			return Set.of();
+		}
+	}
+
+	public void markPostsExist(Collection<UUID> postIds) {
+		if (!isEnabled() || postIds.isEmpty()) {
+			return;
+		}
+		try {
+			redis.opsForSet().add(POSTS_SET_KEY, postIds.stream().map(UUID::toString).toArray(String[]::new));
+			applyTtl(POSTS_SET_KEY, properties.redisPostsTtl());
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis markPostsExist failed posts={}", postIds.size(), ex);
+		}
+	}
+
 	public boolean isPostKnown(UUID postId) {
 		if (!isEnabled()) {
 			return false;
@@ -126,6 +172,29 @@ public class SocialStatsCacheService {
 		}
 	}
 
+	// Vistas agrupadas por post en un pipeline de HINCRBY.
+	public void registerViews(Map<UUID, Long> viewsByPost) {
+		if (!isEnabled() || viewsByPost.isEmpty()) {
+			return;
+		}
+		try {
+			redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					viewsByPost.forEach((postId, views) -> {
+						operations.opsForHash().increment(statsKey(postId), FIELD_VIEWS, views);
+						operations.expire(statsKey(postId), properties.redisStatsTtl());
+					});
+					return null;
+				}
+			});
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis registerViews failed posts={}", viewsByPost.size(), ex);
+		}
+	}
+
 	public void registerComment(UUID postId) {
 		if (!isEnabled()) {
 			return;
@@ -162,6 +231,69 @@ public class SocialStatsCacheService {
 		}
 	}
 
+	// Un solo round-trip (pipeline de HGETALL); los posts sin hash en Redis no aparecen en el resultado.
+	public Map<UUID, CachedStats> getStats(List<UUID> postIds) {
+		if (!isEnabled() || postIds.isEmpty()) {
+			return Map.of();
+		}
+		try {
+			List<Object> rows = redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					for (UUID postId : postIds) {
+						operations.opsForHash().entries(statsKey(postId));
+					}
+					return null;
+				}
+			});
+			Map<UUID, CachedStats> cached = new HashMap<>();
+			for (int i = 0; i < postIds.size(); i++) {
+				if (rows.get(i) instanceof Map<?, ?> raw && !raw.isEmpty()) {
+					metrics.redisCacheHit();
+					cached.put(postIds.get(i), new CachedStats(
+							parseLong(raw.get(FIELD_LIKES)),
+							parseLong(raw.get(FIELD_VIEWS)),
+							parseLong(raw.get(FIELD_COMMENTS))
+					));
+				} else {
+					metrics.redisCacheMiss();
+				}
+			}
+			return cached;
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis getStats batch failed posts={}", postIds.size(), ex);
+			return Map.of();
+		}
+	}
+
+	public void setStats(Map<UUID, CachedStats> statsByPost) {
+		if (!isEnabled() || statsByPost.isEmpty()) {
+			return;
+		}
+		try {
+			redis.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) {
+					statsByPost.forEach((postId, stats) -> {
+						operations.opsForHash().putAll(statsKey(postId), Map.of(
+								FIELD_LIKES, Long.toString(stats.likes()),
+								FIELD_VIEWS, Long.toString(stats.views()),
+								FIELD_COMMENTS, Long.toString(stats.comments())
+						));
+						operations.expire(statsKey(postId), properties.redisStatsTtl());
+					});
+					return null;
+				}
+			});
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis setStats batch failed posts={}", statsByPost.size(), ex);
+		}
+	}
+
 	public void setStats(UUID postId, long likes, long views, long comments) {
 		if (!isEnabled()) {
 			return;
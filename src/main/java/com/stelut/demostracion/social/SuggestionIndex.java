@@ -0,0 +1,194 @@
+package com.stelut.demostracion.social;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.dto.SearchSuggestionItemResponse;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+import com.stelut.demostracion.user.User;
+import com.stelut.demostracion.user.UserRegisteredEvent;
+import com.stelut.demostracion.user.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+
+// Indice de autocompletado en memoria por nodo (posts por contenido y autor, usuarios por email).
+// Se construye en segundo plano al arrancar y despues se alimenta de PostCreatedEvent (local o por relay),
+// UserRegisteredEvent y un barrido periodico de usuarios nuevos registrados en otros nodos.
+// Acotado a max-posts posts y max-users usuarios: cada alta expulsa la entrada mas antigua.
+// Mientras no esta listo, las sugerencias siguen saliendo de la BBDD.
+@Component
+public class SuggestionIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(SuggestionIndex.class);
+	private static final int TOP_K = 10;
+	private static final int MAX_DEPTH = 12;
+	private static final int BATCH_SIZE = 1000;
+	// Solape del barrido: un alta en otro nodo puede llevar un created_at algo anterior al ultimo visto aqui.
+	private static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+
+	private final PostRepository postRepository;
+	private final UserRepository userRepository;
+	private final SocialMetrics metrics;
+	private final boolean enabled;
+	private final int maxPosts;
+	private final PrefixIndex posts;
+	private final PrefixIndex users;
+	private volatile boolean ready;
+	private volatile Instant usersWatermark = Instant.EPOCH;
+
+	public SuggestionIndex(
+			PostRepository postRepository,
+			UserRepository userRepository,
+			SocialMetrics metrics,
+			SocialAsyncProperties properties
+	) {
+		this.postRepository = postRepository;
+		this.userRepository = userRepository;
+		this.metrics = metrics;
+		this.enabled = properties.suggestionsIndexEnabled();
+		this.maxPosts = properties.suggestionsIndexMaxPosts();
+		this.posts = new PrefixIndex(TOP_K, MAX_DEPTH, maxPosts);
+		this.users = new PrefixIndex(TOP_K, MAX_DEPTH, properties.suggestionsIndexMaxUsers());
+	}
+
+	@PostConstruct
+	void init() {
+		metrics.suggestionIndex("post", posts::size, posts::nodeCount, posts::estimatedBytes);
+		metrics.suggestionIndex("user", users::size, users::nodeCount, users::estimatedBytes);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildOnStartup() {
+		if (enabled) {
+			Thread.ofVirtual().name("suggestion-index-build").start(this::build);
+		}
+	}
+
+	// Top-k ya calculado en el nodo del prefijo: sin BBDD. Vacio si el indice no esta listo
+	// o no puede dar la respuesta completa.
+	public Optional<List<SearchSuggestionItemResponse>> searchPosts(String query, int limit) {
+		return ready ? posts.search(query, limit) : Optional.empty();
+	}
+
+	public Optional<List<SearchSuggestionItemResponse>> searchUsers(String query, int limit) {
+		return ready ? users.search(query, limit) : Optional.empty();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		if (enabled) {
+			addPost(event.post());
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onUserRegistered(UserRegisteredEvent event) {
+		if (enabled) {
+			addUser(event.userId().toString(), event.email(), event.createdAt());
+		}
+	}
+
+	@Scheduled(
+			initialDelayString = "${app.social.suggestions-sync-interval:PT30S}",
+			fixedDelayString = "${app.social.suggestions-sync-interval:PT30S}"
+	)
+	public void syncUsers() {
+		if (!ready) {
+			return;
+		}
+		try {
+			userRepository.findByCreatedAtAfterOrderByCreatedAtAsc(usersWatermark.minus(SYNC_OVERLAP)).forEach(this::addUser);
+		} catch (RuntimeException ex) {
+			log.warn("suggestion index user sync failed reason={}", ex.getMessage());
+		}
+	}
+
+	private void build() {
+		long started = System.nanoTime();
+		try {
+			FeedCursor cursor = null;
+			int loaded = 0;
+			while (loaded < maxPosts) {
+				PageRequest batch = PageRequest.ofSize(Math.min(BATCH_SIZE, maxPosts - loaded));
+				List<PostSummary> rows = cursor == null
+						? postRepository.findFeedHead(batch)
+						: postRepository.findFeedAfter(cursor.createdAt(), cursor.id(), batch);
+				rows.forEach(this::addPost);
+				loaded += rows.size();
+				if (rows.size() < batch.getPageSize()) {
+					break;
+				}
+				cursor = FeedCursor.of(rows.get(rows.size() - 1));
+			}
+			if (loaded >= maxPosts) {
+				posts.markTruncated();
+			}
+
+			Slice<User> page = userRepository.scanAll(PageRequest.of(0, BATCH_SIZE, Sort.by("createdAt", "id")));
+			page.forEach(this::addUser);
+			while (page.hasNext()) {
+				page = userRepository.scanAll(page.nextPageable());
+				page.forEach(this::addUser);
+			}
+
+			ready = true;
+			log.info(
+					"suggestion index ready posts={} users={} nodes={} estimatedBytes={} tookMs={}",
+					posts.size(),
+					users.size(),
+					posts.nodeCount() + users.nodeCount(),
+					posts.estimatedBytes() + users.estimatedBytes(),
+					(System.nanoTime() - started) / 1_000_000
+			);
+		} catch (RuntimeException ex) {
+			log.warn("suggestion index build failed, suggestions stay on the database reason={}", ex.getMessage());
+		}
+	}
+
+	private void addPost(PostSummary post) {
+		posts.add(
+				new SearchSuggestionItemResponse(
+						post.id().toString(),
+						"post",
+						shorten(post.content(), 120),
+						"by " + post.authorDisplayName()
+				),
+				post.createdAt().toEpochMilli(),
+				post.content(),
+				post.authorDisplayName()
+		);
+	}
+
+	private void addUser(User user) {
+		addUser(user.getId().toString(), user.getEmail(), user.getCreatedAt());
+	}
+
+	private void addUser(String id, String email, Instant createdAt) {
+		users.add(new SearchSuggestionItemResponse(id, "user", email, ""), createdAt.toEpochMilli(), email);
+		if (createdAt.isAfter(usersWatermark)) {
+			usersWatermark = createdAt;
+		}
+	}
+
+	private static String shorten(String value, int maxLen) {
+		if (value == null || value.length() <= maxLen) {
+			return value;
+		}
+		return value.substring(0, maxLen - 1) + "…";
+	}
+}
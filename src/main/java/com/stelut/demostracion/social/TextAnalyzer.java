@@ -0,0 +1,27 @@
+package com.stelut.demostracion.social;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Tokenizacion comun de los indices en memoria: minusculas, sin acentos, cortando por lo que no sea letra o digito.
+final class TextAnalyzer {
+
+	private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+	private TextAnalyzer() {
+	}
+
+	// Con repeticiones (las necesita BM25 para la frecuencia del termino).
+	static List<String> terms(String text) {
+		if (text == null || text.isBlank()) {
+			return List.of();
+		}
+		String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		return TOKEN_SEPARATOR.splitAsStream(folded.toLowerCase(Locale.ROOT))
+				.filter(token -> !token.isEmpty())
+				.toList();
+	}
+}
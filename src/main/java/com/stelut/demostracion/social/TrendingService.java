@@ -0,0 +1,165 @@
+package com.stelut.demostracion.social;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.event.PostInteractionEvent;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Ranking "trending" con decaimiento exponencial (forward decay) en un ZSET de Redis.
+// Cada interaccion suma weight * e^(lambda * (now - epoch)); ordenar por score equivale a ordenar por
+// sum(weight * e^(-lambda * edad)). Cada cierto tiempo se renormaliza (score *= e^(-lambda * (now - epoch)))
+// y se mueve el epoch a now para que los scores no crezcan sin limite.
+// Un unlike resta el like con el factor de ahora, mayor que el que tuvo el like: el score se recorta a 0
+// para que no quede negativo y las interacciones siguientes vuelvan a contar desde ahi.
+@Service
+public class TrendingService {
+
+	private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+	private static final String TRENDING_KEY = "social:trending:posts";
+	private static final String EPOCH_KEY = "social:trending:epoch";
+	private static final double MIN_SCORE = 0.01D;
+
+	private static final RedisScript<String> INCREMENT_SCRIPT = RedisScript.of("""
+			local epoch = tonumber(redis.call('GET', KEYS[2]))
+			if not epoch then
+			  epoch = tonumber(ARGV[3])
+			  redis.call('SET', KEYS[2], ARGV[3])
+			end
+			local lambda = math.log(2) / tonumber(ARGV[4])
+			local delta = tonumber(ARGV[2]) * math.exp(lambda * (tonumber(ARGV[3]) - epoch))
+			local score = tonumber(redis.call('ZINCRBY', KEYS[1], delta, ARGV[1]))
+			if score < 0 then
+			  redis.call('ZADD', KEYS[1], 0, ARGV[1])
+			  return '0'
+			end
+			return tostring(score)
+			""", String.class);
+
+	private static final RedisScript<Long> RENORMALIZE_SCRIPT = RedisScript.of("""
+			local epoch = tonumber(redis.call('GET', KEYS[2]))
+			local now = tonumber(ARGV[1])
+			if not epoch or now <= epoch then
+			  return 0
+			end
+			local lambda = math.log(2) / tonumber(ARGV[2])
+			local factor = math.exp(-lambda * (now - epoch))
+			redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', factor)
+			redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[3])
+			redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[4]) + 1))
+			redis.call('SET', KEYS[2], ARGV[1])
+			return 1
+			""", Long.class);
+
+	private final StringRedisTemplate redis;
+	private final SocialStatsCacheService socialStatsCacheService;
+	private final SocialMetrics metrics;
+	private final Duration halfLife;
+	private final int maxSize;
+
+	public TrendingService(
+			StringRedisTemplate redis,
+			SocialStatsCacheService socialStatsCacheService,
+			SocialMetrics metrics,
+			SocialAsyncProperties properties
+	) {
+		this.redis = redis;
+		this.socialStatsCacheService = socialStatsCacheService;
+		this.metrics = metrics;
+		this.halfLife = properties.trendingHalfLife();
+		this.maxSize = properties.trendingMaxSize();
+	}
+
+	public boolean isEnabled() {
+		return socialStatsCacheService.isEnabled();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onInteraction(PostInteractionEvent event) {
+		double weight = switch (event.type()) {
+			case LIKE -> 3D;
+			case UNLIKE -> -3D;
+			case COMMENT -> 5D;
+			case VIEW -> 1D;
+		};
+		record(event.postId(), weight);
+	}
+
+	public void record(UUID postId, double weight) {
+		if (!isEnabled()) {
+			return;
+		}
+		try {
+			redis.execute(
+					INCREMENT_SCRIPT,
+					List.of(TRENDING_KEY, EPOCH_KEY),
+					postId.toString(),
+					Double.toString(weight),
+					Long.toString(Instant.now().getEpochSecond()),
+					Long.toString(halfLife.toSeconds())
+			);
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis trending record failed postId={}", postId, ex);
+		}
+	}
+
+	// Lectura O(log n + limit) sobre el ZSET.
+	public List<UUID> topPostIds(int limit) {
+		if (!isEnabled()) {
+			return List.of();
+		}
+		try {
+			Set<String> members = redis.opsForZSet().reverseRange(TRENDING_KEY, 0, limit - 1L);
+			if (members == null || members.isEmpty()) {
+				return List.of();
+			}
+			List<UUID> ids = new ArrayList<>(members.size());
+			for (String member : members) {
+				ids.add(UUID.fromString(member));
+			}
+			return ids;
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis trending read failed", ex);
+			return List.of();
+		}
+	}
+
+	// Idempotente entre nodos: el script es atomico y si otro nodo acaba de renormalizar el factor es ~1.
+	@Scheduled(
+			initialDelayString = "${app.social.trending-renormalize-interval:PT1H}",
+			fixedDelayString = "${app.social.trending-renormalize-interval:PT1H}"
+	)
+	public void renormalize() {
+		if (!isEnabled()) {
+			return;
+		}
+		try {
+			redis.execute(
+					RENORMALIZE_SCRIPT,
+					List.of(TRENDING_KEY, EPOCH_KEY),
+					Long.toString(Instant.now().getEpochSecond()),
+					Long.toString(halfLife.toSeconds()),
+					Double.toString(MIN_SCORE),
+					Integer.toString(maxSize)
+			);
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis trending renormalize failed", ex);
+		}
+	}
+}
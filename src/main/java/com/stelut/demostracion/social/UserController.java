@@ -6,9 +6,6 @@ import java.util.UUID;
 
 import com.stelut.demostracion.social.dto.PostResponse;
 import com.stelut.demostracion.social.dto.UserPublicProfileResponse;
-import com.stelut.demostracion.social.mapper.PostMapper;
-import com.stelut.demostracion.user.User;
-import com.stelut.demostracion.user.UserRepository;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -24,21 +21,12 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/api/v1/users")
 public class UserController {
 
-	private final UserRepository userRepository;
-	private final SocialSearchService socialSearchService;
+	private final UserProfileService userProfileService;
 	private final SocialPostService socialPostService;
-	private final PostMapper postMapper;
 
-	public UserController(
-			UserRepository userRepository,
-			SocialSearchService socialSearchService,
-			SocialPostService socialPostService,
-			PostMapper postMapper
-	) {
-		this.userRepository = userRepository;
-		this.socialSearchService = socialSearchService;
+	public UserController(UserProfileService userProfileService, SocialPostService socialPostService) {
+		this.userProfileService = userProfileService;
 		this.socialPostService = socialPostService;
-		this.postMapper = postMapper;
 	}
 
 	@GetMapping("/{userId}")
@@ -48,39 +36,39 @@ public class UserController {
 			@RequestParam(defaultValue = "20") int recentPostsLimit
 	) {
 		UUID currentUserId = requireUserId(jwt);
-		int resolvedLimit = Math.max(1, Math.min(recentPostsLimit, 50));
-
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
+		int resolvedLimit = Math.max(1, Math.min(recentPostsLimit, UserProfileService.MAX_RECENT_POSTS));
 
-		SocialSearchService.UserAggregates aggregates = socialSearchService.getUserAggregates(userId);
-		List<Post> recentPosts = socialPostService.findRecentPostsByAuthor(userId, resolvedLimit);
-		Set<UUID> postIds = recentPosts.stream().map(Post::getId).collect(java.util.stream.Collectors.toSet());
+		UserPublicProfileResponse skeleton = userProfileService.getProfileSkeleton(userId);
+		List<PostResponse> recentPosts = skeleton.recentPosts()
+				.subList(0, Math.min(resolvedLimit, skeleton.recentPosts().size()));
+		Set<UUID> postIds = recentPosts.stream().map(PostResponse::id).collect(java.util.stream.Collectors.toSet());
 		Set<UUID> likedPostIds = socialPostService.findLikedPostIds(currentUserId, postIds);
 
 		List<PostResponse> recentPostResponses = recentPosts.stream()
-				.map(post -> {
-					SocialPostService.PostCounters counters = socialPostService.getPostCounters(post.getId());
-					return postMapper.toPostResponse(
-							post,
-							counters.likes(),
-							counters.views(),
-							counters.comments(),
-							likedPostIds.contains(post.getId())
-					);
-				})
+				.map(post -> new PostResponse(
+						post.id(),
+						post.authorId(),
+						post.authorDisplayName(),
+						post.content(),
+						post.createdAt(),
+						post.updatedAt(),
+						post.likes(),
+						post.views(),
+						post.comments(),
+						likedPostIds.contains(post.id())
+				))
 				.toList();
 
 		return new UserPublicProfileResponse(
-				user.getId(),
-				user.getEmail(),
-				user.getRole().name(),
-				user.getPreferredLanguage(),
-				user.getCreatedAt(),
-				aggregates.posts(),
-				aggregates.likes(),
-				aggregates.comments(),
-				aggregates.views(),
+				skeleton.id(),
+				skeleton.email(),
+				skeleton.role(),
+				skeleton.preferredLanguage(),
+				skeleton.createdAt(),
+				skeleton.posts(),
+				skeleton.likes(),
+				skeleton.comments(),
+				skeleton.views(),
 				recentPostResponses
 		);
 	}
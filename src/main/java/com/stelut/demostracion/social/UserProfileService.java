@@ -0,0 +1,160 @@
+package com.stelut.demostracion.social;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+import com.stelut.demostracion.social.dto.PostResponse;
+import com.stelut.demostracion.social.dto.UserPublicProfileResponse;
+import com.stelut.demostracion.social.event.PostCreatedEvent;
+import com.stelut.demostracion.social.mapper.PostMapper;
+import com.stelut.demostracion.social.metrics.SocialMetrics;
+import com.stelut.demostracion.user.User;
+import com.stelut.demostracion.user.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Perfil publico sin datos del viewer (likedByMe=false), cacheado en Redis con los MAX_RECENT_POSTS posts recientes.
+// Se invalida cuando el autor publica; el resto (contadores, idioma) caduca por TTL.
+@Service
+public class UserProfileService {
+
+	public static final int MAX_RECENT_POSTS = 50;
+
+	private static final Logger log = LoggerFactory.getLogger(UserProfileService.class);
+
+	private final UserRepository userRepository;
+	private final SocialSearchService socialSearchService;
+	private final SocialPostService socialPostService;
+	private final SocialStatsCacheService socialStatsCacheService;
+	private final PostMapper postMapper;
+	private final StringRedisTemplate redis;
+	private final JsonMapper jsonMapper;
+	private final SocialMetrics metrics;
+	private final Duration profileTtl;
+
+	public UserProfileService(
+			UserRepository userRepository,
+			SocialSearchService socialSearchService,
+			SocialPostService socialPostService,
+			SocialStatsCacheService socialStatsCacheService,
+			PostMapper postMapper,
+			StringRedisTemplate redis,
+			JsonMapper jsonMapper,
+			SocialMetrics metrics,
+			SocialAsyncProperties properties
+	) {
+		this.userRepository = userRepository;
+		this.socialSearchService = socialSearchService;
+		this.socialPostService = socialPostService;
+		this.socialStatsCacheService = socialStatsCacheService;
+		this.postMapper = postMapper;
+		this.redis = redis;
+		this.jsonMapper = jsonMapper;
+		this.metrics = metrics;
+		this.profileTtl = properties.redisProfileTtl();
+	}
+
+	// SUPPORTS: un acierto de cache no abre transaccion ni pide conexion a la BBDD.
+	@Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+	public UserPublicProfileResponse getProfileSkeleton(UUID userId) {
+		return readCached(userId).orElseGet(() -> {
+			UserPublicProfileResponse fresh = loadProfile(userId);
+			writeCached(fresh);
+			return fresh;
+		});
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPostCreated(PostCreatedEvent event) {
+		if (event.remote()) {
+			return;
+		}
+		evict(event.post().authorId());
+	}
+
+	public void evict(UUID userId) {
+		if (!socialStatsCacheService.isEnabled()) {
+			return;
+		}
+		try {
+			redis.delete(profileKey(userId));
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis profile evict failed userId={}", userId, ex);
+		}
+	}
+
+	private UserPublicProfileResponse loadProfile(UUID userId) {
+		User user = userRepository.findById(userId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
+
+		SocialSearchService.UserAggregates aggregates = socialSearchService.getUserAggregates(userId);
+		List<PostResponse> recentPosts = socialPostService.findRecentPostsByAuthor(userId, MAX_RECENT_POSTS).stream()
+				.map(post -> {
+					SocialPostService.PostCounters counters = socialPostService.getPostCounters(post.id());
+					return postMapper.toPostResponse(post, counters.likes(), counters.views(), counters.comments(), false);
+				})
+				.toList();
+
+		return new UserPublicProfileResponse(
+				user.getId(),
+				user.getEmail(),
+				user.getRole().name(),
+				user.getPreferredLanguage(),
+				user.getCreatedAt(),
+				aggregates.posts(),
+				aggregates.likes(),
+				aggregates.comments(),
+				aggregates.views(),
+				recentPosts
+		);
+	}
+
+	private Optional<UserPublicProfileResponse> readCached(UUID userId) {
+		if (!socialStatsCacheService.isEnabled()) {
+			return Optional.empty();
+		}
+		try {
+			String raw = redis.opsForValue().get(profileKey(userId));
+			if (raw == null) {
+				metrics.redisCacheMiss();
+				return Optional.empty();
+			}
+			metrics.redisCacheHit();
+			return Optional.of(jsonMapper.readValue(raw, UserPublicProfileResponse.class));
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis profile read failed userId={}", userId, ex);
+			return Optional.empty();
+		}
+	}
+
+	private void writeCached(UserPublicProfileResponse profile) {
+		if (!socialStatsCacheService.isEnabled()) {
+			return;
+		}
+		try {
+			redis.opsForValue().set(profileKey(profile.id()), jsonMapper.writeValueAsString(profile), profileTtl);
+		} catch (RuntimeException ex) {
+			metrics.redisError();
+			log.warn("redis profile write failed userId={}", profile.id(), ex);
+		}
+	}
+
+	private String profileKey(UUID userId) {
+		return "social:user:" + userId + ":profile";
+	}
+}
@@ -5,6 +5,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
@@ -29,4 +31,12 @@ public class SocialAsyncConfig {
 	public KafkaTemplate<String, SocialEvent> socialKafkaTemplate(ProducerFactory<String, SocialEvent> producerFactory) {
 		return new KafkaTemplate<>(producerFactory);
 	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "app.social", name = "redis-enabled", havingValue = "true")
+	public RedisMessageListenerContainer socialRedisListenerContainer(RedisConnectionFactory connectionFactory) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		return container;
+	}
 }
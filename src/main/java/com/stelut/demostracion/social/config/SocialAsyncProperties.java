@@ -1,8 +1,10 @@
 package com.stelut.demostracion.social.config;
 
+import java.nio.file.Path;
 import java.time.Duration;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "app.social")
 public record SocialAsyncProperties(
@@ -12,6 +14,24 @@ public record SocialAsyncProperties(
 		Duration kafkaSendTimeout,
 		Duration redisStatsTtl,
 		Duration redisLikesTtl,
-		Duration redisPostsTtl
+		Duration redisPostsTtl,
+		int feedHeadCapacity,
+		@DefaultValue("PT6H") Duration trendingHalfLife,
+		@DefaultValue("5000") int trendingMaxSize,
+		@DefaultValue("PT30M") Duration streamEmitterTimeout,
+		@DefaultValue("PT60S") Duration redisProfileTtl,
+		@DefaultValue("like") String searchEngine,
+		@DefaultValue("PT720H") Duration searchRecencyHalfLife,
+		@DefaultValue("0.4") double userSearchSimilarityThreshold,
+		@DefaultValue("true") boolean suggestionsIndexEnabled,
+		@DefaultValue("50000") int suggestionsIndexMaxPosts,
+		@DefaultValue("100000") int suggestionsIndexMaxUsers,
+		@DefaultValue("data/search-index") Path searchIndexDir,
+		@DefaultValue("10000") int searchIndexFlushDocs,
+		@DefaultValue("true") boolean searchCacheEnabled,
+		@DefaultValue("PT30S") Duration searchCacheTtl,
+		@DefaultValue("1000") int searchCacheMaxEntries,
+		@DefaultValue("capped") String searchTotalMode,
+		@DefaultValue("1000") int searchTotalCap
 ) {
 }
@@ -0,0 +1,13 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record InteractionBatchRequest(
+		@NotEmpty @Size(max = 200) List<@Valid @NotNull InteractionItemRequest> items
+) {
+}
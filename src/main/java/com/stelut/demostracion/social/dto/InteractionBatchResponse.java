@@ -0,0 +1,9 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.List;
+
+public record InteractionBatchResponse(
+		List<InteractionItemResponse> items,
+		List<PostStatsResponse> stats
+) {
+}
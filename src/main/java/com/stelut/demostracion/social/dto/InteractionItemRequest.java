@@ -0,0 +1,12 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record InteractionItemRequest(
+		@NotNull UUID postId,
+		@NotBlank String type
+) {
+}
@@ -0,0 +1,11 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.UUID;
+
+public record InteractionItemResponse(
+		int index,
+		UUID postId,
+		String type,
+		String status
+) {
+}
@@ -0,0 +1,12 @@
+package com.stelut.demostracion.social.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record NewPostNotificationResponse(
+		UUID postId,
+		UUID authorId,
+		String authorDisplayName,
+		Instant createdAt
+) {
+}
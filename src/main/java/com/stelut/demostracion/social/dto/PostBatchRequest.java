@@ -0,0 +1,13 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record PostBatchRequest(
+		@NotEmpty @Size(max = 100) List<@NotNull UUID> ids
+) {
+}
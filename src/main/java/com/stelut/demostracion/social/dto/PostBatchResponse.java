@@ -0,0 +1,10 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record PostBatchResponse(
+		List<PostResponse> items,
+		List<UUID> missing
+) {
+}
@@ -0,0 +1,11 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.List;
+
+public record PostCommentsCursorResponse(
+		List<PostCommentResponse> items,
+		int size,
+		String nextCursor,
+		boolean hasNext
+) {
+}
@@ -0,0 +1,11 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.UUID;
+
+public record PostStatsDeltaResponse(
+		UUID postId,
+		long likes,
+		long views,
+		long comments
+) {
+}
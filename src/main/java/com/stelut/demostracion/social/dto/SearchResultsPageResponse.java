@@ -2,6 +2,7 @@ package com.stelut.demostracion.social.dto;
 
 import java.util.List;
 
+// totalExact=false: totalElements es un minimo ("1000+"), no un count exacto.
 public record SearchResultsPageResponse(
 		String query,
 		String type,
@@ -9,6 +10,8 @@ public record SearchResultsPageResponse(
 		int page,
 		int size,
 		long totalElements,
-		int totalPages
+		int totalPages,
+		boolean hasNext,
+		boolean totalExact
 ) {
 }
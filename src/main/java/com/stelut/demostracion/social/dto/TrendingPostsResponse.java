@@ -0,0 +1,8 @@
+package com.stelut.demostracion.social.dto;
+
+import java.util.List;
+
+public record TrendingPostsResponse(
+		List<PostResponse> items
+) {
+}
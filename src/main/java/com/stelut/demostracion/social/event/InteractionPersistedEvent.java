@@ -0,0 +1,9 @@
+package com.stelut.demostracion.social.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Interaccion escrita en la BBDD con efecto (ruta sincrona o consumer de Kafka); a diferencia de
+// PostInteractionEvent lleva quien y cuando, para las series de analytics.
+public record InteractionPersistedEvent(UUID postId, UUID userId, SocialEventType type, Instant occurredAt) {
+}
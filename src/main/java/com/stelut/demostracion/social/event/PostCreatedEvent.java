@@ -0,0 +1,7 @@
+package com.stelut.demostracion.social.event;
+
+import com.stelut.demostracion.social.PostSummary;
+
+// remote=true cuando el post llega por el relay de Redis desde otro nodo.
+public record PostCreatedEvent(PostSummary post, boolean remote) {
+}
@@ -0,0 +1,7 @@
+package com.stelut.demostracion.social.event;
+
+import java.util.UUID;
+
+// Interaccion ya contabilizada (like/unlike deduplicados, view, comment) sobre un post.
+public record PostInteractionEvent(UUID postId, SocialEventType type) {
+}
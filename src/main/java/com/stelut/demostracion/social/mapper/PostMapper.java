@@ -1,6 +1,7 @@
 package com.stelut.demostracion.social.mapper;
 
 import com.stelut.demostracion.social.Post;
+import com.stelut.demostracion.social.PostSummary;
 import com.stelut.demostracion.social.dto.PostResponse;
 
 import org.mapstruct.Mapper;
@@ -20,4 +21,16 @@ public interface PostMapper {
 	@Mapping(target = "comments", source = "comments")
 	@Mapping(target = "likedByMe", source = "likedByMe")
 	PostResponse toPostResponse(Post post, long likes, long views, long comments, boolean likedByMe);
+
+	@Mapping(target = "id", source = "post.id")
+	@Mapping(target = "authorId", source = "post.authorId")
+	@Mapping(target = "authorDisplayName", source = "post.authorDisplayName")
+	@Mapping(target = "content", source = "post.content")
+	@Mapping(target = "createdAt", source = "post.createdAt")
+	@Mapping(target = "updatedAt", source = "post.updatedAt")
+	@Mapping(target = "likes", source = "likes")
+	@Mapping(target = "views", source = "views")
+	@Mapping(target = "comments", source = "comments")
+	@Mapping(target = "likedByMe", source = "likedByMe")
+	PostResponse toPostResponse(PostSummary post, long likes, long views, long comments, boolean likedByMe);
 }
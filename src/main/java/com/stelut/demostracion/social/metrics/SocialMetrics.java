@@ -1,7 +1,12 @@
 package com.stelut.demostracion.social.metrics;
 
+import java.time.Duration;
+import java.util.function.Supplier;
+
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import org.springframework.stereotype.Component;
 
@@ -45,4 +50,35 @@ public class SocialMetrics {
 	public void dbFallback(String operation) {
 		registry.counter("social.db.fallback", "operation", operation).increment();
 	}
+
+	public void streamSubscribers(String stream, Supplier<Number> subscribers) {
+		Gauge.builder("social.stream.subscribers", subscribers).tag("stream", stream).register(registry);
+	}
+
+	public void streamDropped(String stream) {
+		registry.counter("social.stream.dropped", "stream", stream).increment();
+	}
+
+	public void streamFanoutLatency(String stream, Duration latency) {
+		Timer.builder("social.stream.fanout.latency").tag("stream", stream).register(registry).record(latency);
+	}
+
+	public void suggestionIndex(String kind, Supplier<Number> entries, Supplier<Number> nodes, Supplier<Number> bytes) {
+		Gauge.builder("social.suggestions.index.entries", entries).tag("kind", kind).register(registry);
+		Gauge.builder("social.suggestions.index.nodes", nodes).tag("kind", kind).register(registry);
+		Gauge.builder("social.suggestions.index.bytes", bytes).tag("kind", kind).baseUnit("bytes").register(registry);
+	}
+
+	public void searchCache(String type, boolean hit) {
+		registry.counter("social.search.cache", "type", type, "result", hit ? "hit" : "miss").increment();
+	}
+
+	public void searchCacheEntries(Supplier<Number> entries) {
+		Gauge.builder("social.search.cache.entries", entries).register(registry);
+	}
+
+	public void searchIndex(Supplier<Number> documents, Supplier<Number> segments) {
+		Gauge.builder("social.search.index.documents", documents).register(registry);
+		Gauge.builder("social.search.index.segments", segments).register(registry);
+	}
 }
@@ -0,0 +1,7 @@
+package com.stelut.demostracion.user;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record UserRegisteredEvent(UUID userId, String email, Instant createdAt) {
+}
@@ -1,11 +1,12 @@
 package com.stelut.demostracion.user;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,16 +16,56 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
 	boolean existsByEmail(String email);
 
-	@Query("""
-			select u from User u
-			where lower(u.email) like lower(concat('%', :query, '%'))
-			order by u.createdAt desc
-			""")
+	@Query("select u from User u")
+	Slice<User> scanAll(Pageable pageable);
+
+	List<User> findByCreatedAtAfterOrderByCreatedAtAsc(Instant createdAt);
+
+	@Query("select u.preferredLanguage from User u where u.id = :id")
+	Optional<String> findPreferredLanguageById(@Param("id") UUID id);
+
+	// Umbral de pg_trgm solo para la transaccion actual (set_config(..., true) == SET LOCAL).
+	@Query(value = "select set_config('pg_trgm.word_similarity_threshold', :threshold, true)", nativeQuery = true)
+	String applyWordSimilarityThreshold(@Param("threshold") String threshold);
+
+	// :query ya viene en minusculas. Primero coincidencias exactas de subcadena, luego por parecido
+	// (tolera erratas); ambas ramas usan idx_users_email_trgm.
+	@Query(
+			value = """
+					select u.* from users u
+					where lower(u.email) like concat('%', :query, '%')
+					   or :query <% lower(u.email)
+					order by (lower(u.email) like concat('%', :query, '%')) desc,
+					         word_similarity(:query, lower(u.email)) desc,
+					         u.created_at desc
+					""",
+			nativeQuery = true
+	)
 	List<User> searchSuggestionsByEmail(@Param("query") String query, Pageable pageable);
 
-	@Query("""
-			select u from User u
-			where lower(u.email) like lower(concat('%', :query, '%'))
-			""")
-	Page<User> searchResultsByEmail(@Param("query") String query, Pageable pageable);
+	@Query(
+			value = """
+					select u.* from users u
+					where lower(u.email) like concat('%', :query, '%')
+					   or :query <% lower(u.email)
+					order by (lower(u.email) like concat('%', :query, '%')) desc,
+					         word_similarity(:query, lower(u.email)) desc,
+					         u.created_at desc
+					""",
+			nativeQuery = true
+	)
+	Slice<User> searchResultsByEmail(@Param("query") String query, Pageable pageable);
+
+	@Query(
+			value = """
+					select count(*) from (
+					    select 1 from users u
+					    where lower(u.email) like concat('%', :query, '%')
+					       or :query <% lower(u.email)
+					    limit :limit
+					) matches
+					""",
+			nativeQuery = true
+	)
+	long countByEmailMatch(@Param("query") String query, @Param("limit") long limit);
 }
@@ -0,0 +1,40 @@
+-- Frecuencia de palabras y sumas de longitud mantenidas al publicar, para que el resumen de analytics
+-- no recorra el texto de todos los posts. Mismo troceado que las consultas anteriores: [A-Za-z0-9]+.
+CREATE TABLE word_counts (
+    word VARCHAR(64) PRIMARY KEY,
+    total BIGINT NOT NULL
+);
+
+CREATE INDEX idx_word_counts_total_word ON word_counts (total DESC, word ASC);
+
+-- Fila unica (id = 1) con las sumas de todas las palabras, sin filtro de longitud ni stopwords.
+CREATE TABLE word_length_stats (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    words BIGINT NOT NULL,
+    characters BIGINT NOT NULL
+);
+
+INSERT INTO word_counts (word, total)
+SELECT lower(w.word), count(*)
+FROM posts p
+CROSS JOIN LATERAL regexp_split_to_table(
+    regexp_replace(coalesce(p.content, ''), '[^A-Za-z0-9]+', ' ', 'g'),
+    '\s+'
+) AS w(word)
+WHERE w.word <> ''
+  AND char_length(w.word) BETWEEN 3 AND 64
+  AND lower(w.word) NOT IN (
+    'the','and','for','that','with','this','from','have','your','you','are','was','but',
+    'una','unas','unos','que','con','para','por','del','las','los','sus','como','pero','sin',
+    'esto','esta','este','muy','mas','uno','todo','toda'
+  )
+GROUP BY lower(w.word);
+
+INSERT INTO word_length_stats (id, words, characters)
+SELECT 1, count(*), coalesce(sum(char_length(w.word)), 0)
+FROM posts p
+CROSS JOIN LATERAL regexp_split_to_table(
+    regexp_replace(coalesce(p.content, ''), '[^A-Za-z0-9]+', ' ', 'g'),
+    '\s+'
+) AS w(word)
+WHERE w.word <> '';
@@ -0,0 +1,30 @@
+-- Series temporales de actividad precalculadas por hora y por dia (granularity = 'hour' | 'day', buckets en UTC).
+-- Se mantienen al persistir cada evento (EngagementRollupAccumulator) y el historico lo siembra
+-- EngagementRollupBackfill con todo lo anterior a cutover_at.
+CREATE TABLE engagement_rollups (
+    granularity VARCHAR(8) NOT NULL CHECK (granularity IN ('hour', 'day')),
+    bucket_start TIMESTAMPTZ NOT NULL,
+    posts BIGINT NOT NULL DEFAULT 0,
+    likes BIGINT NOT NULL DEFAULT 0,
+    views BIGINT NOT NULL DEFAULT 0,
+    comments BIGINT NOT NULL DEFAULT 0,
+    active_users BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start)
+);
+
+-- Usuarios ya contados en active_users de cada bucket reciente; se purga pasado el margen de eventos tardios.
+CREATE TABLE engagement_rollup_users (
+    granularity VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMPTZ NOT NULL,
+    user_id UUID NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, user_id)
+);
+
+-- Fila unica: los eventos anteriores a cutover_at los cuenta el backfill y los posteriores el acumulador.
+CREATE TABLE engagement_rollup_state (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    cutover_at TIMESTAMPTZ NOT NULL,
+    backfilled_at TIMESTAMPTZ
+);
+
+INSERT INTO engagement_rollup_state (id, cutover_at) VALUES (1, NOW());
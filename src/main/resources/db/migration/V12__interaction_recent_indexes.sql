@@ -0,0 +1,4 @@
+-- Refresco incremental del snapshot columnar: posts con likes o views recientes sin recorrer las tablas enteras.
+-- post_comments ya tiene idx_post_comments_created_at (V2).
+CREATE INDEX idx_post_likes_created_at ON post_likes(created_at);
+CREATE INDEX idx_post_views_last_viewed_at ON post_views(last_viewed_at);
@@ -0,0 +1,11 @@
+-- Marca de agua (created_at, id) del ultimo post contado en word_counts / word_length_stats.
+-- WordCountAccumulator cuenta los posts posteriores y avanza la marca en la misma transaccion que los conteos.
+-- Arranca en el momento de la migracion: lo anterior ya lo contaron el backfill de V10 y el acumulador por eventos.
+CREATE TABLE word_count_state (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    counted_created_at TIMESTAMPTZ NOT NULL,
+    counted_id UUID NOT NULL
+);
+
+INSERT INTO word_count_state (id, counted_created_at, counted_id)
+VALUES (1, NOW(), '00000000-0000-0000-0000-000000000000');
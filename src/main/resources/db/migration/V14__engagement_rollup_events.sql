@@ -0,0 +1,11 @@
+-- Eventos de engagement_rollups pendientes de sumar: EngagementRollupAccumulator los inserta en la misma
+-- transaccion que el post o la interaccion y el volcado los borra al sumarlos, asi que una caida no pierde ninguno.
+-- kind: 0 post, 1 like, 2 vista, 3 comentario, -1 solo actividad (unlike).
+CREATE TABLE engagement_rollup_events (
+    id BIGSERIAL PRIMARY KEY,
+    user_id UUID,
+    occurred_at TIMESTAMPTZ NOT NULL,
+    kind SMALLINT NOT NULL CHECK (kind BETWEEN -1 AND 3)
+);
+
+CREATE INDEX idx_engagement_rollup_events_occurred_at ON engagement_rollup_events(occurred_at);
@@ -0,0 +1,2 @@
+-- Keyset del feed: seek sobre (created_at, id) sin OFFSET ni count(*)
+CREATE INDEX IF NOT EXISTS idx_posts_created_at_id ON posts(created_at DESC, id DESC);
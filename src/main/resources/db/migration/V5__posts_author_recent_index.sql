@@ -0,0 +1,2 @@
+-- Posts recientes por autor: LIMIT sobre (author_id, created_at, id) sin leer todo el historico
+CREATE INDEX IF NOT EXISTS idx_posts_author_created_at_id ON posts(author_id, created_at DESC, id DESC);
@@ -0,0 +1,21 @@
+-- Agregados por autor mantenidos de forma incremental (posts publicados y likes/comments/views recibidos)
+CREATE TABLE author_stats (
+    author_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    posts BIGINT NOT NULL DEFAULT 0,
+    likes BIGINT NOT NULL DEFAULT 0,
+    comments BIGINT NOT NULL DEFAULT 0,
+    views BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+INSERT INTO author_stats (author_id, posts, likes, comments, views)
+SELECT p.author_id,
+       count(*),
+       coalesce(sum(l.likes), 0),
+       coalesce(sum(c.comments), 0),
+       coalesce(sum(v.views), 0)
+FROM posts p
+LEFT JOIN (SELECT post_id, count(*) AS likes FROM post_likes GROUP BY post_id) l ON l.post_id = p.id
+LEFT JOIN (SELECT post_id, count(*) AS comments FROM post_comments GROUP BY post_id) c ON c.post_id = p.id
+LEFT JOIN (SELECT post_id, sum(view_count) AS views FROM post_views GROUP BY post_id) v ON v.post_id = p.id
+GROUP BY p.author_id;
@@ -0,0 +1,2 @@
+-- Paginacion por cursor de comentarios: (post_id, created_at DESC, id DESC)
+CREATE INDEX idx_post_comments_post_created_at_id ON post_comments(post_id, created_at DESC, id DESC);
@@ -0,0 +1,10 @@
+-- Busqueda de texto completo en posts: contenido con stemming es/en (peso A) y nombre del autor sin stemming (peso B).
+-- La consulta elige la configuracion segun preferred_language; ambas comparten la misma columna e indice.
+ALTER TABLE posts
+ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('spanish'::regconfig, coalesce(content, '')), 'A')
+    || setweight(to_tsvector('english'::regconfig, coalesce(content, '')), 'A')
+    || setweight(to_tsvector('simple'::regconfig, coalesce(author_display_name, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_posts_search_vector ON posts USING GIN (search_vector);
@@ -0,0 +1,4 @@
+-- Busqueda difusa de usuarios: trigramas sobre lower(email), sirve tanto a LIKE '%q%' como a word_similarity (<%)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_users_email_trgm ON users USING GIN (lower(email) gin_trgm_ops);
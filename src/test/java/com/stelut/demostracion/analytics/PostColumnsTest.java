@@ -0,0 +1,133 @@
+package com.stelut.demostracion.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class PostColumnsTest {
+
+	private static final Instant START = Instant.parse("2026-01-05T00:00:00Z");
+	private static final UUID ANA = UUID.randomUUID();
+	private static final UUID LUIS = UUID.randomUUID();
+
+	// Mas filas que SPLIT_ROWS para que el recorrido se reparta en el pool; un post por minuto desde un lunes.
+	@Test
+	void aggregatesInParallelAcrossSplits() {
+		int posts = PostColumns.SPLIT_ROWS * 3 + 17;
+		PostColumns.Builder builder = new PostColumns.Builder();
+		for (int i = posts - 1; i >= 0; i--) {
+			builder.add(
+					UUID.randomUUID(),
+					START.plusSeconds(i * 60L),
+					i % 3 == 0 ? ANA : LUIS,
+					i % 3 == 0 ? "Ana" : "Luis",
+					i % 2 == 0 ? List.of("playa", "sol", "playa") : List.of("sol"),
+					i % 5,
+					1,
+					0
+			);
+		}
+		PostColumns columns = builder.build(Instant.now());
+		long from = START.getEpochSecond();
+		long to = START.plusSeconds(posts * 60L).getEpochSecond();
+
+		long[] byAuthor = columns.aggregate(new AdhocQuery(AdhocQuery.GroupBy.AUTHOR, AdhocQuery.Metric.POSTS, from, to, -1, -1, 2));
+		assertThat(byAuthor[columns.authorIndexOf(ANA)]).isEqualTo((posts + 2) / 3);
+		assertThat(byAuthor[2]).isEqualTo(posts);
+
+		int playa = columns.wordIndexOf("playa");
+		long[] byWord = columns.aggregate(new AdhocQuery(AdhocQuery.GroupBy.WORD, AdhocQuery.Metric.POSTS, from, to, -1, -1, 2));
+		assertThat(byWord[playa]).isEqualTo((posts + 1) / 2);
+		assertThat(byWord[columns.wordIndexOf("sol")]).isEqualTo(posts);
+
+		long expectedLikes = 0;
+		for (int i = 0; i < posts; i++) {
+			if (i % 3 == 0 && i % 2 == 0) {
+				expectedLikes += i % 5;
+			}
+		}
+		long[] filtered = columns.aggregate(new AdhocQuery(
+				AdhocQuery.GroupBy.WEEKDAY, AdhocQuery.Metric.LIKES, from, to, columns.authorIndexOf(ANA), playa, 7));
+		assertThat(filtered[7]).isEqualTo(expectedLikes);
+	}
+
+	// Mas palabras distintas que huecos iniciales de la tabla de cada trozo: obliga a crecer y a mezclar tablas.
+	@Test
+	void groupsByWordWithManyDistinctWordsAcrossSplits() {
+		int posts = PostColumns.SPLIT_ROWS * 2 + 5;
+		int distinct = 5_000;
+		PostColumns.Builder builder = new PostColumns.Builder();
+		for (int i = posts - 1; i >= 0; i--) {
+			builder.add(UUID.randomUUID(), START.plusSeconds(i), ANA, "Ana", List.of("w" + i % distinct), 0, 0, 0);
+		}
+		PostColumns columns = builder.build(Instant.now());
+		long from = START.getEpochSecond();
+
+		long[] byWord = columns.aggregate(new AdhocQuery(
+				AdhocQuery.GroupBy.WORD, AdhocQuery.Metric.POSTS, from, from + posts, -1, -1, columns.wordCount()));
+		assertThat(byWord[columns.wordIndexOf("w0")]).isEqualTo(posts / distinct + 1);
+		assertThat(byWord[columns.wordIndexOf("w4999")]).isEqualTo(posts / distinct);
+		assertThat(byWord[columns.wordCount()]).isEqualTo(posts);
+		long sum = 0;
+		for (int word = 0; word < columns.wordCount(); word++) {
+			sum += byWord[word];
+		}
+		assertThat(sum).isEqualTo(posts);
+	}
+
+	@Test
+	void bucketsOnlyTheRequestedRange() {
+		PostColumns.Builder builder = new PostColumns.Builder();
+		for (int hour = 47; hour >= 0; hour--) {
+			builder.add(UUID.randomUUID(), START.plusSeconds(hour * 3_600L + 60), ANA, "Ana", List.of(), 0, hour, 0);
+		}
+		PostColumns columns = builder.build(Instant.now());
+		long from = START.plusSeconds(24 * 3_600L).getEpochSecond();
+
+		long[] hours = columns.aggregate(new AdhocQuery(
+				AdhocQuery.GroupBy.HOUR, AdhocQuery.Metric.VIEWS, from, from + 3 * 3_600L, -1, -1, 3));
+		assertThat(hours).containsExactly(24, 25, 26, 75);
+
+		long[] weekdays = columns.aggregate(new AdhocQuery(
+				AdhocQuery.GroupBy.WEEKDAY, AdhocQuery.Metric.POSTS, START.getEpochSecond(), from + 24 * 3_600L, -1, -1, 7));
+		assertThat(weekdays).containsExactly(24, 24, 0, 0, 0, 0, 0, 48);
+	}
+
+	// Refresco incremental: un post nuevo, otro confirmado tarde con created_at anterior y un contador rehecho.
+	@Test
+	void refreshesFromPreviousSnapshotKeepingOrderAndCap() {
+		UUID first = UUID.randomUUID();
+		PostColumns.Builder builder = new PostColumns.Builder();
+		for (int hour = 3; hour >= 0; hour--) {
+			builder.add(hour == 0 ? first : UUID.randomUUID(), START.plusSeconds(hour * 3_600L), ANA, "Ana", List.of("sol"), 1, 0, 0);
+		}
+		PostColumns previous = builder.build(Instant.now());
+		UUID newest = UUID.randomUUID();
+		UUID late = UUID.randomUUID();
+
+		PostColumns.Builder refresh = new PostColumns.Builder(previous, 5);
+		refresh.add(newest, START.plusSeconds(4 * 3_600L), LUIS, "Luis", List.of("playa"), 0, 0, 0);
+		refresh.add(late, START.plusSeconds(2 * 3_600L + 60), LUIS, "Luis", List.of("playa"), 0, 0, 0);
+		refresh.updateCounters(START.plusSeconds(3 * 3_600L), UUID.randomUUID(), 99, 0, 0);
+		refresh.updateCounters(START.plusSeconds(4 * 3_600L), newest, 7, 0, 0);
+		PostColumns columns = refresh.build(Instant.now());
+
+		assertThat(columns.size()).isEqualTo(5);
+		assertThat(columns.contains(START, first)).isFalse();
+		assertThat(columns.contains(START.plusSeconds(2 * 3_600L + 60), late)).isTrue();
+		assertThat(columns.newestCreatedAt()).isEqualTo(START.plusSeconds(4 * 3_600L));
+		long from = START.getEpochSecond();
+		long[] hours = columns.aggregate(new AdhocQuery(
+				AdhocQuery.GroupBy.HOUR, AdhocQuery.Metric.LIKES, from, from + 5 * 3_600L, -1, -1, 5));
+		assertThat(hours).containsExactly(0, 1, 1, 1, 7, 10);
+		long[] words = columns.aggregate(new AdhocQuery(
+				AdhocQuery.GroupBy.WORD, AdhocQuery.Metric.POSTS, from, from + 5 * 3_600L, -1, -1, columns.wordCount()));
+		assertThat(words[columns.wordIndexOf("playa")]).isEqualTo(2);
+		assertThat(words[columns.wordIndexOf("sol")]).isEqualTo(3);
+		assertThat(previous.size()).isEqualTo(4);
+	}
+}
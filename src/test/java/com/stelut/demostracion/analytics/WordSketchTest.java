@@ -0,0 +1,79 @@
+package com.stelut.demostracion.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class WordSketchTest {
+
+	// Space-Saving garantiza las palabras con mas de total / capacity apariciones (aqui ~57).
+	@Test
+	void keepsHeavyHittersWithinTheErrorBound() {
+		WordSketch sketch = new WordSketch(100);
+		for (int i = 0; i < 5_000; i++) {
+			sketch.add("ruido" + i);
+			if (i % 10 == 0) {
+				sketch.add("primavera");
+			}
+			if (i % 25 == 0) {
+				sketch.add("playa");
+			}
+		}
+
+		assertThat(sketch.total()).isEqualTo(5_000 + 500 + 200);
+		assertThat(sketch.candidateCount()).isEqualTo(100);
+		assertThat(sketch.top(2)).containsOnlyKeys("primavera", "playa");
+		assertThat(sketch.estimate("primavera")).isBetween(500L, 500L + sketch.errorBound());
+		assertThat(sketch.estimate("playa")).isBetween(200L, 200L + sketch.errorBound());
+	}
+
+	@Test
+	void mergesSketchesSerializedByOtherNodes() {
+		WordSketch local = new WordSketch(10);
+		WordSketch remote = new WordSketch(10);
+		for (int i = 0; i < 30; i++) {
+			local.add("sol");
+			remote.add("sol");
+			remote.add(i % 2 == 0 ? "mar" : "arena");
+		}
+
+		WordSketch merged = new WordSketch(10);
+		merged.merge(local);
+		merged.merge(WordSketch.fromBytes(remote.toBytes()));
+
+		assertThat(merged.total()).isEqualTo(90);
+		assertThat(merged.top(3)).containsExactly(
+				Map.entry("sol", 60L),
+				Map.entry("arena", 15L),
+				Map.entry("mar", 15L)
+		);
+	}
+
+	// En remote "sol" acaba desplazada por el ruido: sin sumar la minima de remote, el ruido la sacaria del merge.
+	@Test
+	void keepsHeavyHitterThatIsACandidateInOnlyOneSketch() {
+		WordSketch local = new WordSketch(3);
+		WordSketch remote = new WordSketch(3);
+		for (int i = 0; i < 50; i++) {
+			local.add("sol");
+		}
+		local.add("mar");
+		local.add("arena");
+		for (int i = 0; i < 40; i++) {
+			remote.add("sol");
+		}
+		for (int i = 0; i < 100; i++) {
+			remote.add("ruido" + i);
+		}
+		assertThat(remote.top(3)).doesNotContainKey("sol");
+
+		WordSketch merged = new WordSketch(3);
+		merged.merge(local);
+		merged.merge(remote);
+
+		assertThat(merged.top(1)).containsOnlyKeys("sol");
+		assertThat(merged.top(1).get("sol")).isBetween(90L, 90L + merged.errorBound());
+	}
+}
@@ -0,0 +1,87 @@
+package com.stelut.demostracion.social;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import com.stelut.demostracion.social.config.SocialAsyncProperties;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+class FeedHeadRingTest {
+
+	private final PostRepository postRepository = mock(PostRepository.class);
+
+	@Test
+	void servesHeadPagesFromMemoryAndFallsBackForDeeperPages() {
+		when(postRepository.findFeedHead(any(Pageable.class))).thenReturn(List.of());
+		when(postRepository.count()).thenReturn(10L);
+		FeedHeadRing ring = new FeedHeadRing(postRepository, properties(3));
+
+		Instant now = Instant.now();
+		PostSummary oldest = summary(now.minusSeconds(30));
+		PostSummary middle = summary(now.minusSeconds(20));
+		PostSummary newest = summary(now.minusSeconds(10));
+		ring.push(middle);
+		ring.push(oldest);
+		ring.push(newest);
+		ring.push(newest);
+
+		assertThat(ring.page(0, 2)).contains(List.of(newest, middle));
+		assertThat(ring.page(1, 2)).isEmpty();
+		assertThat(ring.after(FeedCursor.of(newest), 2)).contains(List.of(middle, oldest));
+		verify(postRepository, times(1)).count();
+	}
+
+	@Test
+	void servesEveryPageWhenRingHoldsAllPosts() {
+		when(postRepository.findFeedHead(any(Pageable.class))).thenReturn(List.of());
+		when(postRepository.count()).thenReturn(0L);
+		FeedHeadRing ring = new FeedHeadRing(postRepository, properties(5));
+
+		PostSummary only = summary(Instant.now());
+		ring.page(0, 20);
+		ring.push(only);
+
+		assertThat(ring.page(0, 20)).contains(List.of(only));
+		assertThat(ring.after(FeedCursor.of(only), 20)).contains(List.of());
+		assertThat(ring.totalPosts()).isEqualTo(1);
+	}
+
+	// Mismo created_at: el desempate sigue el orden de uuid de PostgreSQL (sin signo), no el de UUID.compareTo.
+	@Test
+	void breaksTiesByUnsignedId() {
+		when(postRepository.findFeedHead(any(Pageable.class))).thenReturn(List.of());
+		when(postRepository.count()).thenReturn(0L);
+		FeedHeadRing ring = new FeedHeadRing(postRepository, properties(5));
+
+		Instant now = Instant.now();
+		PostSummary high = new PostSummary(new UUID(0x8000_0000_0000_0000L, 0), UUID.randomUUID(), "author", "content", now, now);
+		PostSummary low = new PostSummary(new UUID(1, 0), UUID.randomUUID(), "author", "content", now, now);
+		ring.page(0, 20);
+		ring.push(low);
+		ring.push(high);
+
+		assertThat(ring.page(0, 20)).contains(List.of(high, low));
+		assertThat(ring.after(FeedCursor.of(high), 20)).contains(List.of(low));
+	}
+
+	private static PostSummary summary(Instant createdAt) {
+		return new PostSummary(UUID.randomUUID(), UUID.randomUUID(), "author", "content", createdAt, createdAt);
+	}
+
+	// Solo se stubbea la capacidad: los demas ajustes de SocialAsyncProperties no afectan al anillo.
+	private static SocialAsyncProperties properties(int feedHeadCapacity) {
+		SocialAsyncProperties properties = mock(SocialAsyncProperties.class);
+		when(properties.feedHeadCapacity()).thenReturn(feedHeadCapacity);
+		return properties;
+	}
+}
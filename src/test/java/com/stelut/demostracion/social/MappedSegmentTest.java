@@ -0,0 +1,76 @@
+package com.stelut.demostracion.social;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedSegmentTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackWhatTheLiveSegmentIndexed() throws Exception {
+		LiveSegment live = new LiveSegment();
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		live.add(first, 1_000L, TextAnalyzer.terms("Hola mundo, hola Canción"));
+		live.add(second, 2_000L, TextAnalyzer.terms("mundo"));
+		for (int i = 0; i < 300; i++) {
+			live.add(UUID.randomUUID(), 3_000L + i, TextAnalyzer.terms("relleno " + i));
+		}
+		live.add(first, 9_000L, TextAnalyzer.terms("duplicado"));
+
+		MappedSegment segment = MappedSegment.write(directory.resolve("segment-000001.idx"), live);
+		MappedSegment reopened = MappedSegment.open(segment.file());
+
+		assertThat(reopened.docCount()).isEqualTo(302);
+		assertThat(reopened.totalLength()).isEqualTo(live.totalLength());
+		assertThat(reopened.docFreq("hola")).isEqualTo(1);
+		assertThat(reopened.docFreq("duplicado")).isZero();
+		assertThat(postings(reopened, "mundo")).containsExactly("0:1", "1:1");
+		assertThat(postings(reopened, "relleno")).hasSize(300).endsWith("301:1");
+		assertThat(postings(reopened, "cancion")).containsExactly("0:1");
+		assertThat(postings(reopened, "hola")).containsExactly("0:2");
+		assertThat(reopened.postId(1)).isEqualTo(second);
+		assertThat(reopened.createdAtMillis(1)).isEqualTo(2_000L);
+		assertThat(reopened.length(0)).isEqualTo(4);
+	}
+
+	@Test
+	void mergesSegmentsSkippingPostsAlreadyMerged() throws Exception {
+		UUID shared = UUID.randomUUID();
+		UUID other = UUID.randomUUID();
+		LiveSegment first = new LiveSegment();
+		first.add(shared, 1_000L, TextAnalyzer.terms("hola mundo"));
+		LiveSegment second = new LiveSegment();
+		second.add(other, 2_000L, TextAnalyzer.terms("mundo mundo"));
+		second.add(shared, 1_000L, TextAnalyzer.terms("hola mundo"));
+		MappedSegment a = MappedSegment.write(directory.resolve("segment-000001.idx"), first);
+		MappedSegment b = MappedSegment.write(directory.resolve("segment-000002.idx"), second);
+
+		LiveSegment merged = new LiveSegment();
+		merged.append(a, a.terms());
+		merged.append(b, b.terms());
+		MappedSegment segment = MappedSegment.write(directory.resolve("segment-000003.idx"), merged);
+
+		assertThat(segment.docCount()).isEqualTo(2);
+		assertThat(segment.totalLength()).isEqualTo(4);
+		assertThat(postings(segment, "mundo")).containsExactly("0:1", "1:2");
+		assertThat(postings(segment, "hola")).containsExactly("0:1");
+		assertThat(segment.postId(1)).isEqualTo(other);
+		assertThat(segment.createdAtMillis(1)).isEqualTo(2_000L);
+	}
+
+	private static List<String> postings(IndexSegment segment, String term) {
+		List<String> result = new ArrayList<>();
+		segment.forEachPosting(term, (doc, frequency) -> result.add(doc + ":" + frequency));
+		return result;
+	}
+}
@@ -0,0 +1,88 @@
+package com.stelut.demostracion.social;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.stelut.demostracion.social.dto.SearchSuggestionItemResponse;
+
+import org.junit.jupiter.api.Test;
+
+class PrefixIndexTest {
+
+	@Test
+	void returnsNewestMatchesForPrefixIgnoringCaseAndAccents() {
+		PrefixIndex index = new PrefixIndex(4, 4, 10);
+		index.add(item("1", "Canción de Spring"), 10, "Canción de Spring");
+		index.add(item("2", "spring boot"), 30, "spring boot");
+		index.add(item("3", "Springfield"), 20, "Springfield");
+		index.add(item("2", "spring boot"), 30, "spring boot");
+
+		assertThat(ids(index.search("SPR", 2))).containsExactly("2", "3");
+		assertThat(ids(index.search("cancion", 10))).containsExactly("1");
+		assertThat(ids(index.search("springf", 10))).containsExactly("3");
+		assertThat(ids(index.search("spring bo", 10))).containsExactly("2");
+		assertThat(ids(index.search("xyz", 10))).isEmpty();
+		assertThat(index.size()).isEqualTo(3);
+		assertThat(index.estimatedBytes()).isPositive();
+	}
+
+	// El top de "spri" guarda 2 de 3: el filtro por "springf" o "cancion" no puede garantizar el resultado.
+	@Test
+	void matchesEveryTokenAgainstFullTextAndGivesUpWhenTopIsIncomplete() {
+		PrefixIndex index = new PrefixIndex(2, 4, 10);
+		index.add(item("1", "Canción…"), 10, "Canción de Spring con un texto largo", "Ana");
+		index.add(item("2", "spring boot"), 30, "spring boot", "Luis");
+		index.add(item("3", "Springfield"), 20, "Springfield", "Ana");
+
+		assertThat(ids(index.search("largo ana", 10))).containsExactly("1");
+		assertThat(ids(index.search("ana spring", 1))).containsExactly("3");
+		assertThat(index.search("ana spring", 10)).isEmpty();
+		assertThat(index.search("springf", 10)).isEmpty();
+		assertThat(ids(index.search("ana luis", 10))).isEmpty();
+	}
+
+	// Con entradas expulsadas, menos de limit resultados no es una respuesta exacta: la da la BBDD.
+	@Test
+	void evictsOldestEntryOnceFullAndGivesUpOnShortResults() {
+		PrefixIndex index = new PrefixIndex(2, 4, 2);
+		index.add(item("1", "hola"), 10, "hola");
+		index.add(item("2", "holanda"), 20, "holanda");
+		assertThat(ids(index.search("hola", 10))).containsExactly("2", "1");
+
+		index.add(item("3", "mundo"), 30, "mundo");
+		index.add(item("0", "hola viejo"), 5, "hola viejo");
+
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(ids(index.search("hola", 1))).containsExactly("2");
+		assertThat(index.search("hola", 10)).isEmpty();
+		assertThat(index.search("viejo", 10)).isEmpty();
+		long nodes = index.nodeCount();
+
+		index.add(item("4", "zeta"), 40, "zeta");
+		assertThat(index.search("hol", 10)).isEmpty();
+		assertThat(ids(index.search("zet", 1))).containsExactly("4");
+		assertThat(index.nodeCount()).isEqualTo(nodes);
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void partialLoadIsNeverAnExactShortAnswer() {
+		PrefixIndex index = new PrefixIndex(2, 4, 10);
+		index.add(item("1", "hola"), 10, "hola");
+		assertThat(ids(index.search("hola", 10))).containsExactly("1");
+
+		index.markTruncated();
+		assertThat(index.search("hola", 10)).isEmpty();
+		assertThat(ids(index.search("hola", 1))).containsExactly("1");
+	}
+
+	private static SearchSuggestionItemResponse item(String id, String title) {
+		return new SearchSuggestionItemResponse(id, "post", title, "");
+	}
+
+	private static List<String> ids(Optional<List<SearchSuggestionItemResponse>> items) {
+		return items.orElseThrow().stream().map(SearchSuggestionItemResponse::id).toList();
+	}
+}